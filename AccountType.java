@@ -0,0 +1,16 @@
+
+/**
+ * AccountType: the role of an account, which decides what its sessions may do.
+ */
+enum AccountType {
+    CUSTOMER,
+    USER,
+    ADMIN;
+
+    static AccountType of(User user) {
+        if (user instanceof Customer) {
+            return CUSTOMER;
+        }
+        return user instanceof Admin ? ADMIN : USER;
+    }
+}
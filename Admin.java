@@ -0,0 +1,16 @@
+
+/**
+ * Admin: a staff account with full access, under the administrator's name.
+ */
+class Admin extends User {
+    private final String adminName;
+
+    public Admin(String username, String passwordHash, String adminName) {
+        super(username, passwordHash);
+        this.adminName = adminName;
+    }
+
+    public String getAdminName() {
+        return adminName;
+    }
+}
@@ -0,0 +1,96 @@
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * BillingEngine: bills folios as nights times the nightly rate plus the posted extras and room tax,
+ * then applies its discount and surcharge rules in order.
+ *
+ * The rules can be changed while folios are being billed; each bill sees one consistent list.
+ */
+class BillingEngine {
+    private static final int BASIS_POINTS = 10_000;
+
+    private final List<BillingRule> rules = new CopyOnWriteArrayList<>();
+
+    public BillingEngine(BillingRule... rules) {
+        this.rules.addAll(List.of(rules));
+    }
+
+    public void addRule(BillingRule rule) {
+        rules.add(rule);
+    }
+
+    public boolean removeRule(BillingRule rule) {
+        return rules.remove(rule);
+    }
+
+    public FolioBill bill(Folio folio) {
+        return bill(folio, rules.toArray(new BillingRule[0]));
+    }
+
+    /**
+     * Bills every folio with the same rules, in the order given.
+     */
+    public List<FolioBill> billAll(Collection<Folio> folios) {
+        BillingRule[] current = rules.toArray(new BillingRule[0]);
+        List<FolioBill> bills = new ArrayList<>(folios.size());
+        for (Folio folio : folios) {
+            bills.add(bill(folio, current));
+        }
+        return bills;
+    }
+
+    /**
+     * Sum of the totals of the folios, without building a bill for each.
+     */
+    public long totalOf(Collection<Folio> folios) {
+        BillingRule[] current = rules.toArray(new BillingRule[0]);
+        long total = 0;
+        for (Folio folio : folios) {
+            long subtotal = (long) folio.getNights() * folio.getNightlyRate() + folio.getExtras() + folio.getRoomTax();
+            for (BillingRule rule : current) {
+                subtotal += rule.adjust(folio, subtotal);
+            }
+            total += subtotal;
+        }
+        return total;
+    }
+
+    private static FolioBill bill(Folio folio, BillingRule[] rules) {
+        HotelEvents.InvoiceEvent event = new HotelEvents.InvoiceEvent();
+        event.begin();
+        long roomCharges = (long) folio.getNights() * folio.getNightlyRate();
+        long extras = folio.getExtras();
+        long tax = folio.getRoomTax();
+        long subtotal = roomCharges + extras + tax;
+        long surcharges = 0;
+        long discounts = 0;
+        for (BillingRule rule : rules) {
+            long adjustment = rule.adjust(folio, subtotal);
+            if (adjustment >= 0) {
+                surcharges += adjustment;
+            } else {
+                discounts -= adjustment;
+            }
+            subtotal += adjustment;
+        }
+        if (event.shouldCommit()) {
+            event.guestName = folio.getGuestName();
+            event.roomNumber = folio.getRoomNumber();
+            event.nights = folio.getNights();
+            event.charges = folio.getChargeCount();
+            event.rules = rules.length;
+            event.total = subtotal;
+            event.commit();
+        }
+        return new FolioBill(folio.getGuestName(), folio.getNights(), roomCharges, extras, tax, surcharges, discounts, subtotal);
+    }
+
+    static long percentage(long amount, int basisPoints) {
+        return (amount * basisPoints + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+}
@@ -0,0 +1,33 @@
+
+/**
+ * BillingRule: a discount or surcharge applied to a folio when it is billed.
+ *
+ * Rules run in the order they were added; each sees the subtotal the previous rules left.
+ */
+interface BillingRule {
+    /**
+     * Returns the adjustment in paisa: negative for a discount, positive for a surcharge.
+     */
+    long adjust(Folio folio, long subtotal);
+
+    /**
+     * A flat amount per stay.
+     */
+    static BillingRule surcharge(long amount) {
+        return (folio, subtotal) -> amount;
+    }
+
+    /**
+     * A share of the subtotal, in basis points, rounded to the nearest paisa.
+     */
+    static BillingRule discount(int basisPoints) {
+        return (folio, subtotal) -> -BillingEngine.percentage(subtotal, basisPoints);
+    }
+
+    /**
+     * A discount for stays of at least the given number of nights.
+     */
+    static BillingRule longStayDiscount(int minimumNights, int basisPoints) {
+        return (folio, subtotal) -> folio.getNights() >= minimumNights ? -BillingEngine.percentage(subtotal, basisPoints) : 0;
+    }
+}
@@ -0,0 +1,10 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * CancellationRequest: cancels the reservation of the room from the check-in day. The guest name
+ * must match the reservation's.
+ */
+record CancellationRequest(String guestName, String roomNumber, LocalDate checkIn) {
+}
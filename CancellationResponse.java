@@ -0,0 +1,10 @@
+
+import java.util.List;
+
+
+/**
+ * CancellationResponse: the cancelled reservation. {@code promoted} are the waitlisted reservations
+ * that were given the nights it freed.
+ */
+record CancellationResponse(ServiceStatus status, Reservation reservation, List<Reservation> promoted) {
+}
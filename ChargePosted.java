@@ -0,0 +1,6 @@
+
+/**
+ * ChargePosted: an amount posted to a guest's folio.
+ */
+record ChargePosted(String guestName, String description, long amount) implements DomainEvent {
+}
@@ -0,0 +1,10 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * CheckInRequest: the guest's details and stay at check-in. A null {@code roomNumber} leaves the
+ * choice of room to the hotel.
+ */
+record CheckInRequest(String guestName, String phoneNumber, String email, String address, String identification, RoomType roomType, String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+}
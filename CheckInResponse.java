@@ -0,0 +1,6 @@
+
+/**
+ * CheckInResponse: the guest as registered, when the check-in went through.
+ */
+record CheckInResponse(ServiceStatus status, GuestInformation guest) {
+}
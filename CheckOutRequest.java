@@ -0,0 +1,6 @@
+
+/**
+ * CheckOutRequest: checks the guest out, with their meals on the bill if {@code includeMeals}.
+ */
+record CheckOutRequest(String guestName, boolean includeMeals) {
+}
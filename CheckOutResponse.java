@@ -0,0 +1,11 @@
+
+import java.util.List;
+
+
+/**
+ * CheckOutResponse: {@code totalWithMeals} is the quick total shown before the itemised invoice: the
+ * folio's total, meals included if they were asked for. {@code promoted} are the waitlisted
+ * reservations that were given the nights the guest did not stay.
+ */
+record CheckOutResponse(ServiceStatus status, GuestInformation guest, double totalWithMeals, Invoice invoice, List<Reservation> promoted) {
+}
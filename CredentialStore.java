@@ -0,0 +1,139 @@
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+
+/**
+ * CredentialStore: salted, deliberately slow password hashes (PBKDF2 with HMAC-SHA256).
+ *
+ * A hash is kept as one string, {@code pbkdf2-sha256$<iterations>$<salt>$<hash>} with the salt
+ * and hash in Base64, so the work factor can be raised later without invalidating the hashes
+ * already stored; {@link #needsRehash} tells which ones are below the current factor.
+ */
+final class CredentialStore {
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2-sha256$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    static final int DEFAULT_ITERATIONS = 210_000;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final int iterations;
+    // Checked against when the user does not exist, so an unknown name costs as long as a wrong password.
+    private volatile String dummyHash;
+
+    public CredentialStore() {
+        this(DEFAULT_ITERATIONS);
+    }
+
+    public CredentialStore(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations must be positive: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        return PREFIX + iterations + '$' + ENCODER.encodeToString(salt) + '$' + ENCODER.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * True if the password matches the stored hash. A null or malformed hash never matches.
+     */
+    public boolean verify(String password, String storedHash) {
+        HotelEvents.PasswordCheckEvent event = new HotelEvents.PasswordCheckEvent();
+        event.begin();
+        int storedIterations = iterationsOf(storedHash);
+        boolean matched = matches(password, storedHash, storedIterations);
+        if (event.shouldCommit()) {
+            event.iterations = storedIterations > 0 ? storedIterations : iterations;
+            event.knownAccount = storedHash != null;
+            event.matched = matched;
+            event.commit();
+        }
+        return matched;
+    }
+
+    private boolean matches(String password, String storedHash, int storedIterations) {
+        if (password == null) {
+            return false;
+        }
+        if (storedHash == null) {
+            String dummy = dummyHash;
+            if (dummy == null) {
+                dummy = hash("not a password");
+                dummyHash = dummy;
+            }
+            matches(password, dummy, iterations);
+            return false;
+        }
+        if (storedIterations < 1) {
+            return false;
+        }
+        String[] parts = storedHash.split("\\$");
+        try {
+            byte[] expected = DECODER.decode(parts[3]);
+            byte[] actual = pbkdf2(password, DECODER.decode(parts[2]), storedIterations);
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * True if the hash was made with fewer iterations than this store uses now.
+     */
+    public boolean needsRehash(String storedHash) {
+        return iterationsOf(storedHash) < iterations;
+    }
+
+    /**
+     * True if the value has the form of a hash this class writes.
+     */
+    public static boolean isHash(String value) {
+        return iterationsOf(value) > 0;
+    }
+
+    /**
+     * The iteration count of a well-formed hash, or -1 if the value is not one.
+     */
+    private static int iterationsOf(String storedHash) {
+        if (storedHash == null || !storedHash.startsWith(PREFIX)) {
+            return -1;
+        }
+        String[] parts = storedHash.split("\\$");
+        if (parts.length != 4) {
+            return -1;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            return storedIterations > 0 ? storedIterations : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+
+/**
+ * Customer: a guest's own account, with their name and e-mail.
+ */
+class Customer extends User {
+    private final String customerName;
+    private final String email;
+
+    public Customer(String username, String passwordHash, String customerName, String email) {
+        super(username, passwordHash);
+        this.customerName = customerName;
+        this.email = email;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
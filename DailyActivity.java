@@ -0,0 +1,24 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * DailyActivity: what the hotel did on one day, by the day the events happened. Revenue is what
+ * was billed at check-out and in the restaurant, in paisa.
+ */
+record DailyActivity(LocalDate day, int reservations, int cancellations, int checkIns, int checkOuts, long roomRevenue,
+                     long chargesPosted, int dineInOrders, long dineInRevenue) {
+    static DailyActivity empty(LocalDate day) {
+        return new DailyActivity(day, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    DailyActivity plus(DailyActivity other) {
+        return new DailyActivity(day, reservations + other.reservations, cancellations + other.cancellations, checkIns + other.checkIns,
+                checkOuts + other.checkOuts, roomRevenue + other.roomRevenue, chargesPosted + other.chargesPosted,
+                dineInOrders + other.dineInOrders, dineInRevenue + other.dineInRevenue);
+    }
+
+    long totalRevenue() {
+        return roomRevenue + dineInRevenue;
+    }
+}
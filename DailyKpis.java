@@ -0,0 +1,30 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * DailyKpis: occupancy and room revenue for one night, for one room type or for the whole hotel
+ * when {@code roomType} is null. Revenue and rates are in paisa.
+ */
+record DailyKpis(LocalDate night, RoomType roomType, int rooms, long roomsSold, long roomRevenue) {
+    /**
+     * Share of the rooms sold, from 0 to 1.
+     */
+    double occupancy() {
+        return rooms == 0 ? 0.0 : (double) roomsSold / rooms;
+    }
+
+    /**
+     * Average daily rate: room revenue per room sold.
+     */
+    long averageDailyRate() {
+        return roomsSold == 0 ? 0 : roomRevenue / roomsSold;
+    }
+
+    /**
+     * Revenue per available room.
+     */
+    long revPar() {
+        return rooms == 0 ? 0 : roomRevenue / rooms;
+    }
+}
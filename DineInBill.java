@@ -0,0 +1,6 @@
+
+/**
+ * DineInBill: the amounts of a dine-in order, all in paisa.
+ */
+record DineInBill(long subtotal, long tip, long tax, long total) {
+}
@@ -0,0 +1,6 @@
+
+/**
+ * DineInRequest: an order for a table of the restaurant.
+ */
+record DineInRequest(String customerName, String tableNumber, FoodOrder order) {
+}
@@ -0,0 +1,7 @@
+
+/**
+ * DineInResponse: the bill for the order. {@code ticketNumber} is the kitchen ticket for the order,
+ * or -1 if it had nothing to cook.
+ */
+record DineInResponse(ServiceStatus status, Invoice invoice, long ticketNumber) {
+}
@@ -0,0 +1,6 @@
+
+/**
+ * DineInServed: {@code ticketNumber} is -1 for an order with nothing to cook.
+ */
+record DineInServed(String customerName, String tableNumber, long ticketNumber, long total) implements DomainEvent {
+}
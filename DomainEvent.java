@@ -0,0 +1,8 @@
+
+/**
+ * DomainEvent: something that happened at the hotel, as the front desk, room management or the
+ * restaurant made it happen. Amounts are in paisa.
+ */
+sealed interface DomainEvent permits ReservationMade, ReservationCancelled, ReservationMoved, GuestCheckedIn, GuestCheckedOut,
+        ChargePosted, RoomBlocked, RoomTakenForMaintenance, DineInServed, NightAudited, HotelRestored {
+}
@@ -0,0 +1,95 @@
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+
+/**
+ * EventLog: the hotel's domain events in the order they happened, kept in memory for the read
+ * models to follow.
+ *
+ * Events go into fixed-size chunks that are never copied, so an append only stores a reference
+ * under a short lock and never waits for a reader. The count of published events is volatile and
+ * written after the event, so readers take no lock: whatever they read below the count is there
+ * for good. A reader with nothing new can wait for the next append, which is only signalled while
+ * someone waits.
+ *
+ * The log holds what happened since the service started, beginning with the state a journal
+ * restored; it is not written to disk.
+ */
+class EventLog {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private volatile LoggedEvent[][] chunks = new LoggedEvent[16][];
+    private volatile long published;
+    private int waiters;
+
+    /**
+     * Appends the event and returns its sequence.
+     */
+    public long append(DomainEvent event) {
+        long timestamp = System.currentTimeMillis();
+        synchronized (this) {
+            long sequence = published + 1;
+            int chunk = (int) ((sequence - 1) >>> CHUNK_BITS);
+            LoggedEvent[][] current = chunks;
+            if (chunk == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                chunks = current;
+            }
+            if (current[chunk] == null) {
+                current[chunk] = new LoggedEvent[CHUNK_SIZE];
+            }
+            current[chunk][(int) ((sequence - 1) & (CHUNK_SIZE - 1))] = new LoggedEvent(sequence, timestamp, event);
+            published = sequence;
+            if (waiters > 0) {
+                notifyAll();
+            }
+            return sequence;
+        }
+    }
+
+    /**
+     * The sequence of the last event appended, or 0 if there is none.
+     */
+    public long getLastSequence() {
+        return published;
+    }
+
+    /**
+     * Hands the events after {@code afterSequence}, at most {@code maxEvents} of them, to the
+     * consumer in order and returns how many it handed over.
+     */
+    public int read(long afterSequence, int maxEvents, Consumer<LoggedEvent> consumer) {
+        long last = Math.min(published, afterSequence + maxEvents);
+        LoggedEvent[][] current = chunks;
+        int read = 0;
+        for (long sequence = afterSequence + 1; sequence <= last; sequence++) {
+            consumer.accept(current[(int) ((sequence - 1) >>> CHUNK_BITS)][(int) ((sequence - 1) & (CHUNK_SIZE - 1))]);
+            read++;
+        }
+        return read;
+    }
+
+    /**
+     * Waits until an event after {@code afterSequence} has been appended or the timeout passes,
+     * and returns whether one has.
+     */
+    public boolean awaitAfter(long afterSequence, long timeoutMillis) throws InterruptedException {
+        if (published > afterSequence) {
+            return true;
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (this) {
+            waiters++;
+            try {
+                for (long remaining = timeoutMillis; published <= afterSequence && remaining > 0; remaining = deadline - System.currentTimeMillis()) {
+                    wait(remaining);
+                }
+                return published > afterSequence;
+            } finally {
+                waiters--;
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Folio: the account of one stay: its nights, the nightly rate and the extras posted to it.
+ *
+ * The stay is held as epoch days, so billing never parses a date. Extras can be posted from any
+ * thread while the folio is open. The night audit posts the room tax night by night and records
+ * the first night it has not posted yet.
+ */
+class Folio {
+    private final String guestName;
+    private final String roomNumber;
+    private final RoomType roomType;
+    private final int checkInDay;
+    private final int checkOutDay;
+    private final long nightlyRate;
+    private final List<FolioCharge> charges = new ArrayList<>();
+    private long extras;
+    private int postedThroughDay;
+    private long roomTax;
+
+    /**
+     * @param nightlyRate the room rate per night in paisa
+     */
+    public Folio(String guestName, String roomNumber, RoomType roomType, int checkInDay, int checkOutDay, long nightlyRate) {
+        if (checkOutDay <= checkInDay) {
+            throw new IllegalArgumentException("A stay must last at least one night: " + checkInDay + " to " + checkOutDay);
+        }
+        this.guestName = guestName;
+        this.roomNumber = roomNumber;
+        this.roomType = roomType;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+        this.nightlyRate = nightlyRate;
+        this.postedThroughDay = checkInDay;
+    }
+
+    /**
+     * The folio of a checked-in guest, billed at the room cost they checked in with.
+     */
+    public static Folio forGuest(GuestInformation guest) {
+        RoomType type = guest.getRoomType() == null ? null : RoomType.parse(guest.getRoomType());
+        return new Folio(guest.getGuestName(), guest.getRoomNumber(), type, (int) guest.getCheckIn().toEpochDay(),
+                (int) guest.getCheckOut().toEpochDay(), Math.round(guest.getRoomCost() * 100));
+    }
+
+    public String getGuestName() {
+        return guestName;
+    }
+
+    public String getRoomNumber() {
+        return roomNumber;
+    }
+
+    public RoomType getRoomType() {
+        return roomType;
+    }
+
+    public int getCheckInDay() {
+        return checkInDay;
+    }
+
+    public int getCheckOutDay() {
+        return checkOutDay;
+    }
+
+    /**
+     * True if this folio is for the same room and nights as the guest's stay.
+     */
+    public boolean isStayOf(GuestInformation guest) {
+        return roomNumber.equals(guest.getRoomNumber()) && checkInDay == guest.getCheckIn().toEpochDay()
+                && checkOutDay == guest.getCheckOut().toEpochDay();
+    }
+
+    public int getNights() {
+        return checkOutDay - checkInDay;
+    }
+
+    public long getNightlyRate() {
+        return nightlyRate;
+    }
+
+    /**
+     * Posts an extra and returns its position among the folio's charges.
+     */
+    public synchronized int post(String description, long amount) {
+        charges.add(new FolioCharge(description, amount));
+        extras += amount;
+        return charges.size() - 1;
+    }
+
+    public synchronized long getExtras() {
+        return extras;
+    }
+
+    public synchronized int getChargeCount() {
+        return charges.size();
+    }
+
+    public synchronized List<FolioCharge> getCharges() {
+        return List.copyOf(charges);
+    }
+
+    /**
+     * Posts the nights up to and including the business day that have not been posted yet, with
+     * the room tax on each, and returns how many there were.
+     */
+    public synchronized int postNightsThrough(int businessDay, int taxBasisPoints) {
+        int end = Math.min(businessDay + 1, checkOutDay);
+        int nights = end - postedThroughDay;
+        if (nights <= 0) {
+            return 0;
+        }
+        postedThroughDay = end;
+        roomTax += nights * roomTax(nightlyRate, taxBasisPoints);
+        return nights;
+    }
+
+    /**
+     * The first night the night audit has not posted yet.
+     */
+    public synchronized int getPostedThroughDay() {
+        return postedThroughDay;
+    }
+
+    public synchronized long getRoomTax() {
+        return roomTax;
+    }
+
+    synchronized void restorePosting(int postedThroughDay, long roomTax) {
+        if (postedThroughDay > this.postedThroughDay) {
+            this.postedThroughDay = postedThroughDay;
+            this.roomTax = roomTax;
+        }
+    }
+
+    static long roomTax(long nightlyRate, int taxBasisPoints) {
+        return BillingEngine.percentage(nightlyRate, taxBasisPoints);
+    }
+}
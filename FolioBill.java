@@ -0,0 +1,10 @@
+
+/**
+ * FolioBill: what a folio comes to, all amounts in paisa. Discounts are a positive amount that is
+ * subtracted.
+ */
+record FolioBill(String guestName, int nights, long roomCharges, long extras, long tax, long surcharges, long discounts, long total) {
+    Invoice toInvoice() {
+        return new Invoice(roomCharges / 100.0, 0.0, (extras + tax + surcharges) / 100.0, discounts / 100.0, total / 100.0);
+    }
+}
@@ -0,0 +1,6 @@
+
+/**
+ * FolioCharge: an extra posted to a folio, such as meals; the amount is in paisa.
+ */
+record FolioCharge(String description, long amount) {
+}
@@ -0,0 +1,60 @@
+
+import java.util.Arrays;
+
+
+/**
+ * FoodOrder: the lines of a dine-in order as parallel item-id and quantity arrays.
+ *
+ * An order belongs to the terminal that builds it and is not safe to change from several threads.
+ */
+class FoodOrder {
+    private int[] itemIds;
+    private int[] quantities;
+    private int lineCount;
+
+    public FoodOrder() {
+        this(8);
+    }
+
+    public FoodOrder(int initialLines) {
+        itemIds = new int[Math.max(initialLines, 1)];
+        quantities = new int[itemIds.length];
+    }
+
+    /**
+     * An order of one of each given item.
+     */
+    public static FoodOrder of(int... itemIds) {
+        FoodOrder order = new FoodOrder(itemIds.length);
+        for (int itemId : itemIds) {
+            order.add(itemId, 1);
+        }
+        return order;
+    }
+
+    public void add(int itemId, int quantity) {
+        if (lineCount == itemIds.length) {
+            itemIds = Arrays.copyOf(itemIds, lineCount * 2);
+            quantities = Arrays.copyOf(quantities, lineCount * 2);
+        }
+        itemIds[lineCount] = itemId;
+        quantities[lineCount] = quantity;
+        lineCount++;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getItemId(int line) {
+        return itemIds[line];
+    }
+
+    public int getQuantity(int line) {
+        return quantities[line];
+    }
+
+    public void clear() {
+        lineCount = 0;
+    }
+}
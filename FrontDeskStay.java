@@ -0,0 +1,9 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * FrontDeskStay: a stay as the front desk sees it, booked ahead or with the guest in house.
+ */
+record FrontDeskStay(String guestName, String roomNumber, LocalDate checkIn, LocalDate checkOut, boolean inHouse) {
+}
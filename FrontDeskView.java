@@ -0,0 +1,105 @@
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+
+/**
+ * FrontDeskView: who is in which room, and who arrives and leaves on which day, built from the
+ * reservation, check-in and check-out events.
+ */
+class FrontDeskView implements Projection {
+    private final Map<String, FrontDeskStay> inHouse = new ConcurrentHashMap<>();
+    // Day -> room number -> the stay that starts or ends in the room that day.
+    private final NavigableMap<LocalDate, Map<String, FrontDeskStay>> arrivals = new ConcurrentSkipListMap<>();
+    private final NavigableMap<LocalDate, Map<String, FrontDeskStay>> departures = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void apply(LoggedEvent logged) {
+        DomainEvent event = logged.event();
+        if (event instanceof ReservationMade made) {
+            add(booked(made.reservation()));
+        } else if (event instanceof ReservationCancelled cancelled) {
+            remove(booked(cancelled.reservation()));
+        } else if (event instanceof ReservationMoved moved) {
+            remove(booked(moved.reservation()));
+            add(booked(moved.reservation().inRoom(moved.toRoom())));
+        } else if (event instanceof GuestCheckedIn checkedIn) {
+            checkIn(checkedIn);
+        } else if (event instanceof HotelRestored restored) {
+            restored.reservations().forEach(reservation -> add(booked(reservation)));
+            restored.inHouse().forEach(this::checkIn);
+        } else if (event instanceof GuestCheckedOut checkedOut) {
+            inHouse.computeIfPresent(checkedOut.roomNumber(), (room, stay) -> stay.guestName().equalsIgnoreCase(checkedOut.guestName()) ? null : stay);
+            remove(new FrontDeskStay(checkedOut.guestName(), checkedOut.roomNumber(), checkedOut.checkIn(), checkedOut.checkOut(), true));
+        }
+    }
+
+    /**
+     * The guest in the room, or null if it has none.
+     */
+    public FrontDeskStay getInHouse(String roomNumber) {
+        return inHouse.get(roomNumber);
+    }
+
+    public List<FrontDeskStay> getInHouse() {
+        List<FrontDeskStay> stays = new ArrayList<>(inHouse.values());
+        stays.sort((a, b) -> a.roomNumber().compareTo(b.roomNumber()));
+        return stays;
+    }
+
+    /**
+     * Stays starting on any day in [from, to), in date order.
+     */
+    public List<FrontDeskStay> getArrivals(LocalDate from, LocalDate to) {
+        return collect(arrivals, from, to);
+    }
+
+    /**
+     * Stays ending on any day in [from, to), in date order.
+     */
+    public List<FrontDeskStay> getDepartures(LocalDate from, LocalDate to) {
+        return collect(departures, from, to);
+    }
+
+    private void checkIn(GuestCheckedIn checkedIn) {
+        FrontDeskStay stay = new FrontDeskStay(checkedIn.guestName(), checkedIn.roomNumber(), checkedIn.checkIn(), checkedIn.checkOut(), true);
+        inHouse.put(stay.roomNumber(), stay);
+        add(stay);
+    }
+
+    private static FrontDeskStay booked(Reservation reservation) {
+        return new FrontDeskStay(reservation.guestName(), reservation.roomNumber(), reservation.checkIn(), reservation.checkOut(), false);
+    }
+
+    private void add(FrontDeskStay stay) {
+        arrivals.computeIfAbsent(stay.checkIn(), day -> new ConcurrentHashMap<>()).put(stay.roomNumber(), stay);
+        departures.computeIfAbsent(stay.checkOut(), day -> new ConcurrentHashMap<>()).put(stay.roomNumber(), stay);
+    }
+
+    private void remove(FrontDeskStay stay) {
+        remove(arrivals, stay.checkIn(), stay);
+        remove(departures, stay.checkOut(), stay);
+    }
+
+    private static void remove(NavigableMap<LocalDate, Map<String, FrontDeskStay>> byDay, LocalDate day, FrontDeskStay stay) {
+        Map<String, FrontDeskStay> rooms = byDay.get(day);
+        if (rooms != null) {
+            rooms.computeIfPresent(stay.roomNumber(), (room, current) -> current.guestName().equalsIgnoreCase(stay.guestName()) ? null : current);
+        }
+    }
+
+    private static List<FrontDeskStay> collect(NavigableMap<LocalDate, Map<String, FrontDeskStay>> byDay, LocalDate from, LocalDate to) {
+        List<FrontDeskStay> stays = new ArrayList<>();
+        for (Map<String, FrontDeskStay> rooms : byDay.subMap(from, true, to, false).values()) {
+            List<FrontDeskStay> day = new ArrayList<>(rooms.values());
+            day.sort((a, b) -> a.roomNumber().compareTo(b.roomNumber()));
+            stays.addAll(day);
+        }
+        return stays;
+    }
+}
@@ -0,0 +1,9 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * GuestCheckedIn: a guest checked in to the room for [checkIn, checkOut).
+ */
+record GuestCheckedIn(String guestName, String roomNumber, RoomType roomType, LocalDate checkIn, LocalDate checkOut, long nightlyRate) implements DomainEvent {
+}
@@ -0,0 +1,9 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * GuestCheckedOut: {@code billed} is the total of the final bill.
+ */
+record GuestCheckedOut(String guestName, String roomNumber, LocalDate checkIn, LocalDate checkOut, long billed) implements DomainEvent {
+}
@@ -0,0 +1,107 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * GuestInformation: the details recorded for a guest when they check in.
+ *
+ * New check-ins are plain heap records made by {@link #of}; guests held by a GuestStore are
+ * flyweight views over its off-heap records and decode a field only when it is asked for.
+ */
+interface GuestInformation {
+    static GuestInformation of(String guestName, String phoneNumber, String email, String address, String identification, String roomType, String roomNumber, double roomCost, String checkInDate, String checkOutDate) {
+        return new GuestRecord(guestName, phoneNumber, email, address, identification, roomType, roomNumber, roomCost, checkInDate, checkOutDate);
+    }
+
+    /**
+     * A heap copy that stays readable after the guest has left the store it came from.
+     */
+    static GuestInformation copyOf(GuestInformation guest) {
+        if (guest instanceof GuestRecord) {
+            return guest;
+        }
+        return of(guest.getGuestName(), guest.getPhoneNumber(), guest.getEmail(), guest.getAddress(), guest.getIdentification(),
+                guest.getRoomType(), guest.getRoomNumber(), guest.getRoomCost(), guest.getCheckInDate(), guest.getCheckOutDate());
+    }
+
+    String getGuestName();
+
+    String getPhoneNumber();
+
+    String getEmail();
+
+    String getAddress();
+
+    String getIdentification();
+
+    String getRoomType();
+
+    String getRoomNumber();
+
+    double getRoomCost();
+
+    String getCheckInDate();
+
+    String getCheckOutDate();
+
+    default LocalDate getCheckIn() {
+        return LocalDate.parse(getCheckInDate());
+    }
+
+    default LocalDate getCheckOut() {
+        return LocalDate.parse(getCheckOutDate());
+    }
+}
+
+
+record GuestRecord(String guestName, String phoneNumber, String email, String address, String identification, String roomType, String roomNumber, double roomCost, String checkInDate, String checkOutDate) implements GuestInformation {
+    @Override
+    public String getGuestName() {
+        return guestName;
+    }
+
+    @Override
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    @Override
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public String getAddress() {
+        return address;
+    }
+
+    @Override
+    public String getIdentification() {
+        return identification;
+    }
+
+    @Override
+    public String getRoomType() {
+        return roomType;
+    }
+
+    @Override
+    public String getRoomNumber() {
+        return roomNumber;
+    }
+
+    @Override
+    public double getRoomCost() {
+        return roomCost;
+    }
+
+    @Override
+    public String getCheckInDate() {
+        return checkInDate;
+    }
+
+    @Override
+    public String getCheckOutDate() {
+        return checkOutDate;
+    }
+}
@@ -0,0 +1,822 @@
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+
+/**
+ * GuestStore: the guest registry, keyed by guest name, with the records kept off the heap.
+ * Names are matched ignoring case, as the front desk types them.
+ *
+ * Each guest is one variable-length record in a direct buffer:
+ * {@code [int length][int checkInDay][int checkOutDay][long costInHundredths][byte roomType]}
+ * followed by the name, phone number, e-mail, address, identification and room number as
+ * {@code [unsigned short length][UTF-8 bytes]}. The heap only holds a few int arrays per guest:
+ * the record offset of each slot, the name hash and an open-addressing name table.
+ *
+ * Lookups return heap copies. {@link #read} instead lends a flyweight view, which decodes a field
+ * only when its getter is called, to a function that runs under the read lock; the view must not
+ * escape it. Removed records are reclaimed by compacting the buffer when it would otherwise have
+ * to grow.
+ *
+ * Secondary indexes are updated under the same write lock as the records, so they never disagree
+ * with the store: hash indexes on phone number, e-mail, identification and room number, and
+ * sorted indexes on the check-in and check-out day for date range scans.
+ */
+class GuestStore {
+    private static final int LENGTH = 0;
+    private static final int CHECK_IN_DAY = 4;
+    private static final int CHECK_OUT_DAY = 8;
+    private static final int COST = 12;
+    private static final int ROOM_TYPE = 20;
+    private static final int STRINGS = 21;
+
+    private static final int NAME = 0;
+    private static final int PHONE_NUMBER = 1;
+    private static final int EMAIL = 2;
+    private static final int ADDRESS = 3;
+    private static final int IDENTIFICATION = 4;
+    private static final int ROOM_NUMBER = 5;
+
+    private static final int NULL_STRING = 0xFFFF;
+    private static final int MAX_STRING_BYTES = NULL_STRING - 1;
+    private static final byte NO_ROOM_TYPE = -1;
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+    private static final long TOMBSTONE_ENTRY = -1L;
+    private static final String[] ROOM_TYPE_NAMES = Arrays.stream(RoomType.values()).map(type -> type.getDisplayName().toLowerCase(Locale.ROOT)).toArray(String[]::new);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private ByteBuffer data;
+    private int end;
+    private int deadBytes;
+
+    // Per slot: offset of the live record (-1 when free), hash of the guest name and a generation
+    // that is bumped whenever the slot's guest leaves, so stale views can tell.
+    private int[] offsets;
+    private int[] hashes;
+    private int[] generations;
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotCount;
+
+    // Open addressing on the name hash; entries are slot + 1.
+    private int[] nameTable;
+    private int tombstones;
+    private int size;
+
+    private final FieldIndex byPhoneNumber = new FieldIndex(PHONE_NUMBER, false);
+    private final FieldIndex byEmail = new FieldIndex(EMAIL, true);
+    private final FieldIndex byIdentification = new FieldIndex(IDENTIFICATION, false);
+    private final FieldIndex byRoomNumber = new FieldIndex(ROOM_NUMBER, false);
+    private final DayIndex byCheckIn = new DayIndex(CHECK_IN_DAY);
+    private final DayIndex byCheckOut = new DayIndex(CHECK_OUT_DAY);
+
+    public GuestStore() {
+        this(1 << 16, 64);
+    }
+
+    public GuestStore(int initialBytes, int initialGuests) {
+        data = ByteBuffer.allocateDirect(Math.max(initialBytes, 256));
+        int slots = Math.max(initialGuests, 16);
+        offsets = new int[slots];
+        hashes = new int[slots];
+        generations = new int[slots];
+        freeSlots = new int[slots];
+        nameTable = new int[Integer.highestOneBit(slots * 2 - 1) << 1];
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes of direct memory reserved for the records.
+     */
+    public long getOffHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return data.capacity();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a heap copy of the guest, or null if there is no such guest.
+     */
+    public GuestInformation get(String guestName) {
+        return read(guestName, GuestInformation::copyOf);
+    }
+
+    /**
+     * Applies the reader to a view of the stored guest and returns its result, or null if there is
+     * no such guest. Nothing can change the guest while the reader runs, so it may read the view
+     * field by field, but the view stops working once the reader returns.
+     */
+    public <R> R read(String guestName, Function<GuestInformation, R> reader) {
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(guestName);
+            return slot < 0 ? null : reader.apply(new GuestView(slot, generations[slot]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String guestName) {
+        lock.readLock().lock();
+        try {
+            return findSlot(guestName) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores the guest, or returns false, storing nothing, if a guest with the same name is
+     * already stored.
+     */
+    public boolean put(GuestInformation guest) {
+        return store(guest, false);
+    }
+
+    /**
+     * Stores the guest in place of any guest with the same name.
+     */
+    public void replace(GuestInformation guest) {
+        store(guest, true);
+    }
+
+    private boolean store(GuestInformation guest, boolean replace) {
+        byte[][] strings = {
+                encode(guest.getGuestName()), encode(guest.getPhoneNumber()), encode(guest.getEmail()),
+                encode(guest.getAddress()), encode(guest.getIdentification()), encode(guest.getRoomNumber())
+        };
+        if (strings[NAME] == null) {
+            throw new IllegalArgumentException("Guest name is required");
+        }
+        int length = STRINGS;
+        for (byte[] string : strings) {
+            length += Short.BYTES + (string == null ? 0 : string.length);
+        }
+        RoomType roomType = RoomType.parse(guest.getRoomType());
+        int checkInDay = (int) guest.getCheckIn().toEpochDay();
+        int checkOutDay = (int) guest.getCheckOut().toEpochDay();
+        long cost = Math.round(guest.getRoomCost() * 100);
+
+        lock.writeLock().lock();
+        try {
+            int existing = findSlot(guest.getGuestName());
+            if (existing >= 0) {
+                if (!replace) {
+                    return false;
+                }
+                removeSlot(existing);
+            }
+            int offset = reserve(length);
+            data.putInt(offset + LENGTH, length);
+            data.putInt(offset + CHECK_IN_DAY, checkInDay);
+            data.putInt(offset + CHECK_OUT_DAY, checkOutDay);
+            data.putLong(offset + COST, cost);
+            data.put(offset + ROOM_TYPE, roomType == null ? NO_ROOM_TYPE : (byte) roomType.ordinal());
+            int position = offset + STRINGS;
+            for (byte[] string : strings) {
+                position = writeString(position, string);
+            }
+
+            int slot = allocateSlot();
+            offsets[slot] = offset;
+            hashes[slot] = hash(guest.getGuestName(), true);
+            insertName(slot);
+            byPhoneNumber.add(slot, guest.getPhoneNumber());
+            byEmail.add(slot, guest.getEmail());
+            byIdentification.add(slot, guest.getIdentification());
+            byRoomNumber.add(slot, guest.getRoomNumber());
+            byCheckIn.add(slot, checkInDay);
+            byCheckOut.add(slot, checkOutDay);
+            size++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the guest and returns a heap copy of what was stored, or null if there was no such guest.
+     */
+    public GuestInformation remove(String guestName) {
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(guestName);
+            if (slot < 0) {
+                return null;
+            }
+            GuestInformation removed = GuestInformation.copyOf(new GuestView(slot, generations[slot]));
+            removeSlot(slot);
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<GuestInformation> findByPhoneNumber(String phoneNumber) {
+        return find(byPhoneNumber, phoneNumber);
+    }
+
+    public List<GuestInformation> findByEmail(String email) {
+        return find(byEmail, email);
+    }
+
+    public List<GuestInformation> findByIdentification(String identification) {
+        return find(byIdentification, identification);
+    }
+
+    public List<GuestInformation> findByRoomNumber(String roomNumber) {
+        return find(byRoomNumber, roomNumber);
+    }
+
+    /**
+     * Guests whose check-in date falls in [from, to), in date order.
+     */
+    public List<GuestInformation> findByCheckIn(LocalDate from, LocalDate to) {
+        return find(byCheckIn, from, to);
+    }
+
+    /**
+     * Guests whose check-out date falls in [from, to), in date order.
+     */
+    public List<GuestInformation> findByCheckOut(LocalDate from, LocalDate to) {
+        return find(byCheckOut, from, to);
+    }
+
+    /**
+     * Hands a heap copy of every guest to the action, one guest at a time, so the store stays
+     * open for check-ins and check-outs while a large registry is walked.
+     */
+    public void forEach(Consumer<GuestInformation> action) {
+        for (int slot = 0; ; slot++) {
+            GuestInformation guest;
+            lock.readLock().lock();
+            try {
+                if (slot >= slotCount) {
+                    return;
+                }
+                guest = offsets[slot] < 0 ? null : GuestInformation.copyOf(new GuestView(slot, generations[slot]));
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (guest != null) {
+                action.accept(guest);
+            }
+        }
+    }
+
+
+    private List<GuestInformation> find(FieldIndex index, String value) {
+        List<GuestInformation> found = new ArrayList<>();
+        if (value == null) {
+            return found;
+        }
+        lock.readLock().lock();
+        try {
+            index.forEachMatch(value, slot -> found.add(GuestInformation.copyOf(new GuestView(slot, generations[slot]))));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    private List<GuestInformation> find(DayIndex index, LocalDate from, LocalDate to) {
+        List<GuestInformation> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            index.forEachSlot((int) from.toEpochDay(), (int) to.toEpochDay(), slot -> found.add(GuestInformation.copyOf(new GuestView(slot, generations[slot]))));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    private int findSlot(String guestName) {
+        if (guestName == null) {
+            return -1;
+        }
+        int hash = hash(guestName, true);
+        int mask = nameTable.length - 1;
+        for (int index = mix(hash) & mask; ; index = (index + 1) & mask) {
+            int entry = nameTable[index];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry != TOMBSTONE && hashes[entry - 1] == hash && nameEquals(offsets[entry - 1], guestName)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private boolean nameEquals(int offset, String guestName) {
+        return stringEquals(offset + STRINGS, guestName, true);
+    }
+
+    /**
+     * Compares a stored string with a value without decoding it, unless either is non-ASCII.
+     */
+    private boolean stringEquals(int position, String value, boolean ignoreCase) {
+        int length = data.getShort(position) & 0xFFFF;
+        if (length == NULL_STRING) {
+            return false;
+        }
+        if (length != value.length()) {
+            // UTF-8 is never shorter than the char count, so only non-ASCII values can still match.
+            return length > value.length() && equals(readString(position), value, ignoreCase);
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                return equals(readString(position), value, ignoreCase);
+            }
+            char stored = (char) data.get(position + Short.BYTES + i);
+            if (stored != c && (!ignoreCase || fold(stored) != fold(c))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insertName(int slot) {
+        if ((size + tombstones + 1) * 2 > nameTable.length) {
+            rebuildNameTable(size + 1 > nameTable.length / 4 ? nameTable.length * 2 : nameTable.length);
+        }
+        int mask = nameTable.length - 1;
+        int index = mix(hashes[slot]) & mask;
+        while (nameTable[index] != EMPTY && nameTable[index] != TOMBSTONE) {
+            index = (index + 1) & mask;
+        }
+        if (nameTable[index] == TOMBSTONE) {
+            tombstones--;
+        }
+        nameTable[index] = slot + 1;
+    }
+
+    private void removeSlot(int slot) {
+        byPhoneNumber.remove(slot);
+        byEmail.remove(slot);
+        byIdentification.remove(slot);
+        byRoomNumber.remove(slot);
+        byCheckIn.remove(slot);
+        byCheckOut.remove(slot);
+        int mask = nameTable.length - 1;
+        int index = mix(hashes[slot]) & mask;
+        while (nameTable[index] != slot + 1) {
+            index = (index + 1) & mask;
+        }
+        nameTable[index] = TOMBSTONE;
+        tombstones++;
+        deadBytes += data.getInt(offsets[slot] + LENGTH);
+        offsets[slot] = -1;
+        generations[slot]++;
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+
+    private void rebuildNameTable(int capacity) {
+        nameTable = new int[capacity];
+        tombstones = 0;
+        int mask = capacity - 1;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (offsets[slot] >= 0) {
+                int index = mix(hashes[slot]) & mask;
+                while (nameTable[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                nameTable[index] = slot + 1;
+            }
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == offsets.length) {
+            int capacity = offsets.length * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Returns the offset of {@code length} free bytes at the end of the buffer, compacting away
+     * removed records or growing the buffer first if they do not fit.
+     */
+    private int reserve(int length) {
+        if (end + length > data.capacity()) {
+            int live = end - deadBytes;
+            int capacity = data.capacity();
+            while (live + length > capacity / 2 && capacity < Integer.MAX_VALUE / 2) {
+                capacity *= 2;
+            }
+            compactInto(ByteBuffer.allocateDirect(capacity));
+        }
+        int offset = end;
+        end += length;
+        return offset;
+    }
+
+    private void compactInto(ByteBuffer target) {
+        int position = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int offset = offsets[slot];
+            if (offset >= 0) {
+                int length = data.getInt(offset + LENGTH);
+                target.put(position, data, offset, length);
+                offsets[slot] = position;
+                position += length;
+            }
+        }
+        data = target;
+        end = position;
+        deadBytes = 0;
+    }
+
+    private int writeString(int position, byte[] string) {
+        if (string == null) {
+            data.putShort(position, (short) NULL_STRING);
+            return position + Short.BYTES;
+        }
+        data.putShort(position, (short) string.length);
+        data.put(position + Short.BYTES, string);
+        return position + Short.BYTES + string.length;
+    }
+
+    private String readString(int position) {
+        int length = data.getShort(position) & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        data.get(position + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int stringPosition(int offset, int field) {
+        int position = offset + STRINGS;
+        for (int i = 0; i < field; i++) {
+            int length = data.getShort(position) & 0xFFFF;
+            position += Short.BYTES + (length == NULL_STRING ? 0 : length);
+        }
+        return position;
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Guest field of " + bytes.length + " bytes is too long");
+        }
+        return bytes;
+    }
+
+    private static boolean equals(String stored, String value, boolean ignoreCase) {
+        return ignoreCase ? stored.equalsIgnoreCase(value) : stored.equals(value);
+    }
+
+    /**
+     * String.hashCode, or its case-insensitive counterpart folded the way equalsIgnoreCase compares.
+     */
+    private static int hash(String value, boolean ignoreCase) {
+        if (!ignoreCase) {
+            return value.hashCode();
+        }
+        int hash = 0;
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + fold(value.charAt(i));
+        }
+        return hash;
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    // Names that differ only in their last characters have nearby String hashes, which would
+    // cluster under linear probing; spread them first.
+    private static int mix(int hash) {
+        int spread = hash * 0x9E3779B9;
+        return spread ^ (spread >>> 16);
+    }
+
+
+    /**
+     * Multimap from one text field to the slots holding that value. The table has one entry per
+     * distinct value, packing its hash with the first slot; the other slots with the same value
+     * are chained through {@code next}, so common values such as a room number do not pile up
+     * in the probe sequence.
+     */
+    private final class FieldIndex {
+        private final int field;
+        private final boolean ignoreCase;
+        private long[] table = new long[64];
+        private int[] next = new int[16];
+        private int used;
+        private int live;
+
+        FieldIndex(int field, boolean ignoreCase) {
+            this.field = field;
+            this.ignoreCase = ignoreCase;
+        }
+
+        void add(int slot, String value) {
+            if (value == null) {
+                return;
+            }
+            if (slot >= next.length) {
+                next = Arrays.copyOf(next, Math.max(next.length * 2, slot + 1));
+            }
+            int hash = hash(value, ignoreCase);
+            int index = indexOf(value, hash);
+            if (index >= 0) {
+                int head = (int) table[index] - 1;
+                next[slot] = next[head];
+                next[head] = slot;
+                return;
+            }
+            if ((used + 1) * 2 > table.length) {
+                rehash(live + 1 > table.length / 4 ? table.length * 2 : table.length);
+            }
+            next[slot] = -1;
+            if (insert(table, entry(hash, slot)) == TOMBSTONE_ENTRY) {
+                used--;
+            }
+            used++;
+            live++;
+        }
+
+        void remove(int slot) {
+            String value = readString(stringPosition(offsets[slot], field));
+            if (value == null) {
+                return;
+            }
+            int hash = hash(value, ignoreCase);
+            int index = indexOf(value, hash);
+            int head = (int) table[index] - 1;
+            if (head != slot) {
+                int previous = head;
+                while (next[previous] != slot) {
+                    previous = next[previous];
+                }
+                next[previous] = next[slot];
+            } else if (next[slot] >= 0) {
+                table[index] = entry(hash, next[slot]);
+            } else {
+                table[index] = TOMBSTONE_ENTRY;
+                live--;
+            }
+        }
+
+        void forEachMatch(String value, IntConsumer action) {
+            int index = indexOf(value, hash(value, ignoreCase));
+            if (index >= 0) {
+                for (int slot = (int) table[index] - 1; slot >= 0; slot = next[slot]) {
+                    action.accept(slot);
+                }
+            }
+        }
+
+        private int indexOf(String value, int hash) {
+            int mask = table.length - 1;
+            for (int index = mix(hash) & mask; table[index] != 0; index = (index + 1) & mask) {
+                long entry = table[index];
+                if (entry != TOMBSTONE_ENTRY && (int) (entry >>> 32) == hash
+                        && stringEquals(stringPosition(offsets[(int) entry - 1], field), value, ignoreCase)) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        private void rehash(int capacity) {
+            long[] rehashed = new long[capacity];
+            for (long entry : table) {
+                if (entry != 0 && entry != TOMBSTONE_ENTRY) {
+                    insert(rehashed, entry);
+                }
+            }
+            table = rehashed;
+            used = live;
+        }
+
+        // Returns what the entry replaced: 0 for an empty cell or TOMBSTONE_ENTRY.
+        private long insert(long[] target, long entry) {
+            int mask = target.length - 1;
+            int index = mix((int) (entry >>> 32)) & mask;
+            while (target[index] != 0 && target[index] != TOMBSTONE_ENTRY) {
+                index = (index + 1) & mask;
+            }
+            long previous = target[index];
+            target[index] = entry;
+            return previous;
+        }
+
+        private long entry(int hash, int slot) {
+            return ((long) hash << 32) | (slot + 1L);
+        }
+    }
+
+    /**
+     * Slots grouped by one of the record's day fields, sorted by day for range scans.
+     */
+    private final class DayIndex {
+        private final int field;
+        private final TreeMap<Integer, SlotBucket> buckets = new TreeMap<>();
+        private int[] positions = new int[16];
+
+        DayIndex(int field) {
+            this.field = field;
+        }
+
+        void add(int slot, int day) {
+            if (slot >= positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, slot + 1));
+            }
+            positions[slot] = buckets.computeIfAbsent(day, key -> new SlotBucket()).add(slot);
+        }
+
+        void remove(int slot) {
+            int day = data.getInt(offsets[slot] + field);
+            SlotBucket bucket = buckets.get(day);
+            int moved = bucket.removeAt(positions[slot]);
+            if (moved >= 0) {
+                positions[moved] = positions[slot];
+            }
+            if (bucket.count == 0) {
+                buckets.remove(day);
+            }
+        }
+
+        void forEachSlot(int fromDay, int toDay, IntConsumer action) {
+            for (SlotBucket bucket : buckets.subMap(fromDay, true, toDay, false).values()) {
+                for (int i = 0; i < bucket.count; i++) {
+                    action.accept(bucket.slots[i]);
+                }
+            }
+        }
+    }
+
+    private static final class SlotBucket {
+        private int[] slots = new int[4];
+        private int count;
+
+        int add(int slot) {
+            if (count == slots.length) {
+                slots = Arrays.copyOf(slots, count * 2);
+            }
+            slots[count] = slot;
+            return count++;
+        }
+
+        /**
+         * Removes the slot at the position by moving the last slot into it; returns the moved
+         * slot, or -1 if the removed slot was the last one.
+         */
+        int removeAt(int position) {
+            int last = slots[--count];
+            if (position == count) {
+                return -1;
+            }
+            slots[position] = last;
+            return last;
+        }
+    }
+
+    /**
+     * Flyweight over one stored record; holds nothing but the slot and the generation it was made for.
+     */
+    private final class GuestView implements GuestInformation {
+        private final int slot;
+        private final int generation;
+
+        GuestView(int slot, int generation) {
+            this.slot = slot;
+            this.generation = generation;
+        }
+
+        @Override
+        public String getGuestName() {
+            return string(NAME);
+        }
+
+        @Override
+        public String getPhoneNumber() {
+            return string(PHONE_NUMBER);
+        }
+
+        @Override
+        public String getEmail() {
+            return string(EMAIL);
+        }
+
+        @Override
+        public String getAddress() {
+            return string(ADDRESS);
+        }
+
+        @Override
+        public String getIdentification() {
+            return string(IDENTIFICATION);
+        }
+
+        @Override
+        public String getRoomType() {
+            lock.readLock().lock();
+            try {
+                byte ordinal = data.get(offset() + ROOM_TYPE);
+                return ordinal == NO_ROOM_TYPE ? null : ROOM_TYPE_NAMES[ordinal];
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public String getRoomNumber() {
+            return string(ROOM_NUMBER);
+        }
+
+        @Override
+        public double getRoomCost() {
+            lock.readLock().lock();
+            try {
+                return data.getLong(offset() + COST) / 100.0;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public String getCheckInDate() {
+            return getCheckIn().toString();
+        }
+
+        @Override
+        public String getCheckOutDate() {
+            return getCheckOut().toString();
+        }
+
+        @Override
+        public LocalDate getCheckIn() {
+            return LocalDate.ofEpochDay(day(CHECK_IN_DAY));
+        }
+
+        @Override
+        public LocalDate getCheckOut() {
+            return LocalDate.ofEpochDay(day(CHECK_OUT_DAY));
+        }
+
+        private String string(int field) {
+            lock.readLock().lock();
+            try {
+                return readString(stringPosition(offset(), field));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private int day(int field) {
+            lock.readLock().lock();
+            try {
+                return data.getInt(offset() + field);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private int offset() {
+            if (generations[slot] != generation) {
+                throw new IllegalStateException("Guest record is no longer in the store");
+            }
+            return offsets[slot];
+        }
+    }
+}
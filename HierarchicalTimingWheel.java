@@ -0,0 +1,184 @@
+
+import java.util.List;
+
+
+/**
+ * HierarchicalTimingWheel: deadlines for any number of values, kept so that scheduling,
+ * cancelling and expiring each cost O(1), amortized, however many are pending.
+ *
+ * Time is counted in ticks from an origin on the {@link System#nanoTime} clock. The wheel has four
+ * levels of 64 slots: the first holds what is due in the next 64 ticks, one slot per tick, and
+ * each level above covers 64 times the span of the one below, one slot per span, so four levels
+ * reach 64^4 ticks ahead. When the first level comes round, the next slot of the level above is
+ * emptied into the levels below it, so a deadline moves down at most three times before it is due.
+ * A deadline further ahead than the top level reaches waits in the top level's farthest slot and
+ * is placed again when that slot comes round.
+ *
+ * Every slot is a doubly linked list, so cancelling unlinks the timeout in place. The methods
+ * synchronize on the wheel; {@link #advance} only collects what expired, and the caller acts on it
+ * outside the lock.
+ */
+class HierarchicalTimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    /**
+     * Timeout: one scheduled value. It is in exactly one slot while it is pending.
+     */
+    static final class Timeout<T> {
+        private final T value;
+        private final long deadlineTick;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        private boolean isPending() {
+            return previous != null;
+        }
+    }
+
+    private final long tickNanos;
+    private final long originNanos;
+    // The heads of the slots' circular lists, by level and slot; a head never holds a value.
+    private final Timeout<T>[][] slots;
+    // Every tick before this one has been processed.
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    HierarchicalTimingWheel(long tickNanos, long originNanos) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("tickNanos must be positive: " + tickNanos);
+        }
+        this.tickNanos = tickNanos;
+        this.originNanos = originNanos;
+        this.slots = new Timeout[LEVELS][SLOTS];
+        for (Timeout<T>[] level : slots) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Timeout<T> head = new Timeout<>(null, 0);
+                head.previous = head;
+                head.next = head;
+                level[slot] = head;
+            }
+        }
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Schedules the value to expire at the first tick that ends at or after the deadline. A
+     * deadline already past expires at the next {@link #advance}.
+     */
+    public synchronized Timeout<T> schedule(T value, long deadlineNanos) {
+        long elapsed = deadlineNanos - originNanos;
+        long deadlineTick = elapsed <= 0 ? 0 : (elapsed + tickNanos - 1) / tickNanos;
+        Timeout<T> timeout = new Timeout<>(value, deadlineTick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Takes the timeout off the wheel. False if it has already expired or been cancelled.
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (!timeout.isPending()) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Processes every tick up to the clock reading and adds the values that expired to the list,
+     * earliest first.
+     */
+    public synchronized void advance(long nowNanos, List<T> expired) {
+        long nowTick = Math.floorDiv(nowNanos - originNanos, tickNanos);
+        while (currentTick <= nowTick) {
+            int slot = (int) (currentTick & SLOT_MASK);
+            // Level 0 came round: bring the next span of each level down, as far up as has come round too.
+            for (int level = 1; level < LEVELS && slot == 0; level++) {
+                slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                cascade(slots[level][slot]);
+            }
+            Timeout<T> head = slots[0][(int) (currentTick & SLOT_MASK)];
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                unlink(timeout);
+                if (timeout.deadlineTick > currentTick) {
+                    // Parked in the top level beyond its reach; it is nearer now.
+                    place(timeout);
+                } else {
+                    size--;
+                    expired.add(timeout.value);
+                }
+            }
+            currentTick++;
+        }
+    }
+
+    /**
+     * Places again everything in the slot. The list is detached first, so a timeout that belongs
+     * in the same slot again goes into the emptied one rather than round this loop.
+     */
+    private void cascade(Timeout<T> head) {
+        if (head.next == head) {
+            return;
+        }
+        Timeout<T> timeout = head.next;
+        head.previous.next = null;
+        head.next = head;
+        head.previous = head;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long deadlineTick = timeout.deadlineTick;
+        long ticksAhead = deadlineTick - currentTick;
+        Timeout<T> head;
+        if (ticksAhead < SLOTS) {
+            head = slots[0][(int) (Math.max(deadlineTick, currentTick) & SLOT_MASK)];
+        } else {
+            if (ticksAhead >= SPAN) {
+                deadlineTick = currentTick + SPAN - 1;
+                ticksAhead = SPAN - 1;
+            }
+            int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(ticksAhead)) / SLOT_BITS;
+            head = slots[level][(int) ((deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        }
+        timeout.previous = head.previous;
+        timeout.next = head;
+        head.previous.next = timeout;
+        head.previous = timeout;
+    }
+
+    private static <T> void unlink(Timeout<T> timeout) {
+        timeout.previous.next = timeout.next;
+        timeout.next.previous = timeout.previous;
+        timeout.previous = null;
+        timeout.next = null;
+    }
+}
@@ -0,0 +1,321 @@
+
+import java.time.LocalDate;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * HotelEvents: the Flight Recorder events of the hotel's flows, so that a slow check-out can be
+ * lined up with the garbage collections, lock waits and I/O of the same recording. They are all
+ * disabled unless the recording's settings enable them, as hotel.jfc does:
+ *
+ *     java -XX:StartFlightRecording:settings=default,settings=hotel.jfc,filename=hotel.jfr ...
+ *
+ * A disabled event costs a check of a static flag, and the event object is never allocated once
+ * the JIT has seen it does not escape. Amounts are in paisa and dates are ISO days.
+ */
+final class HotelEvents {
+    private HotelEvents() {
+    }
+
+
+    @Name("hotel.Reservation")
+    @Label("Reservation")
+    @Category({"Hotel", "Front Desk"})
+    @Description("A reservation, from validation to the journal write")
+    @Enabled(false)
+    @StackTrace(false)
+    static class ReservationEvent extends Event {
+        @Label("Guest")
+        String guestName;
+
+        @Label("Room")
+        String roomNumber;
+
+        @Label("Room Type")
+        String roomType;
+
+        @Label("Check-in")
+        String checkIn;
+
+        @Label("Check-out")
+        String checkOut;
+
+        @Label("Status")
+        String status;
+
+        void commit(ReservationRequest request, ReservationResponse response) {
+            if (shouldCommit()) {
+                guestName = request.guestName();
+                roomNumber = response.roomNumber() != null ? response.roomNumber() : request.roomNumber();
+                roomType = String.valueOf(request.roomType());
+                checkIn = String.valueOf(request.checkIn());
+                checkOut = String.valueOf(request.checkOut());
+                status = response.status().name();
+                commit();
+            }
+        }
+    }
+
+
+    @Name("hotel.CheckIn")
+    @Label("Check-in")
+    @Category({"Hotel", "Front Desk"})
+    @Enabled(false)
+    @StackTrace(false)
+    static class CheckInEvent extends Event {
+        @Label("Guest")
+        String guestName;
+
+        @Label("Room")
+        String roomNumber;
+
+        @Label("Room Type")
+        String roomType;
+
+        @Label("Check-in")
+        String checkIn;
+
+        @Label("Check-out")
+        String checkOut;
+
+        @Label("Status")
+        String status;
+
+        void commit(CheckInRequest request, CheckInResponse response) {
+            if (shouldCommit()) {
+                guestName = request.guestName();
+                roomNumber = response.guest() != null ? response.guest().getRoomNumber() : request.roomNumber();
+                roomType = String.valueOf(request.roomType());
+                checkIn = String.valueOf(request.checkIn());
+                checkOut = String.valueOf(request.checkOut());
+                status = response.status().name();
+                commit();
+            }
+        }
+    }
+
+
+    @Name("hotel.CheckOut")
+    @Label("Check-out")
+    @Category({"Hotel", "Front Desk"})
+    @Description("A check-out, including the final bill and the waitlist promotions it triggers")
+    @Enabled(false)
+    @StackTrace(false)
+    static class CheckOutEvent extends Event {
+        @Label("Guest")
+        String guestName;
+
+        @Label("Room")
+        String roomNumber;
+
+        @Label("Meals Included")
+        boolean includeMeals;
+
+        @Label("Total")
+        @Description("The final bill, in paisa")
+        long total;
+
+        @Label("Status")
+        String status;
+
+        void commit(CheckOutRequest request, CheckOutResponse response) {
+            if (shouldCommit()) {
+                guestName = request.guestName();
+                roomNumber = response.guest() == null ? null : response.guest().getRoomNumber();
+                includeMeals = request.includeMeals();
+                total = Math.round(response.totalWithMeals() * 100);
+                status = response.status().name();
+                commit();
+            }
+        }
+    }
+
+
+    @Name("hotel.Invoice")
+    @Label("Invoice")
+    @Category({"Hotel", "Billing"})
+    @Description("A folio billed with the billing rules")
+    @Enabled(false)
+    @StackTrace(false)
+    static class InvoiceEvent extends Event {
+        @Label("Guest")
+        String guestName;
+
+        @Label("Room")
+        String roomNumber;
+
+        @Label("Nights")
+        int nights;
+
+        @Label("Charges")
+        @Description("Extras posted to the folio")
+        int charges;
+
+        @Label("Rules")
+        int rules;
+
+        @Label("Total")
+        @Description("In paisa")
+        long total;
+    }
+
+
+    @Name("hotel.DineIn")
+    @Label("Dine-in Order")
+    @Category({"Hotel", "Restaurant"})
+    @Enabled(false)
+    @StackTrace(false)
+    static class DineInEvent extends Event {
+        @Label("Customer")
+        String customerName;
+
+        @Label("Table")
+        String tableNumber;
+
+        @Label("Lines")
+        int lines;
+
+        @Label("Ticket")
+        @Description("The kitchen ticket, or -1 if nothing was sent to the kitchen")
+        long ticketNumber;
+
+        @Label("Total")
+        @Description("In paisa")
+        long total;
+
+        @Label("Status")
+        String status;
+
+        void commit(DineInRequest request, DineInResponse response) {
+            if (shouldCommit()) {
+                customerName = request.customerName();
+                tableNumber = request.tableNumber();
+                lines = request.order() == null ? 0 : request.order().getLineCount();
+                ticketNumber = response.ticketNumber();
+                total = response.invoice() == null ? 0 : Math.round(response.invoice().total() * 100);
+                status = response.status().name();
+                commit();
+            }
+        }
+    }
+
+
+    @Name("hotel.MenuBill")
+    @Label("Menu Bill")
+    @Category({"Hotel", "Restaurant"})
+    @Description("An order priced from the menu, with tip and tax")
+    @Enabled(false)
+    @StackTrace(false)
+    static class MenuBillEvent extends Event {
+        @Label("Lines")
+        int lines;
+
+        @Label("Subtotal")
+        @Description("In paisa")
+        long subtotal;
+
+        @Label("Total")
+        @Description("In paisa")
+        long total;
+    }
+
+
+    @Name("hotel.RoomState")
+    @Label("Room State Change")
+    @Category({"Hotel", "Rooms"})
+    @Description("Nights of a room booked, or freed by a cancellation, check-out, move or maintenance")
+    @Enabled(false)
+    @StackTrace(false)
+    static class RoomStateEvent extends Event {
+        @Label("Room")
+        String roomNumber;
+
+        @Label("Change")
+        String change;
+
+        @Label("First Night")
+        String checkIn;
+
+        @Label("Check-out")
+        String checkOut;
+    }
+
+
+    @Name("hotel.Login")
+    @Label("Login")
+    @Category({"Hotel", "Accounts"})
+    @Enabled(false)
+    @StackTrace(false)
+    static class LoginEvent extends Event {
+        @Label("Username")
+        String username;
+
+        @Label("Account Type")
+        String accountType;
+
+        @Label("Status")
+        String status;
+
+        void commit(LoginRequest request, LoginResponse response) {
+            if (shouldCommit()) {
+                username = request.username();
+                accountType = response.user() == null ? null : AccountType.of(response.user()).name();
+                status = response.status().name();
+                commit();
+            }
+        }
+    }
+
+
+    @Name("hotel.PasswordCheck")
+    @Label("Password Check")
+    @Category({"Hotel", "Accounts"})
+    @Description("A password checked against its PBKDF2 hash")
+    @Enabled(false)
+    @StackTrace(false)
+    static class PasswordCheckEvent extends Event {
+        @Label("Iterations")
+        int iterations;
+
+        @Label("Known Account")
+        @Description("False when an unknown username was checked against a dummy hash")
+        boolean knownAccount;
+
+        @Label("Matched")
+        boolean matched;
+    }
+
+
+    /**
+     * RoomStateRecorder: emits a {@link RoomStateEvent} for every booking and release the room
+     * inventory makes, whichever flow made it.
+     */
+    static class RoomStateRecorder implements RoomInventory.BookingListener {
+        @Override
+        public void booked(String roomNumber, int checkInDay, int checkOutDay) {
+            record(roomNumber, "booked", checkInDay, checkOutDay);
+        }
+
+        @Override
+        public void released(String roomNumber, int checkInDay, int checkOutDay) {
+            record(roomNumber, "released", checkInDay, checkOutDay);
+        }
+
+        private static void record(String roomNumber, String change, int checkInDay, int checkOutDay) {
+            RoomStateEvent event = new RoomStateEvent();
+            if (event.shouldCommit()) {
+                event.roomNumber = roomNumber;
+                event.change = change;
+                event.checkIn = LocalDate.ofEpochDay(checkInDay).toString();
+                event.checkOut = LocalDate.ofEpochDay(checkOutDay).toString();
+                event.commit();
+            }
+        }
+    }
+}
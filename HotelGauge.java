@@ -0,0 +1,30 @@
+
+/**
+ * HotelGauge: a figure that is read from the service when it is asked for, so it costs the
+ * operations nothing.
+ */
+enum HotelGauge {
+    GUESTS_IN_HOUSE("guests-in-house"),
+    RESERVATIONS("reservations"),
+    ROOM_HOLDS("room-holds"),
+    HOLDS_EXPIRED("holds-expired"),
+    OPEN_FOLIOS("open-folios"),
+    WAITLISTED("waitlisted"),
+    ROOMS("rooms"),
+    ROOMS_OCCUPIED_TONIGHT("rooms-occupied-tonight"),
+    DOMAIN_EVENTS("domain-events"),
+    PROJECTION_LAG("projection-lag"),
+    QUOTE_CACHE_ENTRIES("quote-cache-entries"),
+    QUOTE_CACHE_HITS("quote-cache-hits"),
+    QUOTE_CACHE_MISSES("quote-cache-misses");
+
+    private final String metricName;
+
+    HotelGauge(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,659 @@
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * EndpointStats: how one endpoint of the HTTP API has been doing since it started.
+ */
+record EndpointStats(String method, String path, long clientErrors, long serverErrors, LatencySummary latency) {
+}
+
+
+/**
+ * HotelHttpApi: the reservation, availability, check-in, check-out and dine-in operations as
+ * JSON over HTTP, for the booking site and the mobile app, on the JDK's built-in server.
+ *
+ *   POST /sessions        {username, password}: logs in and returns a session token
+ *   GET  /availability    ?roomType=&checkIn=&checkOut=&guests=
+ *   POST /reservations    {guestName, phoneNumber, email, address, roomType, roomNumber?, checkIn, checkOut, numberOfGuests}
+ *   POST /holds           the reservation fields and holdSeconds?: holds a room while the guest pays
+ *   POST /hold-confirmations  {holdId}: books the held stay
+ *   POST /hold-releases   {holdId}: gives the held room back
+ *   POST /cancellations   {guestName, roomNumber, checkIn}
+ *   POST /check-ins       {guestName, phoneNumber, email, address, identification, roomType, roomNumber?, checkIn, checkOut}
+ *   POST /check-outs      {guestName, includeMeals}
+ *   GET  /menu
+ *   POST /dine-in         {customerName, tableNumber, items: [{itemId, quantity}]}
+ *   GET  /metrics         request counts and p50/p90/p99 latency per endpoint
+ *
+ * Everything but logging in, the availability and the menu needs "Authorization: Bearer" with
+ * the token of a live session; check-ins, check-outs and the metrics need a user or admin one.
+ * Dates are yyyy-MM-dd and amounts are rupees, as on the invoices. Every response is a JSON
+ * object whose "status" is the ServiceStatus, or why the request was refused along with a
+ * "message".
+ *
+ * Each request runs on a virtual thread of its own where the JDK has them, so a client that sends
+ * or reads slowly holds nothing but its own thread. On older JDKs the requests share a fixed pool
+ * behind a bounded queue, and a request that finds the queue full is answered 503 by a few
+ * threads kept for that rather than left to wait. Connections are kept alive between requests.
+ * The JDK server's own timeouts bound how long a request may take to arrive and its response to
+ * be read, and how long an idle connection is kept; they are set when the first API starts, as
+ * the server reads them only once.
+ */
+class HotelHttpApi {
+    private static final int MAX_BODY_BYTES = 64 << 10;
+    // Only used when the JDK has no virtual threads.
+    private static final int FALLBACK_THREADS = 200;
+    private static final int FALLBACK_QUEUE = 1_000;
+    private static final int SHEDDING_THREADS = 4;
+    private static final String RETRY_AFTER_SECONDS = "1";
+    // Set on the threads that answer the requests the full fallback pool turned away.
+    private static final ThreadLocal<Boolean> SHEDDING = new ThreadLocal<>();
+    private static final String REQUEST_TIMEOUT_SECONDS = "30";
+    private static final String RESPONSE_TIMEOUT_SECONDS = "30";
+    private static final String IDLE_CONNECTION_SECONDS = "60";
+
+    private final HotelService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    private HotelHttpApi(HotelService service, HttpServer server, ExecutorService executor, boolean virtualThreads) {
+        this.service = service;
+        this.server = server;
+        this.executor = executor;
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Starts serving the API on the address; port 0 picks a free port.
+     */
+    public static HotelHttpApi start(HotelService service, InetSocketAddress address) throws IOException {
+        setDefault("sun.net.httpserver.maxReqTime", REQUEST_TIMEOUT_SECONDS);
+        setDefault("sun.net.httpserver.maxRspTime", RESPONSE_TIMEOUT_SECONDS);
+        setDefault("sun.net.httpserver.idleInterval", IDLE_CONNECTION_SECONDS);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        ExecutorService executor = virtual != null ? virtual : newFallbackExecutor();
+        HotelHttpApi api = new HotelHttpApi(service, HttpServer.create(address, 0), executor, virtual != null);
+        api.route("POST", "/sessions", api::login);
+        api.route("GET", "/availability", api::availability);
+        api.route("POST", "/reservations", api::reserve);
+        api.route("POST", "/holds", api::hold);
+        api.route("POST", "/hold-confirmations", api::confirmHold);
+        api.route("POST", "/hold-releases", api::releaseHold);
+        api.route("POST", "/cancellations", api::cancel);
+        api.route("POST", "/check-ins", api::checkIn);
+        api.route("POST", "/check-outs", api::checkOut);
+        api.route("GET", "/menu", api::menu);
+        api.route("POST", "/dine-in", api::dineIn);
+        api.route("GET", "/metrics", api::metrics);
+        api.server.createContext("/", exchange -> {
+            try (exchange) {
+                Endpoint.send(exchange, shedding(exchange) ? Endpoint.busy() : Endpoint.refusal(404, "No such endpoint"));
+            }
+        });
+        api.server.setExecutor(executor);
+        api.server.start();
+        return api;
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * The figures of every endpoint, in the order they are listed above.
+     */
+    public List<EndpointStats> getEndpointStats() {
+        return endpoints.values().stream().map(Endpoint::stats).toList();
+    }
+
+    /**
+     * Stops accepting connections, gives the requests in progress up to the delay to finish and
+     * then stops. The service is left running for whoever owns it to close.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+
+    private ApiResponse login(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        LoginResponse response = service.login(new LoginRequest(string(body, "username"), string(body, "password")));
+        if (response.status() != ServiceStatus.OK) {
+            return status(response.status());
+        }
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("status", response.status().name())
+                .field("token", response.sessionToken())
+                .field("role", AccountType.of(response.user()).name());
+        return new ApiResponse(201, json.endObject().toString());
+    }
+
+    private ApiResponse availability(HttpExchange exchange) {
+        Map<String, String> query = query(exchange);
+        String guests = query.get("guests");
+        RoomQuote quote = service.quoteAvailability(roomType(query.get("roomType")), date(query.get("checkIn")), date(query.get("checkOut")),
+                guests == null ? 1 : parseInt(guests, "guests"));
+        if (quote == null) {
+            return status(ServiceStatus.INVALID_INPUT);
+        }
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("status", ServiceStatus.OK.name())
+                .field("roomType", quote.roomType().getDisplayName())
+                .field("checkIn", quote.checkIn().toString())
+                .field("checkOut", quote.checkOut().toString())
+                .field("guests", quote.guests())
+                .field("available", quote.available())
+                .field("freeRooms", quote.freeRooms())
+                .field("roomCharges", quote.roomCharges() / 100.0);
+        return ok(json.endObject());
+    }
+
+    private ApiResponse reserve(HttpExchange exchange) throws IOException {
+        requireSession(exchange);
+        Map<String, Object> body = readBody(exchange);
+        ReservationResponse response = service.reserve(reservationRequest(body));
+        if (response.status() != ServiceStatus.OK) {
+            return status(response.status());
+        }
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("status", response.status().name())
+                .field("roomNumber", response.roomNumber());
+        writeInvoice(json, response.invoice());
+        return new ApiResponse(201, json.endObject().toString());
+    }
+
+    private ApiResponse hold(HttpExchange exchange) throws IOException {
+        requireSession(exchange);
+        Map<String, Object> body = readBody(exchange);
+        ReservationRequest request = reservationRequest(body);
+        RoomHoldResponse response = body.containsKey("holdSeconds")
+                ? service.holdRoom(request, integer(body, "holdSeconds", 0) * 1000L)
+                : service.holdRoom(request);
+        if (response.status() != ServiceStatus.OK) {
+            return status(response.status());
+        }
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("status", response.status().name())
+                .field("holdId", response.hold().id())
+                .field("roomNumber", response.hold().reservation().roomNumber())
+                .field("expiresAt", Instant.ofEpochMilli(response.hold().expiresAtMillis()).toString());
+        writeInvoice(json, response.invoice());
+        return new ApiResponse(201, json.endObject().toString());
+    }
+
+    private ApiResponse confirmHold(HttpExchange exchange) throws IOException {
+        requireSession(exchange);
+        Map<String, Object> body = readBody(exchange);
+        ReservationResponse response = service.confirmHold(id(body, "holdId"));
+        if (response.status() != ServiceStatus.OK) {
+            return status(response.status());
+        }
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("status", response.status().name())
+                .field("roomNumber", response.roomNumber());
+        writeInvoice(json, response.invoice());
+        return new ApiResponse(201, json.endObject().toString());
+    }
+
+    private ApiResponse releaseHold(HttpExchange exchange) throws IOException {
+        requireSession(exchange);
+        Map<String, Object> body = readBody(exchange);
+        return status(service.releaseHold(id(body, "holdId")));
+    }
+
+    private ApiResponse cancel(HttpExchange exchange) throws IOException {
+        requireSession(exchange);
+        Map<String, Object> body = readBody(exchange);
+        CancellationResponse response = service.cancelReservation(new CancellationRequest(string(body, "guestName"), string(body, "roomNumber"),
+                date(string(body, "checkIn"))));
+        if (response.status() != ServiceStatus.OK) {
+            return status(response.status());
+        }
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("status", response.status().name())
+                .field("roomNumber", response.reservation().roomNumber())
+                .field("checkIn", response.reservation().checkIn().toString())
+                .field("promotedFromWaitlist", response.promoted().size());
+        return ok(json.endObject());
+    }
+
+    private ApiResponse checkIn(HttpExchange exchange) throws IOException {
+        requireStaff(exchange);
+        Map<String, Object> body = readBody(exchange);
+        CheckInResponse response = service.checkIn(new CheckInRequest(string(body, "guestName"), string(body, "phoneNumber"), string(body, "email"),
+                string(body, "address"), string(body, "identification"), roomType(string(body, "roomType")), string(body, "roomNumber"),
+                date(string(body, "checkIn")), date(string(body, "checkOut"))));
+        if (response.status() != ServiceStatus.OK) {
+            return status(response.status());
+        }
+        GuestInformation guest = response.guest();
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("status", response.status().name())
+                .field("guestName", guest.getGuestName())
+                .field("roomNumber", guest.getRoomNumber())
+                .field("checkIn", guest.getCheckInDate())
+                .field("checkOut", guest.getCheckOutDate())
+                .field("nightlyRate", guest.getRoomCost());
+        return new ApiResponse(201, json.endObject().toString());
+    }
+
+    private ApiResponse checkOut(HttpExchange exchange) throws IOException {
+        requireStaff(exchange);
+        Map<String, Object> body = readBody(exchange);
+        CheckOutResponse response = service.checkOut(new CheckOutRequest(string(body, "guestName"), bool(body, "includeMeals")));
+        if (response.status() != ServiceStatus.OK) {
+            return status(response.status());
+        }
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("status", response.status().name())
+                .field("guestName", response.guest().getGuestName())
+                .field("roomNumber", response.guest().getRoomNumber())
+                .field("promotedFromWaitlist", response.promoted().size());
+        writeInvoice(json, response.invoice());
+        return ok(json.endObject());
+    }
+
+    private ApiResponse menu(HttpExchange exchange) {
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("status", ServiceStatus.OK.name())
+                .name("items").beginArray();
+        for (MenuItem item : service.getMenuCatalog().getItems()) {
+            json.beginObject()
+                    .field("id", item.id())
+                    .field("name", item.name())
+                    .field("category", item.category().name())
+                    .field("price", item.price() / 100.0)
+                    .field("available", item.available())
+                    .endObject();
+        }
+        return ok(json.endArray().endObject());
+    }
+
+    private ApiResponse dineIn(HttpExchange exchange) throws IOException {
+        requireSession(exchange);
+        Map<String, Object> body = readBody(exchange);
+        FoodOrder order = new FoodOrder();
+        Object items = body.get("items");
+        if (!(items instanceof List<?> lines)) {
+            throw new ApiException(400, "items must be an array");
+        }
+        for (Object line : lines) {
+            if (!(line instanceof Map<?, ?> item) || !(item.get("itemId") instanceof Long itemId)) {
+                throw new ApiException(400, "Every item needs a whole-number itemId");
+            }
+            Object quantity = item.get("quantity");
+            if (quantity != null && !(quantity instanceof Long)) {
+                throw new ApiException(400, "quantity must be a whole number");
+            }
+            order.add(Math.toIntExact(itemId), quantity == null ? 1 : Math.toIntExact((Long) quantity));
+        }
+        DineInResponse response = service.dineIn(new DineInRequest(string(body, "customerName"), string(body, "tableNumber"), order));
+        if (response.status() != ServiceStatus.OK) {
+            return status(response.status());
+        }
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("status", response.status().name())
+                .field("ticketNumber", response.ticketNumber());
+        writeInvoice(json, response.invoice());
+        return new ApiResponse(201, json.endObject().toString());
+    }
+
+    private ApiResponse metrics(HttpExchange exchange) {
+        requireStaff(exchange);
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("status", ServiceStatus.OK.name())
+                .field("virtualThreads", virtualThreads)
+                .name("endpoints").beginArray();
+        for (EndpointStats stats : getEndpointStats()) {
+            LatencySummary latency = stats.latency();
+            json.beginObject()
+                    .field("method", stats.method())
+                    .field("path", stats.path())
+                    .field("requests", latency.count())
+                    .field("clientErrors", stats.clientErrors())
+                    .field("serverErrors", stats.serverErrors())
+                    .field("meanMicros", latency.mean() / 1_000.0)
+                    .field("p50Micros", latency.p50() / 1_000.0)
+                    .field("p90Micros", latency.p90() / 1_000.0)
+                    .field("p99Micros", latency.p99() / 1_000.0)
+                    .field("maxMicros", latency.max() / 1_000.0)
+                    .endObject();
+        }
+        return ok(json.endArray().endObject());
+    }
+
+
+    private void route(String method, String path, Route route) {
+        Endpoint endpoint = new Endpoint(method, path, route);
+        endpoints.put(method + ' ' + path, endpoint);
+        server.createContext(path, exchange -> endpoint.serve(exchange));
+    }
+
+    private static void writeInvoice(JsonWriter json, Invoice invoice) {
+        json.name("invoice").beginObject()
+                .field("charges", invoice.charges())
+                .field("tip", invoice.tip())
+                .field("additionalCharges", invoice.additionalCharges())
+                .field("discount", invoice.discount())
+                .field("total", invoice.total())
+                .endObject();
+    }
+
+    private Session requireSession(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new ApiException(401, "A session token is required");
+        }
+        Session session = service.getSession(authorization.substring("Bearer ".length()).trim());
+        if (session == null) {
+            throw new ApiException(401, "The session has expired or does not exist");
+        }
+        return session;
+    }
+
+    private void requireStaff(HttpExchange exchange) {
+        if (requireSession(exchange).role() == AccountType.CUSTOMER) {
+            throw new ApiException(403, "Only staff may do this");
+        }
+    }
+
+    private static boolean shedding(HttpExchange exchange) {
+        if (SHEDDING.get() == null) {
+            return false;
+        }
+        exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER_SECONDS);
+        return true;
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        byte[] bytes = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new ApiException(413, "Request body over " + MAX_BODY_BYTES + " bytes");
+        }
+        return Json.parseObject(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> query = new LinkedHashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8), URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static ReservationRequest reservationRequest(Map<String, Object> body) {
+        return new ReservationRequest(string(body, "guestName"), string(body, "phoneNumber"), string(body, "email"), string(body, "address"),
+                date(string(body, "checkIn")), date(string(body, "checkOut")), roomType(string(body, "roomType")), string(body, "roomNumber"),
+                integer(body, "numberOfGuests", 1));
+    }
+
+    private static String string(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new ApiException(400, name + " must be a string");
+        }
+        return (String) value;
+    }
+
+    private static int integer(Map<String, Object> body, String name, int absent) {
+        Object value = body.get(name);
+        if (value == null) {
+            return absent;
+        }
+        if (!(value instanceof Long number) || number != (int) (long) number) {
+            throw new ApiException(400, name + " must be a whole number");
+        }
+        return (int) (long) number;
+    }
+
+    private static long id(Map<String, Object> body, String name) {
+        if (!(body.get(name) instanceof Long id)) {
+            throw new ApiException(400, name + " must be a whole number");
+        }
+        return id;
+    }
+
+    private static boolean bool(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof Boolean)) {
+            throw new ApiException(400, name + " must be true or false");
+        }
+        return Boolean.TRUE.equals(value);
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, name + " must be a whole number");
+        }
+    }
+
+    /**
+     * Null stays null, so the service reports a missing date the way it reports any invalid input.
+     */
+    private static LocalDate date(String value) {
+        return value == null ? null : LocalDate.parse(value);
+    }
+
+    private static RoomType roomType(String value) {
+        return value == null ? null : RoomType.parse(value);
+    }
+
+    private static ApiResponse ok(JsonWriter json) {
+        return new ApiResponse(200, json.toString());
+    }
+
+    private static ApiResponse status(ServiceStatus status) {
+        return new ApiResponse(httpStatus(status), new JsonWriter().beginObject().field("status", status.name()).endObject().toString());
+    }
+
+    static int httpStatus(ServiceStatus status) {
+        return switch (status) {
+            case OK -> 200;
+            case INVALID_INPUT -> 400;
+            case LOGIN_FAILED -> 401;
+            case UNKNOWN_ROOM, GUEST_NOT_FOUND, RESERVATION_NOT_FOUND, NOT_WAITLISTED, HOLD_NOT_FOUND -> 404;
+            case ROOM_UNAVAILABLE, GUEST_EXISTS, USERNAME_TAKEN -> 409;
+            case KITCHEN_FULL -> 503;
+        };
+    }
+
+    private static void setDefault(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+
+    /**
+     * A virtual thread per task where the JDK has them (Java 21 on), or null. Looked up by
+     * reflection so the hotel still builds and runs on the Java 17 it is deployed on.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A fixed pool behind a bounded queue. A request turned away because the queue is full goes to
+     * a few shedding threads, which only read its headers and answer 503, so an overload sheds
+     * requests instead of queueing them without end. Should those fall behind too, the request is
+     * dropped and the server's request timeout closes its connection.
+     */
+    private static ExecutorService newFallbackExecutor() {
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor shedding = new ThreadPoolExecutor(SHEDDING_THREADS, SHEDDING_THREADS, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(FALLBACK_QUEUE), runnable -> {
+            Thread thread = new Thread(() -> {
+                SHEDDING.set(Boolean.TRUE);
+                runnable.run();
+            }, "http-shedding-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        shedding.allowCoreThreadTimeOut(true);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(FALLBACK_THREADS, FALLBACK_THREADS, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(FALLBACK_QUEUE), runnable -> {
+            Thread thread = new Thread(runnable, "http-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, (task, pool) -> {
+            if (pool.isShutdown()) {
+                throw new RejectedExecutionException("The HTTP API has stopped");
+            }
+            shedding.execute(task);
+        }) {
+            @Override
+            protected void terminated() {
+                shedding.shutdown();
+            }
+        };
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+
+    private interface Route {
+        ApiResponse handle(HttpExchange exchange) throws IOException;
+    }
+
+
+    private record ApiResponse(int status, String body) {
+    }
+
+
+    /**
+     * ApiException: refuses the request with the HTTP status and reason.
+     */
+    private static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        ApiException(int status, String reason) {
+            super(reason, null, false, false);
+            this.status = status;
+        }
+    }
+
+
+    private static final class Endpoint {
+        private final String method;
+        private final String path;
+        private final Route route;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+
+        Endpoint(String method, String path, Route route) {
+            this.method = method;
+            this.path = path;
+            this.route = route;
+        }
+
+        EndpointStats stats() {
+            return new EndpointStats(method, path, clientErrors.sum(), serverErrors.sum(), latency.summarize());
+        }
+
+        /**
+         * Runs the route and sends its response. The latency is from the moment the server handed
+         * the request over until the whole response is written.
+         */
+        void serve(HttpExchange exchange) throws IOException {
+            long start = System.nanoTime();
+            try (exchange) {
+                ApiResponse response;
+                if (shedding(exchange)) {
+                    response = busy();
+                } else if (!exchange.getRequestURI().getPath().equals(path)) {
+                    response = refusal(404, "No such endpoint");
+                } else if (!exchange.getRequestMethod().equals(method)) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    response = refusal(405, "Use " + method);
+                } else {
+                    try {
+                        response = route.handle(exchange);
+                    } catch (ApiException e) {
+                        response = refusal(e.status, e.getMessage());
+                    } catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+                        response = refusal(400, e.getMessage());
+                    } catch (RuntimeException e) {
+                        response = refusal(500, "The request could not be completed");
+                    }
+                }
+                if (response.status() >= 500) {
+                    serverErrors.increment();
+                } else if (response.status() >= 400) {
+                    clientErrors.increment();
+                }
+                send(exchange, response);
+            } finally {
+                latency.record(System.nanoTime() - start);
+            }
+        }
+
+        static void send(HttpExchange exchange, ApiResponse response) throws IOException {
+            byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+
+        static ApiResponse busy() {
+            return refusal(503, "The server is busy; try again shortly");
+        }
+
+        static ApiResponse refusal(int status, String message) {
+            String reason = switch (status) {
+                case 400 -> ServiceStatus.INVALID_INPUT.name();
+                case 401 -> "UNAUTHORIZED";
+                case 403 -> "FORBIDDEN";
+                case 404 -> "NOT_FOUND";
+                case 405 -> "METHOD_NOT_ALLOWED";
+                case 413 -> "BODY_TOO_LARGE";
+                case 503 -> "SERVICE_UNAVAILABLE";
+                default -> "INTERNAL_ERROR";
+            };
+            return new ApiResponse(status, new JsonWriter().beginObject().field("status", reason).field("message", message).endObject().toString());
+        }
+    }
+}
@@ -0,0 +1,750 @@
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+
+/**
+ * HotelJournal: makes the state of a HotelService survive restarts and crashes.
+ *
+ * Every state-changing operation is appended to a Journal as a small binary record before the
+ * service answers. Room bookings are journaled by the RoomInventory itself, under the room's lock,
+ * so the records of one room replay in the order the bookings were made; the service adds one
+ * record per operation for the guest and user registries.
+ *
+ * A snapshot of the whole state is written every few minutes, after every 200,000 records and on
+ * close. Startup loads the snapshot and replays only the journal segments written after it.
+ * Replay is idempotent, so a record that the snapshot already reflects does no harm. The KPIs are
+ * sums and cannot be replayed twice, so the snapshot keeps the journal mark its figures are
+ * counted up to, and only the stays of later records are counted on top of them.
+ */
+class HotelJournal implements RoomInventory.BookingListener, Closeable {
+    private static final byte SIGN_UP = 1;
+    private static final byte RESERVATION = 2;
+    private static final byte CHECK_IN = 3;
+    private static final byte CHECK_OUT = 4;
+    private static final byte MAINTENANCE = 5;
+    private static final byte DINE_IN = 6;
+    private static final byte ROOM_BOOKED = 7;
+    private static final byte ROOM_RELEASED = 8;
+    private static final byte FOLIO_CHARGE = 9;
+    private static final byte NIGHT_AUDIT = 10;
+    // Written only to snapshots: the night audit's progress on one folio, and the last audit date.
+    private static final byte FOLIO_POSTED = 11;
+    private static final byte AUDIT_DATE = 12;
+    private static final byte CANCELLATION = 13;
+    // Snapshot only: rooms sold and room revenue of one night and room type.
+    private static final byte KPI_NIGHT = 14;
+    private static final byte RESERVATION_MOVED = 15;
+    private static final byte WAITLIST_JOINED = 16;
+    private static final byte WAITLIST_LEFT = 17;
+    private static final byte HOLD_PLACED = 18;
+    private static final byte HOLD_ENDED = 19;
+    // Snapshot only, and first: the journal mark up to which the snapshot's KPI figures count the stays.
+    private static final byte KPI_MARK = 20;
+
+    private static final int SEGMENT_BYTES = 64 << 20;
+    private static final int MAX_RECORD_BYTES = 64 << 10;
+    private static final long COMMIT_INTERVAL_MILLIS = 5;
+    private static final long DEFAULT_SNAPSHOT_INTERVAL_SECONDS = 300;
+    // Bounds the journal tail a restart has to replay on top of the snapshot.
+    private static final long SNAPSHOT_EVERY_RECORDS = 200_000;
+    private static final int SNAPSHOT_MAGIC = 0x484D5331;
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String SNAPSHOT_TEMP_FILE = "snapshot.tmp";
+
+    private final Path directory;
+    private final HotelService service;
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(MAX_RECORD_BYTES));
+    private final AtomicLong recordsSinceSnapshot = new AtomicLong();
+    private Journal journal;
+    private final ScheduledExecutorService snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long recoveredRecords;
+    // The moves of the re-optimization being replayed, applied once its last one is read.
+    private final List<ReservationMoved> pendingMoves = new ArrayList<>();
+    // Held shared while an operation changes the KPIs and appends its record, and exclusively
+    // while a snapshot takes the KPI figures and the journal mark they are counted up to.
+    private final ReadWriteLock kpiBarrier = new ReentrantReadWriteLock();
+    // Replay: the mark of the record being replayed, and the mark up to which the restored KPIs
+    // count the stays; with no snapshot they count none.
+    private long replayMark;
+    private long kpiMark = -1;
+
+    private HotelJournal(Path directory, HotelService service) {
+        this.directory = directory;
+        this.service = service;
+    }
+
+    public static HotelJournal open(Path directory, HotelService service) throws IOException {
+        return open(directory, service, DEFAULT_SNAPSHOT_INTERVAL_SECONDS);
+    }
+
+    /**
+     * Restores the service from the snapshot and journal in the directory, then starts journaling
+     * its operations. The service's rooms must already be set up.
+     */
+    public static HotelJournal open(Path directory, HotelService service, long snapshotIntervalSeconds) throws IOException {
+        HotelJournal hotelJournal = new HotelJournal(directory, service);
+        Files.createDirectories(directory);
+        long firstSegment = hotelJournal.loadSnapshot();
+        hotelJournal.journal = Journal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL_MILLIS, firstSegment, hotelJournal::replay);
+        // A crash may have cut the last re-optimization short; its moves on disk are applied.
+        hotelJournal.restorePendingMoves();
+        hotelJournal.snapshots.scheduleWithFixedDelay(hotelJournal::periodicSnapshot, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+
+        service.getRoomInventory().addBookingListener(hotelJournal);
+        service.setJournal(hotelJournal);
+        service.publishRestoredState();
+        return hotelJournal;
+    }
+
+    /**
+     * Number of journal records replayed on top of the snapshot when the journal was opened.
+     */
+    public long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+
+    /**
+     * Makes an operation's change to the KPIs and appends its record with no snapshot in between,
+     * so a snapshot's figures count the change exactly when its KPI mark covers the record.
+     * Returns the record's position.
+     */
+    long recordCounted(Runnable kpiChange, LongSupplier record) {
+        kpiBarrier.readLock().lock();
+        try {
+            kpiChange.run();
+            return record.getAsLong();
+        } finally {
+            kpiBarrier.readLock().unlock();
+        }
+    }
+
+    long recordSignUp(User user) {
+        ByteBuffer record = start(SIGN_UP);
+        writeUser(record, user);
+        return append(record);
+    }
+
+    long recordReservation(Reservation reservation) {
+        ByteBuffer record = start(RESERVATION);
+        writeReservation(record, reservation);
+        return append(record);
+    }
+
+    long recordCancellation(Reservation reservation) {
+        ByteBuffer record = start(CANCELLATION);
+        writeReservation(record, reservation);
+        return append(record);
+    }
+
+    /**
+     * @param movesLeft how many moves of the same re-optimization are recorded after this one
+     */
+    long recordReservationMoved(Reservation reservation, String toRoom, int movesLeft) {
+        ByteBuffer record = start(RESERVATION_MOVED);
+        writeReservation(record, reservation);
+        putString(record, toRoom);
+        record.putInt(movesLeft);
+        return append(record);
+    }
+
+    long recordWaitlistJoined(WaitlistEntry entry) {
+        ByteBuffer record = start(WAITLIST_JOINED);
+        writeWaitlistEntry(record, entry);
+        return append(record);
+    }
+
+    long recordWaitlistLeft(long waitlistId) {
+        ByteBuffer record = start(WAITLIST_LEFT);
+        record.putLong(waitlistId);
+        return append(record);
+    }
+
+    long recordHoldPlaced(RoomHold hold) {
+        ByteBuffer record = start(HOLD_PLACED);
+        writeHold(record, hold);
+        return append(record);
+    }
+
+    /**
+     * @param confirmedAs the reservation the hold became, or null if it was released or expired
+     */
+    long recordHoldEnded(long holdId, Reservation confirmedAs) {
+        ByteBuffer record = start(HOLD_ENDED);
+        record.putLong(holdId);
+        record.put((byte) (confirmedAs != null ? 1 : 0));
+        if (confirmedAs != null) {
+            writeReservation(record, confirmedAs);
+        }
+        return append(record);
+    }
+
+    long recordCheckIn(GuestInformation guest) {
+        ByteBuffer record = start(CHECK_IN);
+        writeGuest(record, guest);
+        return append(record);
+    }
+
+    long recordCheckOut(String guestName) {
+        ByteBuffer record = start(CHECK_OUT);
+        putString(record, guestName);
+        return append(record);
+    }
+
+    long recordMaintenance(String roomNumber, LocalDate night) {
+        ByteBuffer record = start(MAINTENANCE);
+        putString(record, roomNumber);
+        record.putInt((int) night.toEpochDay());
+        return append(record);
+    }
+
+    long recordDineIn(DineInRequest request) {
+        ByteBuffer record = start(DINE_IN);
+        putString(record, request.customerName());
+        putString(record, request.tableNumber());
+        FoodOrder order = request.order();
+        record.putInt(order.getLineCount());
+        for (int line = 0; line < order.getLineCount(); line++) {
+            record.putInt(order.getItemId(line));
+            record.putInt(order.getQuantity(line));
+        }
+        return append(record);
+    }
+
+    long recordFolioCharge(String guestName, int index, String description, long amount) {
+        ByteBuffer record = start(FOLIO_CHARGE);
+        writeFolioCharge(record, guestName, index, description, amount);
+        return append(record);
+    }
+
+    long recordNightAudit(LocalDate businessDate, int taxBasisPoints) {
+        ByteBuffer record = start(NIGHT_AUDIT);
+        record.putInt((int) businessDate.toEpochDay());
+        record.putInt(taxBasisPoints);
+        return append(record);
+    }
+
+    @Override
+    public void booked(String roomNumber, int checkInDay, int checkOutDay) {
+        ByteBuffer record = start(ROOM_BOOKED);
+        putString(record, roomNumber);
+        record.putInt(checkInDay);
+        record.putInt(checkOutDay);
+        append(record);
+    }
+
+    @Override
+    public void released(String roomNumber, int checkInDay, int checkOutDay) {
+        ByteBuffer record = start(ROOM_RELEASED);
+        putString(record, roomNumber);
+        record.putInt(checkInDay);
+        record.putInt(checkOutDay);
+        append(record);
+    }
+
+    /**
+     * Blocks until the record at the given position, and every record before it, is on disk.
+     */
+    void awaitDurable(long position) {
+        journal.awaitDurable(position);
+    }
+
+    void awaitDurable() {
+        journal.awaitDurable(journal.getAppendedPosition());
+    }
+
+
+    /**
+     * Writes a snapshot of the current state and drops the journal segments it covers.
+     */
+    public synchronized void snapshot() throws IOException {
+        // Records appended from here on go to the new segment and are replayed over the snapshot.
+        long firstSegment = journal.rotate();
+        recordsSinceSnapshot.set(0);
+        Path temp = directory.resolve(SNAPSHOT_TEMP_FILE);
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), new CRC32());
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(firstSegment);
+            writeSnapshot(out);
+            out.flush();
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journal.deleteSegmentsBefore(firstSegment);
+    }
+
+    /**
+     * Stops journaling, writing a final snapshot so the next start has nothing to replay.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (snapshots.isShutdown()) {
+            return;
+        }
+        snapshots.shutdown();
+        service.getRoomInventory().removeBookingListener(this);
+        service.setJournal(null);
+        try {
+            snapshot();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private void periodicSnapshot() {
+        if (recordsSinceSnapshot.get() == 0) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Journal snapshot failed: " + e.getMessage());
+        }
+    }
+
+
+    private ByteBuffer start(byte type) {
+        ByteBuffer record = buffers.get();
+        record.clear();
+        record.put(type);
+        return record;
+    }
+
+    private long append(ByteBuffer record) {
+        record.flip();
+        long position = journal.append(record);
+        if (recordsSinceSnapshot.incrementAndGet() == SNAPSHOT_EVERY_RECORDS) {
+            try {
+                snapshots.execute(this::periodicSnapshot);
+            } catch (RejectedExecutionException e) {
+                // Closing; close() writes the final snapshot.
+            }
+        }
+        return position;
+    }
+
+    private void replay(ByteBuffer record, long mark) {
+        recoveredRecords++;
+        replayMark = mark;
+        RoomInventory inventory = service.getRoomInventory();
+        byte type = record.get();
+        switch (type) {
+            case SIGN_UP -> service.restoreUser(readUser(record));
+            case CHECK_IN -> {
+                GuestInformation guest = readGuest(record);
+                service.restoreGuest(guest);
+                if (countsKpis()) {
+                    service.restoreStayCount(guest);
+                }
+            }
+            case CHECK_OUT -> service.forgetGuest(getString(record));
+            case FOLIO_CHARGE -> service.restoreCharge(getString(record), record.getInt(), getString(record), record.getLong());
+            case NIGHT_AUDIT -> service.restoreNightAudit(LocalDate.ofEpochDay(record.getInt()), record.getInt());
+            case FOLIO_POSTED -> service.restorePosting(getString(record), record.getInt(), record.getLong());
+            case AUDIT_DATE -> service.advanceAuditDate(LocalDate.ofEpochDay(record.getInt()));
+            case RESERVATION, CANCELLATION -> {
+                Reservation reservation = readReservation(record);
+                if (type == RESERVATION) {
+                    service.restoreReservation(reservation);
+                } else {
+                    service.forgetReservation(reservation);
+                }
+                if (countsKpis()) {
+                    service.restoreStayCount(reservation, type == RESERVATION);
+                }
+            }
+            case RESERVATION_MOVED -> {
+                pendingMoves.add(new ReservationMoved(readReservation(record), getString(record)));
+                if (record.getInt() == 0) {
+                    restorePendingMoves();
+                }
+            }
+            case WAITLIST_JOINED -> service.restoreWaitlistEntry(readWaitlistEntry(record));
+            case WAITLIST_LEFT -> service.forgetWaitlistEntry(record.getLong());
+            case HOLD_PLACED -> {
+                long holdId = record.getLong();
+                long expiresAtMillis = record.getLong();
+                service.restoreHold(new RoomHold(holdId, readReservation(record), expiresAtMillis));
+            }
+            case HOLD_ENDED -> {
+                long holdId = record.getLong();
+                Reservation confirmedAs = record.get() != 0 ? readReservation(record) : null;
+                service.forgetHold(holdId, confirmedAs);
+                if (confirmedAs != null && countsKpis()) {
+                    service.restoreStayCount(confirmedAs, true);
+                }
+            }
+            case KPI_MARK -> kpiMark = record.getLong();
+            case KPI_NIGHT -> service.getOccupancyKpis().restoreNight(record.getInt(), RoomType.values()[record.get()], record.getLong(), record.getLong());
+            case ROOM_BOOKED, ROOM_RELEASED -> {
+                String roomNumber = getString(record);
+                int checkInDay = record.getInt();
+                int checkOutDay = record.getInt();
+                if (!inventory.hasRoom(roomNumber)) {
+                    break;
+                }
+                if (type == ROOM_BOOKED) {
+                    inventory.book(roomNumber, checkInDay, checkOutDay);
+                } else {
+                    inventory.release(roomNumber, checkInDay, checkOutDay);
+                }
+            }
+            // The room changes of these operations have their own records; the rest is history only.
+            case MAINTENANCE, DINE_IN -> {
+            }
+            default -> throw new IllegalStateException("Unknown journal record type");
+        }
+    }
+
+    /**
+     * Whether the stay the record being replayed sold or cancelled is missing from the KPIs.
+     */
+    private boolean countsKpis() {
+        return replayMark > kpiMark;
+    }
+
+    private void restorePendingMoves() {
+        if (!pendingMoves.isEmpty()) {
+            service.restoreMoves(List.copyOf(pendingMoves));
+            pendingMoves.clear();
+        }
+    }
+
+    private long loadSnapshot() throws IOException {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (InputStream stream = Files.newInputStream(file);
+             CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(stream, 1 << 16), new CRC32());
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a hotel snapshot: " + file);
+            }
+            long firstSegment = in.readLong();
+            kpiMark = Long.MIN_VALUE;
+            readSnapshot(in);
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Hotel snapshot is corrupt: " + file);
+            }
+            if (kpiMark == Long.MIN_VALUE) {
+                throw new IOException("Hotel snapshot has no KPI mark: " + file);
+            }
+            return firstSegment;
+        }
+    }
+
+    private void writeSnapshot(DataOutputStream out) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(MAX_RECORD_BYTES);
+        // The KPIs come first, copied with the mark they are counted up to while no operation is
+        // between its change to them and its record.
+        ByteArrayOutputStream kpis = new ByteArrayOutputStream();
+        DataOutputStream kpiEntries = new DataOutputStream(kpis);
+        kpiBarrier.writeLock().lock();
+        try {
+            record.clear();
+            record.put(KPI_MARK);
+            record.putLong(journal.getAppendedMark());
+            writeEntry(kpiEntries, record);
+            service.getOccupancyKpis().forEachNight((day, type, roomsSold, roomRevenue) -> {
+                record.clear();
+                record.put(KPI_NIGHT);
+                record.putInt(day);
+                record.put((byte) type.ordinal());
+                record.putLong(roomsSold);
+                record.putLong(roomRevenue);
+                writeEntryUnchecked(kpiEntries, record);
+            });
+        } finally {
+            kpiBarrier.writeLock().unlock();
+        }
+        kpis.writeTo(out);
+        for (User user : service.getUsers()) {
+            record.clear();
+            record.put(SIGN_UP);
+            writeUser(record, user);
+            writeEntry(out, record);
+        }
+        try {
+            service.forEachGuest(guest -> {
+                record.clear();
+                record.put(CHECK_IN);
+                writeGuest(record, guest);
+                writeEntryUnchecked(out, record);
+            });
+            service.forEachFolio(folio -> {
+                List<FolioCharge> charges = folio.getCharges();
+                for (int index = 0; index < charges.size(); index++) {
+                    record.clear();
+                    record.put(FOLIO_CHARGE);
+                    writeFolioCharge(record, folio.getGuestName(), index, charges.get(index).description(), charges.get(index).amount());
+                    writeEntryUnchecked(out, record);
+                }
+                // The day and the tax must come from the same posting.
+                synchronized (folio) {
+                    if (folio.getPostedThroughDay() > folio.getCheckInDay()) {
+                        record.clear();
+                        record.put(FOLIO_POSTED);
+                        putString(record, folio.getGuestName());
+                        record.putInt(folio.getPostedThroughDay());
+                        record.putLong(folio.getRoomTax());
+                        writeEntryUnchecked(out, record);
+                    }
+                }
+            });
+            service.getRoomInventory().forEachBooking((roomNumber, checkInDay, checkOutDay) -> {
+                record.clear();
+                record.put(ROOM_BOOKED);
+                putString(record, roomNumber);
+                record.putInt(checkInDay);
+                record.putInt(checkOutDay);
+                writeEntryUnchecked(out, record);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        try {
+            service.forEachReservation(reservation -> {
+                record.clear();
+                record.put(RESERVATION);
+                writeReservation(record, reservation);
+                writeEntryUnchecked(out, record);
+            });
+            service.forEachWaitlistEntry(entry -> {
+                record.clear();
+                record.put(WAITLIST_JOINED);
+                writeWaitlistEntry(record, entry);
+                writeEntryUnchecked(out, record);
+            });
+            // After the bookings, which already hold their nights.
+            service.forEachHold(hold -> {
+                record.clear();
+                record.put(HOLD_PLACED);
+                writeHold(record, hold);
+                writeEntryUnchecked(out, record);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        LocalDate lastAuditDate = service.getLastAuditDate();
+        if (lastAuditDate != null) {
+            record.clear();
+            record.put(AUDIT_DATE);
+            record.putInt((int) lastAuditDate.toEpochDay());
+            writeEntry(out, record);
+        }
+        out.writeInt(0);
+    }
+
+    private static void writeEntry(DataOutputStream out, ByteBuffer record) throws IOException {
+        record.flip();
+        out.writeInt(record.remaining());
+        out.write(record.array(), 0, record.remaining());
+    }
+
+    private static void writeEntryUnchecked(DataOutputStream out, ByteBuffer record) {
+        try {
+            writeEntry(out, record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The snapshot holds the same records as the journal, so it is restored by replaying them.
+    private void readSnapshot(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[MAX_RECORD_BYTES];
+        ByteBuffer record = ByteBuffer.wrap(bytes);
+        for (int length; (length = in.readInt()) != 0; ) {
+            in.readFully(bytes, 0, length);
+            record.clear().limit(length);
+            // Below every journal mark, so the KPI figures of the snapshot are taken as they are.
+            replay(record, Long.MIN_VALUE);
+        }
+        recoveredRecords = 0;
+    }
+
+
+    private static void writeUser(ByteBuffer record, User user) {
+        if (user instanceof Customer customer) {
+            record.put((byte) AccountType.CUSTOMER.ordinal());
+            putString(record, customer.getCustomerName());
+            putString(record, customer.getEmail());
+        } else if (user instanceof Admin admin) {
+            record.put((byte) AccountType.ADMIN.ordinal());
+            putString(record, admin.getAdminName());
+            putString(record, null);
+        } else {
+            record.put((byte) AccountType.USER.ordinal());
+            putString(record, null);
+            putString(record, null);
+        }
+        putString(record, user.getUsername());
+        putString(record, user.getPasswordHash());
+    }
+
+    private static User readUser(ByteBuffer record) {
+        AccountType type = AccountType.values()[record.get()];
+        String name = getString(record);
+        String email = getString(record);
+        String username = getString(record);
+        String passwordHash = getString(record);
+        if (!CredentialStore.isHash(passwordHash)) {
+            throw new IllegalStateException("Journal record for " + username + " holds no password hash");
+        }
+        return switch (type) {
+            case CUSTOMER -> new Customer(username, passwordHash, name, email);
+            case USER -> new User(username, passwordHash);
+            case ADMIN -> new Admin(username, passwordHash, name);
+        };
+    }
+
+    private static void writeHold(ByteBuffer record, RoomHold hold) {
+        record.putLong(hold.id());
+        record.putLong(hold.expiresAtMillis());
+        writeReservation(record, hold.reservation());
+    }
+
+    private static void writeReservation(ByteBuffer record, Reservation reservation) {
+        putString(record, reservation.guestName());
+        putString(record, reservation.phoneNumber());
+        putString(record, reservation.email());
+        putString(record, reservation.roomNumber());
+        record.putInt((int) reservation.checkIn().toEpochDay());
+        record.putInt((int) reservation.checkOut().toEpochDay());
+        record.putInt(reservation.numberOfGuests());
+        record.putLong(reservation.nightlyRate());
+        record.put((byte) reservation.roomType().ordinal());
+        record.put((byte) (reservation.flexibleRoom() ? 1 : 0));
+    }
+
+    private static Reservation readReservation(ByteBuffer record) {
+        String guestName = getString(record);
+        String phoneNumber = getString(record);
+        String email = getString(record);
+        String roomNumber = getString(record);
+        LocalDate checkIn = LocalDate.ofEpochDay(record.getInt());
+        LocalDate checkOut = LocalDate.ofEpochDay(record.getInt());
+        int numberOfGuests = record.getInt();
+        long nightlyRate = record.getLong();
+        RoomType type = RoomType.values()[record.get()];
+        boolean flexibleRoom = record.get() != 0;
+        return new Reservation(guestName, phoneNumber, email, roomNumber, type, checkIn, checkOut, numberOfGuests, nightlyRate, flexibleRoom);
+    }
+
+    private static void writeWaitlistEntry(ByteBuffer record, WaitlistEntry entry) {
+        ReservationRequest request = entry.request();
+        record.putLong(entry.id());
+        record.put((byte) entry.tier().ordinal());
+        putString(record, request.guestName());
+        putString(record, request.phoneNumber());
+        putString(record, request.email());
+        putString(record, request.address() == null ? "" : request.address());
+        record.put((byte) request.roomType().ordinal());
+        record.putInt((int) request.checkIn().toEpochDay());
+        record.putInt((int) request.checkOut().toEpochDay());
+        record.putInt(request.numberOfGuests());
+    }
+
+    private static WaitlistEntry readWaitlistEntry(ByteBuffer record) {
+        long id = record.getLong();
+        LoyaltyTier tier = LoyaltyTier.values()[record.get()];
+        String guestName = getString(record);
+        String phoneNumber = getString(record);
+        String email = getString(record);
+        String address = getString(record);
+        RoomType type = RoomType.values()[record.get()];
+        LocalDate checkIn = LocalDate.ofEpochDay(record.getInt());
+        LocalDate checkOut = LocalDate.ofEpochDay(record.getInt());
+        int numberOfGuests = record.getInt();
+        return new WaitlistEntry(id, tier, new ReservationRequest(guestName, phoneNumber, email, address, checkIn, checkOut, type, null, numberOfGuests));
+    }
+
+    private static void writeFolioCharge(ByteBuffer record, String guestName, int index, String description, long amount) {
+        putString(record, guestName);
+        record.putInt(index);
+        putString(record, description);
+        record.putLong(amount);
+    }
+
+    private static void writeGuest(ByteBuffer record, GuestInformation guest) {
+        putString(record, guest.getGuestName());
+        putString(record, guest.getPhoneNumber());
+        putString(record, guest.getEmail());
+        putString(record, guest.getAddress());
+        putString(record, guest.getIdentification());
+        putString(record, guest.getRoomType());
+        putString(record, guest.getRoomNumber());
+        record.putDouble(guest.getRoomCost());
+        putString(record, guest.getCheckInDate());
+        putString(record, guest.getCheckOutDate());
+    }
+
+    private static GuestInformation readGuest(ByteBuffer record) {
+        return GuestInformation.of(getString(record), getString(record), getString(record), getString(record), getString(record),
+                getString(record), getString(record), record.getDouble(), getString(record), getString(record));
+    }
+
+    private static void putString(ByteBuffer record, String value) {
+        if (value == null) {
+            record.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        record.putInt(bytes.length);
+        record.put(bytes);
+    }
+
+    private static String getString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value;
+        if (record.hasArray()) {
+            value = new String(record.array(), record.arrayOffset() + record.position(), length, StandardCharsets.UTF_8);
+            record.position(record.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            record.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,183 @@
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+
+/**
+ * HotelMetrics: the service's operation timers and gauges, published as MXBeans or written out as
+ * a text snapshot.
+ *
+ * Timing an operation costs two {@link System#nanoTime} calls and a handful of uncontended atomic
+ * updates; the gauges are only evaluated when read.
+ */
+class HotelMetrics implements HotelMetricsMXBean {
+    private final OperationTimer[] timers = new OperationTimer[HotelOperation.values().length];
+    private final LongSupplier[] gauges = new LongSupplier[HotelGauge.values().length];
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    HotelMetrics() {
+        for (HotelOperation operation : HotelOperation.values()) {
+            timers[operation.ordinal()] = new OperationTimer(operation);
+        }
+    }
+
+    public OperationTimer timer(HotelOperation operation) {
+        return timers[operation.ordinal()];
+    }
+
+    public void record(HotelOperation operation, long startNanos, boolean succeeded) {
+        timers[operation.ordinal()].record(startNanos, succeeded);
+    }
+
+    /**
+     * Reads the gauge from the supplier from now on. Meant to be called while the service is
+     * being set up, before other threads can see it.
+     */
+    void setGauge(HotelGauge gauge, LongSupplier supplier) {
+        gauges[gauge.ordinal()] = supplier;
+    }
+
+    /**
+     * The gauge's value now, or 0 if nothing supplies it.
+     */
+    public long read(HotelGauge gauge) {
+        LongSupplier supplier = gauges[gauge.ordinal()];
+        return supplier == null ? 0 : supplier.getAsLong();
+    }
+
+    /**
+     * Publishes the gauges as {@code <domain>:type=Hotel} and every operation as
+     * {@code <domain>:type=Operation,name=<operation>}.
+     */
+    public synchronized void register(MBeanServer server, String domain) throws JMException {
+        List<ObjectName> names = new ArrayList<>();
+        try {
+            names.add(server.registerMBean(this, new ObjectName(domain + ":type=Hotel")).getObjectName());
+            for (OperationTimer timer : timers) {
+                ObjectName name = new ObjectName(domain + ":type=Operation,name=" + timer.getOperation().getMetricName());
+                names.add(server.registerMBean(timer, name).getObjectName());
+            }
+        } catch (JMException e) {
+            unregister(server, names);
+            throw e;
+        }
+        registered.addAll(names);
+    }
+
+    public void register(String domain) throws JMException {
+        register(ManagementFactory.getPlatformMBeanServer(), domain);
+    }
+
+    public synchronized void unregister(MBeanServer server) {
+        unregister(server, registered);
+        registered.clear();
+    }
+
+    private static void unregister(MBeanServer server, List<ObjectName> names) {
+        for (ObjectName name : names) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // Already gone.
+            }
+        }
+    }
+
+    /**
+     * Every operation that has run, with its latencies in microseconds, then every gauge.
+     */
+    public String snapshot() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-20s %10s %8s %9s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "failed", "last min", "mean us", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (OperationTimer timer : timers) {
+            LatencySummary latency = timer.getLatency();
+            if (latency.count() == 0) {
+                continue;
+            }
+            out.append(String.format("%-20s %10d %8d %9d %10.1f %10.1f %10.1f %10.1f %10.1f%n", timer.getOperation().getMetricName(),
+                    latency.count(), timer.getFailures(), timer.getCountLastMinute(), OperationTimer.micros(latency.mean()),
+                    OperationTimer.micros(latency.p50()), OperationTimer.micros(latency.p99()), OperationTimer.micros(latency.p999()),
+                    OperationTimer.micros(latency.max())));
+        }
+        for (HotelGauge gauge : HotelGauge.values()) {
+            out.append(String.format("%-24s %d%n", gauge.getMetricName(), read(gauge)));
+        }
+        return out.toString();
+    }
+
+    @Override
+    public long getGuestsInHouse() {
+        return read(HotelGauge.GUESTS_IN_HOUSE);
+    }
+
+    @Override
+    public long getReservations() {
+        return read(HotelGauge.RESERVATIONS);
+    }
+
+    @Override
+    public long getRoomHolds() {
+        return read(HotelGauge.ROOM_HOLDS);
+    }
+
+    @Override
+    public long getHoldsExpired() {
+        return read(HotelGauge.HOLDS_EXPIRED);
+    }
+
+    @Override
+    public long getOpenFolios() {
+        return read(HotelGauge.OPEN_FOLIOS);
+    }
+
+    @Override
+    public long getWaitlisted() {
+        return read(HotelGauge.WAITLISTED);
+    }
+
+    @Override
+    public long getRooms() {
+        return read(HotelGauge.ROOMS);
+    }
+
+    @Override
+    public long getRoomsOccupiedTonight() {
+        return read(HotelGauge.ROOMS_OCCUPIED_TONIGHT);
+    }
+
+    @Override
+    public long getDomainEvents() {
+        return read(HotelGauge.DOMAIN_EVENTS);
+    }
+
+    @Override
+    public long getProjectionLag() {
+        return read(HotelGauge.PROJECTION_LAG);
+    }
+
+    @Override
+    public long getQuoteCacheEntries() {
+        return read(HotelGauge.QUOTE_CACHE_ENTRIES);
+    }
+
+    @Override
+    public long getQuoteCacheHits() {
+        return read(HotelGauge.QUOTE_CACHE_HITS);
+    }
+
+    @Override
+    public long getQuoteCacheMisses() {
+        return read(HotelGauge.QUOTE_CACHE_MISSES);
+    }
+
+    @Override
+    public String getSnapshot() {
+        return snapshot();
+    }
+}
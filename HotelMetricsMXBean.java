@@ -0,0 +1,34 @@
+
+/**
+ * HotelMetricsMXBean: how large the hotel's registries have grown, and every operation's figures
+ * as one text snapshot. Published as {@code hotel:type=Hotel}.
+ */
+public interface HotelMetricsMXBean {
+    long getGuestsInHouse();
+
+    long getReservations();
+
+    long getRoomHolds();
+
+    long getHoldsExpired();
+
+    long getOpenFolios();
+
+    long getWaitlisted();
+
+    long getRooms();
+
+    long getRoomsOccupiedTonight();
+
+    long getDomainEvents();
+
+    long getProjectionLag();
+
+    long getQuoteCacheEntries();
+
+    long getQuoteCacheHits();
+
+    long getQuoteCacheMisses();
+
+    String getSnapshot();
+}
@@ -0,0 +1,34 @@
+
+/**
+ * HotelOperation: an operation of the service that is timed and counted.
+ */
+enum HotelOperation {
+    SIGN_UP("sign-up"),
+    LOGIN("login"),
+    RESERVE("reserve"),
+    HOLD_ROOM("hold-room"),
+    CONFIRM_HOLD("confirm-hold"),
+    RELEASE_HOLD("release-hold"),
+    CANCEL_RESERVATION("cancel-reservation"),
+    JOIN_WAITLIST("join-waitlist"),
+    REOPTIMIZE_ROOMS("reoptimize-rooms"),
+    CHECK_IN("check-in"),
+    CHECK_OUT("check-out"),
+    FIND_GUEST("find-guest"),
+    POST_CHARGE("post-charge"),
+    QUOTE_AVAILABILITY("quote-availability"),
+    NIGHT_AUDIT("night-audit"),
+    DINE_IN("dine-in"),
+    RESERVE_ROOM("reserve-room"),
+    MARK_MAINTENANCE("mark-maintenance");
+
+    private final String metricName;
+
+    HotelOperation(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
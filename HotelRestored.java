@@ -0,0 +1,10 @@
+
+import java.util.List;
+
+
+/**
+ * HotelRestored: the reservations and in-house guests a journal restored when the service
+ * started. It stands for everything that happened before, which the log does not have.
+ */
+record HotelRestored(List<Reservation> reservations, List<GuestCheckedIn> inHouse) implements DomainEvent {
+}
@@ -0,0 +1,1309 @@
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+
+/**
+ * HotelService: the hotel operations without any console I/O or pauses.
+ *
+ * Every operation takes a typed request and returns a typed response whose status says whether it
+ * succeeded, so it can be driven from the console menus, another program or a benchmark alike.
+ */
+class HotelService implements AutoCloseable {
+    private static final int DINE_IN_TIP_BASIS_POINTS = 50;
+    // No sales tax is charged on dine-in orders today.
+    private static final int DINE_IN_TAX_BASIS_POINTS = 0;
+    // Every stay pays a flat service charge and gets 10% off the total.
+    private static final long SERVICE_CHARGE = 100_00;
+    private static final int STAY_DISCOUNT_BASIS_POINTS = 1_000;
+    private static final long MEAL_CHARGE = 1_500_00;
+    // No tax is charged on rooms today.
+    private static final int ROOM_TAX_BASIS_POINTS = 0;
+    private static final long SESSION_TIME_TO_LIVE_MILLIS = 30 * 60 * 1000;
+    private static final int KITCHEN_CAPACITY = 1024;
+    private static final int KITCHEN_MAX_LINES = 32;
+    private static final int QUOTE_CACHE_ENTRIES = 4_096;
+    private static final long QUOTE_TIME_TO_LIVE_MILLIS = 60 * 1000;
+    private static final long PROJECTION_WAIT_MILLIS = 1_000;
+    private static final long HOLD_TIME_TO_LIVE_MILLIS = 10 * 60 * 1000;
+    private static final long MAX_HOLD_MILLIS = 60 * 60 * 1000;
+    private static final long HOLD_TICK_MILLIS = 100;
+
+    private final GuestStore guests = new GuestStore();
+    // Open folios by lower-case guest name, one per checked-in guest.
+    private final Map<String, Folio> folios = new ConcurrentHashMap<>();
+    // Reservations by room number and check-in day, which no two reservations share.
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    // Cancellations share it; re-optimizing the rooms takes it alone, so a reservation is never
+    // cancelled from its old room while it is being moved.
+    private final ReadWriteLock roomMoves = new ReentrantReadWriteLock();
+    private final Waitlist waitlist = new Waitlist();
+    private final AtomicLong nextWaitlistId = new AtomicLong(1);
+    private final OccupancyKpis kpis;
+    private final BillingEngine billing = new BillingEngine(BillingRule.surcharge(SERVICE_CHARGE), BillingRule.discount(STAY_DISCOUNT_BASIS_POINTS));
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final CredentialStore credentials = new CredentialStore();
+    private final SessionCache sessions = new SessionCache(SESSION_TIME_TO_LIVE_MILLIS);
+    private final RoomInventory roomInventory;
+    private final RoomAllocator allocator;
+    private final PricingEngine pricing;
+    private final QuoteCache quotes;
+    private final MenuCatalog menu = MenuCatalog.standard();
+    private final KitchenPipeline kitchen = new KitchenPipeline(menu, KITCHEN_CAPACITY, KITCHEN_MAX_LINES);
+    private final NightAudit nightAudit = new NightAudit();
+    private final EventLog events = new EventLog();
+    private final FrontDeskView frontDesk = new FrontDeskView();
+    private final ReportingView reports = new ReportingView(ZoneId.systemDefault());
+    private final List<ProjectionRunner> projections = new CopyOnWriteArrayList<>();
+    private final HotelMetrics metrics = new HotelMetrics();
+    private final ReservationHolds holds = new ReservationHolds(HOLD_TICK_MILLIS, this::endHold);
+    private LocalDate lastAuditDate;
+    private volatile HotelJournal journal;
+
+    public HotelService() {
+        this(new RoomInventory());
+        roomInventory.addRoom("101", RoomType.SINGLE);
+        roomInventory.addRoom("102", RoomType.SINGLE);
+        roomInventory.addRoom("103", RoomType.DOUBLE);
+    }
+
+    public HotelService(RoomInventory roomInventory) {
+        this.roomInventory = roomInventory;
+        this.allocator = new RoomAllocator(roomInventory);
+        this.pricing = PricingEngine.standard(roomInventory);
+        this.quotes = new QuoteCache(roomInventory, pricing, QUOTE_CACHE_ENTRIES, QUOTE_TIME_TO_LIVE_MILLIS);
+        roomInventory.addBookingListener(quotes);
+        roomInventory.addBookingListener(new HotelEvents.RoomStateRecorder());
+        this.kpis = new OccupancyKpis(roomInventory::getRoomCount);
+        addProjection("front-desk", frontDesk);
+        addProjection("reporting", reports);
+        metrics.setGauge(HotelGauge.GUESTS_IN_HOUSE, guests::size);
+        metrics.setGauge(HotelGauge.RESERVATIONS, reservations::size);
+        metrics.setGauge(HotelGauge.ROOM_HOLDS, holds::size);
+        metrics.setGauge(HotelGauge.HOLDS_EXPIRED, holds::getExpired);
+        metrics.setGauge(HotelGauge.OPEN_FOLIOS, folios::size);
+        metrics.setGauge(HotelGauge.WAITLISTED, waitlist::size);
+        metrics.setGauge(HotelGauge.ROOMS, () -> countRooms(null));
+        metrics.setGauge(HotelGauge.ROOMS_OCCUPIED_TONIGHT, () -> countRooms(LocalDate.now()));
+        metrics.setGauge(HotelGauge.DOMAIN_EVENTS, events::getLastSequence);
+        metrics.setGauge(HotelGauge.PROJECTION_LAG, () -> projections.stream().mapToLong(ProjectionRunner::getLag).max().orElse(0));
+        metrics.setGauge(HotelGauge.QUOTE_CACHE_ENTRIES, () -> quotes.getStats().size());
+        metrics.setGauge(HotelGauge.QUOTE_CACHE_HITS, () -> quotes.getStats().hits());
+        metrics.setGauge(HotelGauge.QUOTE_CACHE_MISSES, () -> quotes.getStats().misses());
+    }
+
+
+    public SignUpResponse signUp(SignUpRequest request) {
+        long start = System.nanoTime();
+        SignUpResponse response = doSignUp(request);
+        metrics.record(HotelOperation.SIGN_UP, start, response.status() == ServiceStatus.OK);
+        return response;
+    }
+
+    private SignUpResponse doSignUp(SignUpRequest request) {
+        if (ValidationUtil.checkFullName(request.username()) != ValidationError.NONE
+                || !ValidationUtil.isValidPassword(request.password())
+                || !ValidationUtil.isValidEmail(request.email())
+                || (request.accountType() != AccountType.USER && ValidationUtil.checkAlphabetic(request.name()) != ValidationError.NONE)) {
+            return new SignUpResponse(ServiceStatus.INVALID_INPUT, null);
+        }
+
+        if (users.containsKey(request.username())) {
+            return new SignUpResponse(ServiceStatus.USERNAME_TAKEN, null);
+        }
+        String passwordHash = credentials.hash(request.password());
+        User user = switch (request.accountType()) {
+            case CUSTOMER -> new Customer(request.username(), passwordHash, request.name(), request.email());
+            case USER -> new User(request.username(), passwordHash);
+            case ADMIN -> new Admin(request.username(), passwordHash, request.name());
+        };
+        if (users.putIfAbsent(request.username(), user) != null) {
+            return new SignUpResponse(ServiceStatus.USERNAME_TAKEN, null);
+        }
+        HotelJournal journal = this.journal;
+        if (journal != null) {
+            journal.awaitDurable(journal.recordSignUp(user));
+        }
+        return new SignUpResponse(ServiceStatus.OK, user);
+    }
+
+    /**
+     * Checks the password and opens a session. An unknown username takes as long as a wrong
+     * password, so the two cannot be told apart.
+     */
+    public LoginResponse login(LoginRequest request) {
+        HotelEvents.LoginEvent event = new HotelEvents.LoginEvent();
+        event.begin();
+        long start = System.nanoTime();
+        LoginResponse response = doLogin(request);
+        metrics.record(HotelOperation.LOGIN, start, response.status() == ServiceStatus.OK);
+        event.commit(request, response);
+        return response;
+    }
+
+    private LoginResponse doLogin(LoginRequest request) {
+        User user = request.username() == null ? null : users.get(request.username());
+        if (!credentials.verify(request.password(), user == null ? null : user.getPasswordHash())) {
+            return new LoginResponse(ServiceStatus.LOGIN_FAILED, null, null);
+        }
+        if (credentials.needsRehash(user.getPasswordHash())) {
+            user = rehash(user, request.password());
+        }
+        Session session = sessions.open(user.getUsername(), AccountType.of(user));
+        return new LoginResponse(ServiceStatus.OK, user, session.token());
+    }
+
+    /**
+     * Stores the user's password again under the current work factor, now that it is known to be
+     * right. The new hash is journaled as a sign-up, which replays over the old one. Returns the
+     * user as stored, which is the old one if a concurrent login upgraded it first.
+     */
+    private User rehash(User user, String password) {
+        String passwordHash = credentials.hash(password);
+        User upgraded = switch (AccountType.of(user)) {
+            case CUSTOMER -> new Customer(user.getUsername(), passwordHash, ((Customer) user).getCustomerName(), ((Customer) user).getEmail());
+            case USER -> new User(user.getUsername(), passwordHash);
+            case ADMIN -> new Admin(user.getUsername(), passwordHash, ((Admin) user).getAdminName());
+        };
+        if (!users.replace(user.getUsername(), user, upgraded)) {
+            return user;
+        }
+        HotelJournal journal = this.journal;
+        if (journal != null) {
+            journal.awaitDurable(journal.recordSignUp(upgraded));
+        }
+        return upgraded;
+    }
+
+    /**
+     * Logs a terminal back in with the token of a live session, without hashing the password again.
+     */
+    public LoginResponse resumeSession(String sessionToken) {
+        Session session = sessions.resume(sessionToken);
+        User user = session == null ? null : users.get(session.username());
+        if (user == null) {
+            return new LoginResponse(ServiceStatus.LOGIN_FAILED, null, null);
+        }
+        return new LoginResponse(ServiceStatus.OK, user, session.token());
+    }
+
+    /**
+     * The live session for the token, with the role it was opened for, or null.
+     */
+    public Session getSession(String sessionToken) {
+        return sessions.resume(sessionToken);
+    }
+
+    public boolean logout(String sessionToken) {
+        return sessions.close(sessionToken);
+    }
+
+    public boolean hasUsers() {
+        return !users.isEmpty();
+    }
+
+
+    public ReservationResponse reserve(ReservationRequest request) {
+        HotelEvents.ReservationEvent event = new HotelEvents.ReservationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        ReservationResponse response = reserve(request, request.roomNumber() == null);
+        metrics.record(HotelOperation.RESERVE, start, response.status() == ServiceStatus.OK);
+        event.commit(request, response);
+        return response;
+    }
+
+    private ReservationResponse reserve(ReservationRequest request, boolean flexibleRoom) {
+        if (!isValidReservation(request)) {
+            return new ReservationResponse(ServiceStatus.INVALID_INPUT, null, null);
+        }
+
+        ServiceStatus status = checkRoom(request.roomType(), request.roomNumber());
+        if (status != ServiceStatus.OK) {
+            return new ReservationResponse(status, null, null);
+        }
+        // Priced before booking, at the occupancy the guest was quoted at.
+        StayQuote quote = pricing.quote(request.roomType(), request.checkIn(), request.checkOut());
+        String roomNumber = bookRoom(request.roomType(), request.roomNumber(), request.checkIn(), request.checkOut());
+        if (roomNumber == null) {
+            return new ReservationResponse(ServiceStatus.ROOM_UNAVAILABLE, null, null);
+        }
+
+        Reservation reservation = new Reservation(request.guestName(), request.phoneNumber(), request.email(), roomNumber, request.roomType(),
+                request.checkIn(), request.checkOut(), request.numberOfGuests(), quote.averageNightlyRate(), flexibleRoom);
+        reservations.put(reservationKey(roomNumber, request.checkIn()), reservation);
+        countAndJournal(() -> countStay(reservation, true), journal -> journal.recordReservation(reservation));
+        Invoice invoice = invoiceFor(reservation);
+        events.append(new ReservationMade(reservation));
+        return new ReservationResponse(ServiceStatus.OK, roomNumber, invoice);
+    }
+
+    /**
+     * Holds a room for the stay for ten minutes while the guest pays, at the rate quoted now.
+     * Unless {@link #confirmHold} books it first, the hold expires and frees the room by itself.
+     */
+    public RoomHoldResponse holdRoom(ReservationRequest request) {
+        return holdRoom(request, HOLD_TIME_TO_LIVE_MILLIS);
+    }
+
+    /**
+     * Holds a room for the stay for the given time, up to an hour.
+     */
+    public RoomHoldResponse holdRoom(ReservationRequest request, long holdMillis) {
+        long start = System.nanoTime();
+        RoomHoldResponse response = doHoldRoom(request, holdMillis);
+        metrics.record(HotelOperation.HOLD_ROOM, start, response.status() == ServiceStatus.OK);
+        return response;
+    }
+
+    private RoomHoldResponse doHoldRoom(ReservationRequest request, long holdMillis) {
+        if (!isValidReservation(request) || holdMillis <= 0 || holdMillis > MAX_HOLD_MILLIS) {
+            return new RoomHoldResponse(ServiceStatus.INVALID_INPUT, null, null);
+        }
+
+        ServiceStatus status = checkRoom(request.roomType(), request.roomNumber());
+        if (status != ServiceStatus.OK) {
+            return new RoomHoldResponse(status, null, null);
+        }
+        StayQuote quote = pricing.quote(request.roomType(), request.checkIn(), request.checkOut());
+        String roomNumber = bookRoom(request.roomType(), request.roomNumber(), request.checkIn(), request.checkOut());
+        if (roomNumber == null) {
+            return new RoomHoldResponse(ServiceStatus.ROOM_UNAVAILABLE, null, null);
+        }
+
+        Reservation reservation = new Reservation(request.guestName(), request.phoneNumber(), request.email(), roomNumber, request.roomType(),
+                request.checkIn(), request.checkOut(), request.numberOfGuests(), quote.averageNightlyRate(), request.roomNumber() == null);
+        RoomHold hold = new RoomHold(holds.nextId(), reservation, System.currentTimeMillis() + holdMillis);
+        // Journaled before its clock starts, so its end can never be journaled ahead of it.
+        HotelJournal journal = this.journal;
+        if (journal != null) {
+            journal.awaitDurable(journal.recordHoldPlaced(hold));
+        }
+        holds.place(hold);
+        return new RoomHoldResponse(ServiceStatus.OK, hold, invoiceFor(reservation));
+    }
+
+    /**
+     * Books the held stay. The room stays booked throughout, so nobody can take it between the
+     * hold and the reservation; a hold that has expired or been released cannot be confirmed.
+     */
+    public ReservationResponse confirmHold(long holdId) {
+        long start = System.nanoTime();
+        ReservationResponse response = doConfirmHold(holdId);
+        metrics.record(HotelOperation.CONFIRM_HOLD, start, response.status() == ServiceStatus.OK);
+        return response;
+    }
+
+    private ReservationResponse doConfirmHold(long holdId) {
+        RoomHold hold = holds.take(holdId);
+        if (hold == null) {
+            return new ReservationResponse(ServiceStatus.HOLD_NOT_FOUND, null, null);
+        }
+        Reservation reservation = hold.reservation();
+        reservations.put(reservationKey(reservation.roomNumber(), reservation.checkIn()), reservation);
+        countAndJournal(() -> countStay(reservation, true), journal -> journal.recordHoldEnded(holdId, reservation));
+        events.append(new ReservationMade(reservation));
+        return new ReservationResponse(ServiceStatus.OK, reservation.roomNumber(), invoiceFor(reservation));
+    }
+
+    /**
+     * Gives the held room back before the hold runs out, as when the guest abandons the payment.
+     */
+    public ServiceStatus releaseHold(long holdId) {
+        long start = System.nanoTime();
+        RoomHold hold = holds.take(holdId);
+        if (hold != null) {
+            try {
+                endHold(hold);
+            } catch (RuntimeException e) {
+                // The room is still booked for the hold, so put it back for its expiry to free.
+                holds.place(hold);
+                throw e;
+            }
+        }
+        ServiceStatus status = hold == null ? ServiceStatus.HOLD_NOT_FOUND : ServiceStatus.OK;
+        metrics.record(HotelOperation.RELEASE_HOLD, start, hold != null);
+        return status;
+    }
+
+    /**
+     * The hold, while it is in place; null once it has been confirmed, released or has expired.
+     */
+    public RoomHold getHold(long holdId) {
+        return holds.get(holdId);
+    }
+
+    public int getHoldCount() {
+        return holds.size();
+    }
+
+    /**
+     * Frees the nights of a hold that was released or has expired, and offers them to the
+     * waitlist. The end is journaled first: replaying it frees the nights too, so a crash between
+     * the two cannot leave them booked for nobody.
+     */
+    private void endHold(RoomHold hold) {
+        Reservation reservation = hold.reservation();
+        HotelJournal journal = this.journal;
+        if (journal != null) {
+            journal.awaitDurable(journal.recordHoldEnded(hold.id(), null));
+        }
+        roomInventory.release(reservation.roomNumber(), reservation.checkIn(), reservation.checkOut());
+        promoteWaitlisted(reservation.roomNumber(), (int) reservation.checkIn().toEpochDay(), (int) reservation.checkOut().toEpochDay());
+    }
+
+    private Invoice invoiceFor(Reservation reservation) {
+        Folio folio = new Folio(reservation.guestName(), reservation.roomNumber(), reservation.roomType(), (int) reservation.checkIn().toEpochDay(),
+                (int) reservation.checkOut().toEpochDay(), reservation.nightlyRate());
+        return billing.bill(folio).toInvoice();
+    }
+
+
+    /**
+     * Cancels a reservation made with {@link #reserve} and frees its room. The guest name must
+     * match the reservation, ignoring case.
+     */
+    public CancellationResponse cancelReservation(CancellationRequest request) {
+        long start = System.nanoTime();
+        CancellationResponse response = doCancelReservation(request);
+        metrics.record(HotelOperation.CANCEL_RESERVATION, start, response.status() == ServiceStatus.OK);
+        return response;
+    }
+
+    private CancellationResponse doCancelReservation(CancellationRequest request) {
+        if (request.guestName() == null || request.roomNumber() == null || request.checkIn() == null) {
+            return new CancellationResponse(ServiceStatus.INVALID_INPUT, null, List.of());
+        }
+        String key = reservationKey(request.roomNumber(), request.checkIn());
+        Reservation reservation;
+        roomMoves.readLock().lock();
+        try {
+            reservation = reservations.get(key);
+            if (reservation == null || !reservation.guestName().equalsIgnoreCase(request.guestName()) || !reservations.remove(key, reservation)) {
+                return new CancellationResponse(ServiceStatus.RESERVATION_NOT_FOUND, null, List.of());
+            }
+            roomInventory.release(reservation.roomNumber(), reservation.checkIn(), reservation.checkOut());
+        } finally {
+            roomMoves.readLock().unlock();
+        }
+        countAndJournal(() -> countStay(reservation, false), journal -> journal.recordCancellation(reservation));
+        events.append(new ReservationCancelled(reservation));
+        List<Reservation> promoted = promoteWaitlisted(reservation.roomNumber(), (int) reservation.checkIn().toEpochDay(), (int) reservation.checkOut().toEpochDay());
+        return new CancellationResponse(ServiceStatus.OK, reservation, promoted);
+    }
+
+    public Reservation findReservation(String roomNumber, LocalDate checkIn) {
+        return reservations.get(reservationKey(roomNumber, checkIn));
+    }
+
+    /**
+     * Books the stay if a room of its type is free for it, and otherwise puts it on the waitlist,
+     * from which it is booked as soon as a cancellation or check-out frees nights that fit it.
+     */
+    public WaitlistResponse joinWaitlist(WaitlistRequest request) {
+        long start = System.nanoTime();
+        WaitlistResponse response = doJoinWaitlist(request);
+        metrics.record(HotelOperation.JOIN_WAITLIST, start, response.status() == ServiceStatus.OK);
+        return response;
+    }
+
+    private WaitlistResponse doJoinWaitlist(WaitlistRequest request) {
+        if (request.reservation() == null || request.tier() == null) {
+            return new WaitlistResponse(ServiceStatus.INVALID_INPUT, -1, null);
+        }
+        ReservationRequest reservation = request.reservation().inRoom(null);
+        if (!isValidReservation(reservation)) {
+            return new WaitlistResponse(ServiceStatus.INVALID_INPUT, -1, null);
+        }
+        WaitlistEntry entry = new WaitlistEntry(nextWaitlistId.getAndIncrement(), request.tier(), reservation);
+        waitlist.add(entry);
+        HotelJournal journal = this.journal;
+        if (journal != null) {
+            journal.awaitDurable(journal.recordWaitlistJoined(entry));
+        }
+        // Joining first means a room freed from here on is offered to the entry; one freed since
+        // the caller found none is taken here, unless a cancellation has already promoted it.
+        if (waitlist.remove(entry.id()) != null) {
+            ReservationResponse response = reserve(reservation, true);
+            if (response.status() != ServiceStatus.OK) {
+                waitlist.add(entry);
+                return new WaitlistResponse(ServiceStatus.OK, entry.id(), null);
+            }
+            if (journal != null) {
+                journal.awaitDurable(journal.recordWaitlistLeft(entry.id()));
+            }
+            return new WaitlistResponse(ServiceStatus.OK, -1, findReservation(response.roomNumber(), reservation.checkIn()));
+        }
+        return new WaitlistResponse(ServiceStatus.OK, entry.id(), null);
+    }
+
+    public ServiceStatus leaveWaitlist(long waitlistId) {
+        if (waitlist.remove(waitlistId) == null) {
+            return ServiceStatus.NOT_WAITLISTED;
+        }
+        HotelJournal journal = this.journal;
+        if (journal != null) {
+            journal.awaitDurable(journal.recordWaitlistLeft(waitlistId));
+        }
+        return ServiceStatus.OK;
+    }
+
+    /**
+     * The requests still waiting, in the order they will be served.
+     */
+    public List<WaitlistEntry> getWaitlist() {
+        return waitlist.getEntries();
+    }
+
+    /**
+     * Moves the future reservations of the type whose guests left the room to the hotel, so that
+     * fewer nights are stranded between bookings. Reservations keep their nights and rate; only
+     * their room number changes.
+     */
+    public ReoptimizationReport reoptimizeRooms(RoomType type) {
+        long start = System.nanoTime();
+        ReoptimizationReport response = doReoptimizeRooms(type);
+        metrics.record(HotelOperation.REOPTIMIZE_ROOMS, start, true);
+        return response;
+    }
+
+    private ReoptimizationReport doReoptimizeRooms(RoomType type) {
+        roomMoves.writeLock().lock();
+        try {
+            return allocator.reoptimize(type, reservations.values(), moves -> {
+                List<ReservationMoved> moved = new ArrayList<>(moves.size());
+                for (RoomMove move : moves) {
+                    moved.add(new ReservationMoved(reservations.remove(reservationKey(move.fromRoom(), LocalDate.ofEpochDay(move.checkInDay()))), move.toRoom()));
+                }
+                // Two stays of the same check-in day may swap rooms, so all leave their keys before any takes a new one.
+                for (ReservationMoved move : moved) {
+                    reservations.put(reservationKey(move.toRoom(), move.reservation().checkIn()), move.reservation().inRoom(move.toRoom()));
+                }
+                HotelJournal journal = this.journal;
+                if (journal != null) {
+                    long position = 0;
+                    for (int index = 0; index < moved.size(); index++) {
+                        ReservationMoved move = moved.get(index);
+                        position = journal.recordReservationMoved(move.reservation(), move.toRoom(), moved.size() - 1 - index);
+                    }
+                    journal.awaitDurable(position);
+                }
+                moved.forEach(events::append);
+            });
+        } finally {
+            roomMoves.writeLock().unlock();
+        }
+    }
+
+
+    public CheckInResponse checkIn(CheckInRequest request) {
+        HotelEvents.CheckInEvent event = new HotelEvents.CheckInEvent();
+        event.begin();
+        long start = System.nanoTime();
+        CheckInResponse response = doCheckIn(request);
+        metrics.record(HotelOperation.CHECK_IN, start, response.status() == ServiceStatus.OK);
+        event.commit(request, response);
+        return response;
+    }
+
+    private CheckInResponse doCheckIn(CheckInRequest request) {
+        if (ValidationUtil.checkGuestName(request.guestName()) != ValidationError.NONE
+                || ValidationUtil.checkPhoneNumber(request.phoneNumber()) != ValidationError.NONE
+                || ValidationUtil.checkGmail(request.email()) != ValidationError.NONE
+                || !isValidStay(request.roomType(), request.checkIn(), request.checkOut())) {
+            return new CheckInResponse(ServiceStatus.INVALID_INPUT, null);
+        }
+
+        ServiceStatus status = checkRoom(request.roomType(), request.roomNumber());
+        if (status != ServiceStatus.OK) {
+            return new CheckInResponse(status, null);
+        }
+        // Guests are known by name alone, so a second guest of the same name would take the first one's place.
+        if (guests.contains(request.guestName())) {
+            return new CheckInResponse(ServiceStatus.GUEST_EXISTS, null);
+        }
+        StayQuote quote = pricing.quote(request.roomType(), request.checkIn(), request.checkOut());
+        String roomNumber = bookRoom(request.roomType(), request.roomNumber(), request.checkIn(), request.checkOut());
+        if (roomNumber == null) {
+            return new CheckInResponse(ServiceStatus.ROOM_UNAVAILABLE, null);
+        }
+
+        double roomCost = rupees(quote.averageNightlyRate());
+        GuestInformation guest = GuestInformation.of(request.guestName(), request.phoneNumber(), request.email(), request.address(), request.identification(),
+                request.roomType().getDisplayName().toLowerCase(), roomNumber, roomCost, request.checkIn().toString(), request.checkOut().toString());
+        if (!guests.put(guest)) {
+            // Checked in under the same name since the check above.
+            roomInventory.release(roomNumber, request.checkIn(), request.checkOut());
+            return new CheckInResponse(ServiceStatus.GUEST_EXISTS, null);
+        }
+        Folio folio = Folio.forGuest(guest);
+        folios.put(folioKey(guest.getGuestName()), folio);
+        countAndJournal(() -> countStay(folio), journal -> journal.recordCheckIn(guest));
+        events.append(new GuestCheckedIn(guest.getGuestName(), roomNumber, request.roomType(), request.checkIn(), request.checkOut(), quote.averageNightlyRate()));
+        return new CheckInResponse(ServiceStatus.OK, guest);
+    }
+
+    /**
+     * Looks the guest up by name, ignoring case.
+     */
+    public GuestInformation findGuest(String guestName) {
+        long start = System.nanoTime();
+        GuestInformation guest = guests.get(guestName);
+        metrics.record(HotelOperation.FIND_GUEST, start, guest != null);
+        return guest;
+    }
+
+    public List<GuestInformation> findGuestsByPhoneNumber(String phoneNumber) {
+        return guests.findByPhoneNumber(phoneNumber);
+    }
+
+    public List<GuestInformation> findGuestsByEmail(String email) {
+        return guests.findByEmail(email);
+    }
+
+    public List<GuestInformation> findGuestsByIdentification(String identification) {
+        return guests.findByIdentification(identification);
+    }
+
+    public List<GuestInformation> findGuestsInRoom(String roomNumber) {
+        return guests.findByRoomNumber(roomNumber);
+    }
+
+    public List<GuestInformation> findArrivals(LocalDate day) {
+        return guests.findByCheckIn(day, day.plusDays(1));
+    }
+
+    public List<GuestInformation> findDepartures(LocalDate day) {
+        return guests.findByCheckOut(day, day.plusDays(1));
+    }
+
+    /**
+     * Guests checking out on any day in [from, to), in date order.
+     */
+    public List<GuestInformation> findDepartures(LocalDate from, LocalDate to) {
+        return guests.findByCheckOut(from, to);
+    }
+
+
+    public CheckOutResponse checkOut(CheckOutRequest request) {
+        HotelEvents.CheckOutEvent event = new HotelEvents.CheckOutEvent();
+        event.begin();
+        long start = System.nanoTime();
+        CheckOutResponse response = doCheckOut(request);
+        metrics.record(HotelOperation.CHECK_OUT, start, response.status() == ServiceStatus.OK);
+        event.commit(request, response);
+        return response;
+    }
+
+    private CheckOutResponse doCheckOut(CheckOutRequest request) {
+        // Whichever terminal removes the guest first is the one that checks them out.
+        GuestInformation guest = guests.remove(request.guestName());
+        if (guest == null) {
+            return new CheckOutResponse(ServiceStatus.GUEST_NOT_FOUND, null, 0.0, null, List.of());
+        }
+
+        Folio folio = closeFolio(guest);
+        if (request.includeMeals()) {
+            folio.post("Meals", MEAL_CHARGE);
+        }
+        FolioBill bill = billing.bill(folio);
+
+        roomInventory.release(guest.getRoomNumber(), guest.getCheckIn(), guest.getCheckOut());
+        HotelJournal journal = this.journal;
+        if (journal != null) {
+            journal.awaitDurable(journal.recordCheckOut(request.guestName()));
+        }
+        events.append(new GuestCheckedOut(guest.getGuestName(), guest.getRoomNumber(), guest.getCheckIn(), guest.getCheckOut(), bill.total()));
+        List<Reservation> promoted = promoteWaitlisted(guest.getRoomNumber(), (int) guest.getCheckIn().toEpochDay(), (int) guest.getCheckOut().toEpochDay());
+        return new CheckOutResponse(ServiceStatus.OK, guest, rupees(bill.total()), bill.toInvoice(), promoted);
+    }
+
+    /**
+     * Posts an extra, such as room service, to a checked-in guest's folio.
+     */
+    public ServiceStatus postCharge(String guestName, String description, double amount) {
+        long start = System.nanoTime();
+        ServiceStatus response = doPostCharge(guestName, description, amount);
+        metrics.record(HotelOperation.POST_CHARGE, start, response == ServiceStatus.OK);
+        return response;
+    }
+
+    private ServiceStatus doPostCharge(String guestName, String description, double amount) {
+        if (guestName == null || description == null || description.isBlank() || !(amount > 0)) {
+            return ServiceStatus.INVALID_INPUT;
+        }
+        Folio folio = folios.get(folioKey(guestName));
+        if (folio == null) {
+            return ServiceStatus.GUEST_NOT_FOUND;
+        }
+        long paisa = Math.round(amount * 100);
+        HotelJournal journal = this.journal;
+        long position;
+        // The folio lock keeps the journal records of one folio in the order the charges were posted.
+        synchronized (folio) {
+            int index = folio.post(description, paisa);
+            position = journal == null ? -1 : journal.recordFolioCharge(folio.getGuestName(), index, description, paisa);
+        }
+        if (journal != null) {
+            journal.awaitDurable(position);
+        }
+        events.append(new ChargePosted(folio.getGuestName(), description, paisa));
+        return ServiceStatus.OK;
+    }
+
+    /**
+     * The open folio of a checked-in guest, or null.
+     */
+    public Folio getFolio(String guestName) {
+        return folios.get(folioKey(guestName));
+    }
+
+    /**
+     * Bills every open folio as it stands, with the current rules.
+     */
+    public List<FolioBill> billOpenFolios() {
+        return billing.billAll(new ArrayList<>(folios.values()));
+    }
+
+    public BillingEngine getBillingEngine() {
+        return billing;
+    }
+
+    /**
+     * What the stay would cost in a room of the type now, before any extras or billing rules.
+     */
+    public StayQuote quote(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        if (!isValidStay(type, checkIn, checkOut)) {
+            return null;
+        }
+        return pricing.quote(type, checkIn, checkOut);
+    }
+
+    /**
+     * Whether the stay can be sold in a room of the type and what its room charges come to, from
+     * the quote cache when nothing on its nights has changed since it was last asked for.
+     */
+    public RoomQuote quoteAvailability(RoomType type, LocalDate checkIn, LocalDate checkOut, int numberOfGuests) {
+        long start = System.nanoTime();
+        RoomQuote response = doQuoteAvailability(type, checkIn, checkOut, numberOfGuests);
+        metrics.record(HotelOperation.QUOTE_AVAILABILITY, start, response != null);
+        return response;
+    }
+
+    private RoomQuote doQuoteAvailability(RoomType type, LocalDate checkIn, LocalDate checkOut, int numberOfGuests) {
+        if (!isValidStay(type, checkIn, checkOut) || numberOfGuests <= 0) {
+            return null;
+        }
+        return quotes.get(type, checkIn, checkOut, numberOfGuests);
+    }
+
+    public QuoteCacheStats getQuoteCacheStats() {
+        return quotes.getStats();
+    }
+
+    public PricingEngine getPricingEngine() {
+        return pricing;
+    }
+
+    /**
+     * Occupancy, ADR and RevPAR of one night, for a room type or the whole hotel when the type is
+     * null. Sold stays stay counted after check-out; only a cancellation takes them back.
+     */
+    public DailyKpis getDailyKpis(LocalDate night, RoomType type) {
+        return kpis.getNight(night, type);
+    }
+
+    /**
+     * The figures of every night in [from, to), in date order.
+     */
+    public List<DailyKpis> getDailyKpis(LocalDate from, LocalDate to, RoomType type) {
+        return kpis.getNights(from, to, type);
+    }
+
+    public OccupancyKpis getOccupancyKpis() {
+        return kpis;
+    }
+
+    /**
+     * Closes the business day: posts the night, and the room tax on it, to every open folio and
+     * reports the revenue posted. Running it again for the same date posts nothing.
+     */
+    public NightAuditReport runNightAudit(LocalDate businessDate) {
+        long start = System.nanoTime();
+        NightAuditReport response = doRunNightAudit(businessDate);
+        metrics.record(HotelOperation.NIGHT_AUDIT, start, true);
+        return response;
+    }
+
+    private NightAuditReport doRunNightAudit(LocalDate businessDate) {
+        NightAuditReport report = nightAudit.run(folios.values().toArray(new Folio[0]), businessDate, ROOM_TAX_BASIS_POINTS);
+        advanceAuditDate(businessDate);
+        // Requests that were still waiting on their check-in night can no longer be served.
+        List<WaitlistEntry> expired = waitlist.removeCheckInsBefore((int) businessDate.toEpochDay() + 1);
+        HotelJournal journal = this.journal;
+        if (journal != null) {
+            for (WaitlistEntry entry : expired) {
+                journal.recordWaitlistLeft(entry.id());
+            }
+            journal.awaitDurable(journal.recordNightAudit(businessDate, ROOM_TAX_BASIS_POINTS));
+        }
+        events.append(new NightAudited(businessDate, report.roomRevenue(), report.taxRevenue()));
+        return report;
+    }
+
+    /**
+     * The day the next night audit closes: the day after the last audit, or today if there has
+     * been none.
+     */
+    public synchronized LocalDate getBusinessDate() {
+        return lastAuditDate == null ? LocalDate.now() : lastAuditDate.plusDays(1);
+    }
+
+    synchronized LocalDate getLastAuditDate() {
+        return lastAuditDate;
+    }
+
+
+    public List<String> getMenu() {
+        return menu.getDisplayLines();
+    }
+
+    public MenuCatalog getMenuCatalog() {
+        return menu;
+    }
+
+    public KitchenPipeline getKitchen() {
+        return kitchen;
+    }
+
+    /**
+     * Stops the service's background threads: the hold expiry, the projections and the kitchen
+     * stations started on its pipeline. Holds in place stop expiring, and the read models stop
+     * following, so close the journal first and use the service no more.
+     */
+    @Override
+    public void close() {
+        holds.close();
+        projections.forEach(ProjectionRunner::close);
+        kitchen.close();
+    }
+
+    public DineInResponse dineIn(DineInRequest request) {
+        HotelEvents.DineInEvent event = new HotelEvents.DineInEvent();
+        event.begin();
+        long start = System.nanoTime();
+        DineInResponse response = doDineIn(request);
+        metrics.record(HotelOperation.DINE_IN, start, response.status() == ServiceStatus.OK);
+        event.commit(request, response);
+        return response;
+    }
+
+    private DineInResponse doDineIn(DineInRequest request) {
+        if (ValidationUtil.checkAlphabetic(request.customerName()) != ValidationError.NONE
+                || request.order() == null || !menu.isOrderable(request.order())
+                || request.order().getLineCount() > kitchen.getMaxLines()) {
+            return new DineInResponse(ServiceStatus.INVALID_INPUT, null, -1);
+        }
+
+        // An empty order has nothing to cook and is billed at zero, as before.
+        long ticketNumber = -1;
+        if (request.order().getLineCount() > 0) {
+            ticketNumber = kitchen.submit(request.tableNumber(), request.order());
+            if (ticketNumber < 0) {
+                return new DineInResponse(ServiceStatus.KITCHEN_FULL, null, -1);
+            }
+        }
+        DineInBill bill = menu.bill(request.order(), DINE_IN_TIP_BASIS_POINTS, DINE_IN_TAX_BASIS_POINTS);
+        Invoice invoice = new Invoice(rupees(bill.subtotal()), rupees(bill.tip()), rupees(bill.tax()), 0.0, rupees(bill.total()));
+        HotelJournal journal = this.journal;
+        if (journal != null) {
+            journal.awaitDurable(journal.recordDineIn(request));
+        }
+        events.append(new DineInServed(request.customerName(), request.tableNumber(), ticketNumber, bill.total()));
+        return new DineInResponse(ServiceStatus.OK, invoice, ticketNumber);
+    }
+
+    private static double rupees(long paisa) {
+        return paisa / 100.0;
+    }
+
+
+    /**
+     * The domain events of every change made through the service, in order.
+     */
+    public EventLog getEventLog() {
+        return events;
+    }
+
+    /**
+     * Builds the read model from the whole event log and keeps it up to date from then on, on a
+     * thread of its own.
+     */
+    public ProjectionRunner addProjection(String name, Projection projection) {
+        ProjectionRunner runner = new ProjectionRunner(name, events, projection);
+        projections.add(runner);
+        return runner;
+    }
+
+    /**
+     * Who is in house and who arrives and leaves when. It follows the changes a moment behind;
+     * {@link #awaitProjections} waits for it to catch up.
+     */
+    public FrontDeskView getFrontDesk() {
+        return frontDesk;
+    }
+
+    /**
+     * The hotel's activity per day, a moment behind the changes like the front desk view.
+     */
+    public ReportingView getReports() {
+        return reports;
+    }
+
+    /**
+     * Waits up to a second for every read model to see the changes made so far, and returns
+     * whether they all have.
+     */
+    public boolean awaitProjections() {
+        long sequence = events.getLastSequence();
+        try {
+            for (ProjectionRunner runner : projections) {
+                if (!runner.awaitPosition(sequence, PROJECTION_WAIT_MILLIS)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+
+    /**
+     * The operation timers and gauges of this service. {@link HotelMetrics#register} publishes
+     * them over JMX.
+     */
+    public HotelMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Every room, or with a night only the rooms booked or under maintenance that night.
+     */
+    private int countRooms(LocalDate night) {
+        int rooms = 0;
+        for (RoomType type : RoomType.values()) {
+            rooms += roomInventory.getRoomCount(type) - (night == null ? 0 : roomInventory.countFreeRooms(type, night));
+        }
+        return rooms;
+    }
+
+
+    public boolean hasRoom(String roomNumber) {
+        return roomInventory.hasRoom(roomNumber);
+    }
+
+    public List<String> getRoomNumbers() {
+        return roomInventory.getRoomNumbers();
+    }
+
+    public int getRoomCount(RoomType type) {
+        return roomInventory.getRoomCount(type);
+    }
+
+    public int countFreeRooms(RoomType type, LocalDate night) {
+        return roomInventory.countFreeRooms(type, night);
+    }
+
+    public List<String> findFreeRooms(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        return roomInventory.findFreeRooms(type, checkIn, checkOut);
+    }
+
+    public RoomStatus getRoomStatus(String roomNumber, LocalDate night) {
+        if (!roomInventory.hasRoom(roomNumber)) {
+            return null;
+        }
+        return new RoomStatus(roomNumber, roomInventory.getRoomType(roomNumber), roomInventory.isOccupied(roomNumber, night), roomInventory.nextFreeWindow(roomNumber, night, 1));
+    }
+
+    public List<RoomStatus> getRoomBoard(LocalDate night) {
+        List<RoomStatus> board = new ArrayList<>();
+        for (String roomNumber : roomInventory.getRoomNumbers()) {
+            board.add(getRoomStatus(roomNumber, night));
+        }
+        return board;
+    }
+
+    public RoomReservationResponse reserveRoom(RoomReservationRequest request) {
+        long start = System.nanoTime();
+        RoomReservationResponse response = doReserveRoom(request);
+        metrics.record(HotelOperation.RESERVE_ROOM, start, response.status() == ServiceStatus.OK);
+        return response;
+    }
+
+    private RoomReservationResponse doReserveRoom(RoomReservationRequest request) {
+        if (!roomInventory.hasRoom(request.roomNumber())) {
+            return new RoomReservationResponse(ServiceStatus.UNKNOWN_ROOM, null);
+        }
+        if (request.checkIn() == null || request.checkOut() == null || !request.checkOut().isAfter(request.checkIn())) {
+            return new RoomReservationResponse(ServiceStatus.INVALID_INPUT, null);
+        }
+        if (roomInventory.book(request.roomNumber(), request.checkIn(), request.checkOut())) {
+            awaitJournal();
+            events.append(new RoomBlocked(request.roomNumber(), request.checkIn(), request.checkOut()));
+            return new RoomReservationResponse(ServiceStatus.OK, null);
+        }
+        int nights = (int) (request.checkOut().toEpochDay() - request.checkIn().toEpochDay());
+        return new RoomReservationResponse(ServiceStatus.ROOM_UNAVAILABLE, roomInventory.nextFreeWindow(request.roomNumber(), request.checkIn(), nights));
+    }
+
+    /**
+     * Takes the room out of whatever booking covers tonight so it can be serviced.
+     */
+    public ServiceStatus markMaintenance(String roomNumber) {
+        long start = System.nanoTime();
+        ServiceStatus response = doMarkMaintenance(roomNumber);
+        metrics.record(HotelOperation.MARK_MAINTENANCE, start, response == ServiceStatus.OK);
+        return response;
+    }
+
+    private ServiceStatus doMarkMaintenance(String roomNumber) {
+        if (!roomInventory.hasRoom(roomNumber)) {
+            return ServiceStatus.UNKNOWN_ROOM;
+        }
+        LocalDate tonight = LocalDate.now();
+        roomInventory.vacate(roomNumber, tonight);
+        HotelJournal journal = this.journal;
+        if (journal != null) {
+            journal.awaitDurable(journal.recordMaintenance(roomNumber, tonight));
+        }
+        events.append(new RoomTakenForMaintenance(roomNumber, tonight));
+        return ServiceStatus.OK;
+    }
+
+
+    RoomInventory getRoomInventory() {
+        return roomInventory;
+    }
+
+    void setJournal(HotelJournal journal) {
+        this.journal = journal;
+    }
+
+    Collection<User> getUsers() {
+        return users.values();
+    }
+
+    int getGuestCount() {
+        return guests.size();
+    }
+
+    void forEachGuest(Consumer<GuestInformation> action) {
+        guests.forEach(action);
+    }
+
+    void forEachFolio(Consumer<Folio> action) {
+        folios.values().forEach(action);
+    }
+
+    void forEachReservation(Consumer<Reservation> action) {
+        reservations.values().forEach(action);
+    }
+
+    // Used by HotelJournal to rebuild the registries without journaling them again.
+    void restoreUser(User user) {
+        users.put(user.getUsername(), user);
+    }
+
+    void restoreGuest(GuestInformation guest) {
+        // A check-in the snapshot already holds is replayed over itself, keeping its folio.
+        guests.replace(guest);
+        folios.compute(folioKey(guest.getGuestName()), (key, folio) -> folio != null && folio.isStayOf(guest) ? folio : Folio.forGuest(guest));
+    }
+
+    void restoreReservation(Reservation reservation) {
+        reservations.putIfAbsent(reservationKey(reservation.roomNumber(), reservation.checkIn()), reservation);
+    }
+
+    /**
+     * Counts in the KPIs the stay of a replayed check-in, which the restored figures do not count yet.
+     */
+    void restoreStayCount(GuestInformation guest) {
+        countStay(Folio.forGuest(guest));
+    }
+
+    /**
+     * Counts in the KPIs a replayed reservation as sold, or as cancelled, which the restored
+     * figures do not count yet.
+     */
+    void restoreStayCount(Reservation reservation, boolean sold) {
+        countStay(reservation, sold);
+    }
+
+    /**
+     * Replays the moves of one re-optimization together, as {@link #reoptimizeRooms} made them.
+     */
+    void restoreMoves(List<ReservationMoved> moves) {
+        List<ReservationMoved> found = new ArrayList<>(moves.size());
+        for (ReservationMoved move : moves) {
+            Reservation reservation = move.reservation();
+            if (reservations.remove(reservationKey(reservation.roomNumber(), reservation.checkIn()), reservation)) {
+                found.add(move);
+            }
+        }
+        for (ReservationMoved move : found) {
+            reservations.putIfAbsent(reservationKey(move.toRoom(), move.reservation().checkIn()), move.reservation().inRoom(move.toRoom()));
+        }
+    }
+
+    /**
+     * Starts the event log from the reservations and in-house guests a journal has just restored,
+     * and the clocks of the holds it restored.
+     */
+    void publishRestoredState() {
+        List<GuestCheckedIn> inHouse = new ArrayList<>();
+        guests.forEach(guest -> inHouse.add(new GuestCheckedIn(guest.getGuestName(), guest.getRoomNumber(), roomInventory.getRoomType(guest.getRoomNumber()),
+                guest.getCheckIn(), guest.getCheckOut(), Math.round(guest.getRoomCost() * 100))));
+        events.append(new HotelRestored(List.copyOf(reservations.values()), inHouse));
+        holds.armRestored();
+    }
+
+    void forEachHold(Consumer<RoomHold> action) {
+        holds.forEach(action);
+    }
+
+    void restoreHold(RoomHold hold) {
+        holds.restore(hold);
+    }
+
+    /**
+     * Replays the end of a hold: a confirmed one becomes its reservation, and the nights of one
+     * that was released or expired are freed, unless the hold was gone already.
+     */
+    void forgetHold(long holdId, Reservation confirmedAs) {
+        RoomHold hold = holds.take(holdId);
+        if (confirmedAs != null) {
+            restoreReservation(confirmedAs);
+        } else if (hold != null) {
+            Reservation reservation = hold.reservation();
+            roomInventory.release(reservation.roomNumber(), reservation.checkIn(), reservation.checkOut());
+        }
+    }
+
+    void forEachWaitlistEntry(Consumer<WaitlistEntry> action) {
+        waitlist.getEntries().forEach(action);
+    }
+
+    void restoreWaitlistEntry(WaitlistEntry entry) {
+        waitlist.add(entry);
+        nextWaitlistId.accumulateAndGet(entry.id() + 1, Math::max);
+    }
+
+    void forgetWaitlistEntry(long waitlistId) {
+        waitlist.remove(waitlistId);
+    }
+
+    void forgetReservation(Reservation reservation) {
+        reservations.remove(reservationKey(reservation.roomNumber(), reservation.checkIn()), reservation);
+    }
+
+    void forgetGuest(String guestName) {
+        guests.remove(guestName);
+        folios.remove(folioKey(guestName));
+    }
+
+    /**
+     * Posts a journaled charge unless the folio already has it.
+     */
+    void restoreCharge(String guestName, int index, String description, long amount) {
+        Folio folio = folios.get(folioKey(guestName));
+        if (folio != null) {
+            synchronized (folio) {
+                if (folio.getChargeCount() == index) {
+                    folio.post(description, amount);
+                }
+            }
+        }
+    }
+
+    void restoreNightAudit(LocalDate businessDate, int taxBasisPoints) {
+        nightAudit.run(folios.values().toArray(new Folio[0]), businessDate, taxBasisPoints);
+        advanceAuditDate(businessDate);
+    }
+
+    void restorePosting(String guestName, int postedThroughDay, long roomTax) {
+        Folio folio = folios.get(folioKey(guestName));
+        if (folio != null) {
+            folio.restorePosting(postedThroughDay, roomTax);
+        }
+    }
+
+    synchronized void advanceAuditDate(LocalDate businessDate) {
+        if (lastAuditDate == null || businessDate.isAfter(lastAuditDate)) {
+            lastAuditDate = businessDate;
+        }
+    }
+
+    /**
+     * Takes the guest's folio out of the open folios; a guest restored without one is billed
+     * from their stay alone.
+     */
+    private Folio closeFolio(GuestInformation guest) {
+        String key = folioKey(guest.getGuestName());
+        Folio folio = folios.get(key);
+        if (folio != null && folio.isStayOf(guest) && folios.remove(key, folio)) {
+            return folio;
+        }
+        return Folio.forGuest(guest);
+    }
+
+    /**
+     * Offers the nights of [checkInDay, checkOutDay) just freed in the room, from today on, to the
+     * waitlist and returns the reservations made. The free run around them goes to the best
+     * request that fits it, and what is left either side of that stay to the next, and so on.
+     */
+    private List<Reservation> promoteWaitlisted(String roomNumber, int checkInDay, int checkOutDay) {
+        RoomType type = roomInventory.getRoomType(roomNumber);
+        int today = (int) LocalDate.now().toEpochDay();
+        int from = Math.max(checkInDay, today);
+        if (from >= checkOutDay || waitlist.isEmpty(type)) {
+            return List.of();
+        }
+        Deque<int[]> runs = new ArrayDeque<>();
+        if (!roomInventory.visitIfFree(roomNumber, from, checkOutDay, (room, previousCheckOut, nextCheckIn) ->
+                runs.push(new int[]{Math.max(previousCheckOut, today), nextCheckIn}))) {
+            return List.of();
+        }
+        List<Reservation> promoted = new ArrayList<>();
+        HotelJournal journal = this.journal;
+        while (!runs.isEmpty()) {
+            int[] run = runs.pop();
+            WaitlistEntry entry = waitlist.pollBestFit(type, run[0], run[1]);
+            if (entry == null) {
+                continue;
+            }
+            ReservationResponse response = reserve(entry.request().inRoom(roomNumber), true);
+            if (response.status() != ServiceStatus.OK) {
+                // Another terminal booked some of the nights first; the request keeps its place.
+                waitlist.add(entry);
+                continue;
+            }
+            if (journal != null) {
+                journal.awaitDurable(journal.recordWaitlistLeft(entry.id()));
+            }
+            Reservation reservation = findReservation(roomNumber, entry.request().checkIn());
+            if (reservation != null) {
+                promoted.add(reservation);
+            }
+            runs.push(new int[]{run[0], entry.checkInDay()});
+            runs.push(new int[]{entry.checkOutDay(), run[1]});
+        }
+        return promoted;
+    }
+
+    private void countStay(Folio folio) {
+        if (folio.getRoomType() != null) {
+            kpis.addStay(folio.getRoomType(), folio.getCheckInDay(), folio.getCheckOutDay(), folio.getNightlyRate());
+        }
+    }
+
+    private void countStay(Reservation reservation, boolean sold) {
+        int checkInDay = (int) reservation.checkIn().toEpochDay();
+        int checkOutDay = (int) reservation.checkOut().toEpochDay();
+        if (sold) {
+            kpis.addStay(reservation.roomType(), checkInDay, checkOutDay, reservation.nightlyRate());
+        } else {
+            kpis.removeStay(reservation.roomType(), checkInDay, checkOutDay, reservation.nightlyRate());
+        }
+    }
+
+    /**
+     * Makes the operation's change to the KPIs and journals the operation, waiting until its record
+     * is durable. With a journal the two are made together, so a snapshot never holds one without
+     * the other.
+     */
+    private void countAndJournal(Runnable kpiChange, ToLongFunction<HotelJournal> record) {
+        HotelJournal journal = this.journal;
+        if (journal == null) {
+            kpiChange.run();
+        } else {
+            journal.awaitDurable(journal.recordCounted(kpiChange, () -> record.applyAsLong(journal)));
+        }
+    }
+
+    private static String reservationKey(String roomNumber, LocalDate checkIn) {
+        return roomNumber + '@' + checkIn.toEpochDay();
+    }
+
+    private static String folioKey(String guestName) {
+        return guestName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Waits until the room bookings the inventory journaled so far are on disk.
+     */
+    private void awaitJournal() {
+        HotelJournal journal = this.journal;
+        if (journal != null) {
+            journal.awaitDurable();
+        }
+    }
+
+
+    private ServiceStatus checkRoom(RoomType type, String roomNumber) {
+        if (roomNumber == null) {
+            return ServiceStatus.OK;
+        }
+        if (ValidationUtil.checkRoomNumber(roomNumber) != ValidationError.NONE) {
+            return ServiceStatus.INVALID_INPUT;
+        }
+        if (!roomInventory.hasRoom(roomNumber)) {
+            return ServiceStatus.UNKNOWN_ROOM;
+        }
+        return roomInventory.getRoomType(roomNumber) == type ? ServiceStatus.OK : ServiceStatus.INVALID_INPUT;
+    }
+
+    /**
+     * Books the requested room, or the room of the type the stay fits best when no room number is
+     * given, and returns the booked room number or null if it was not available.
+     */
+    private String bookRoom(RoomType type, String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        if (roomNumber == null) {
+            return allocator.bookBestFit(type, checkIn, checkOut);
+        }
+        return roomInventory.book(roomNumber, checkIn, checkOut) ? roomNumber : null;
+    }
+
+    /**
+     * Date checks for yyyy-MM-dd strings that neither parse into LocalDate nor throw on bad input.
+     */
+    static boolean isValidDate(String date) {
+        return ValidationUtil.checkDate(date) == ValidationError.NONE;
+    }
+
+    static boolean isAfter(String dateToCheck, String referenceDate) {
+        // yyyy-MM-dd strings sort in calendar order.
+        return isValidDate(dateToCheck) && isValidDate(referenceDate) && dateToCheck.compareTo(referenceDate) > 0;
+    }
+
+    private static boolean isValidReservation(ReservationRequest request) {
+        return ValidationUtil.checkGuestName(request.guestName()) == ValidationError.NONE
+                && ValidationUtil.checkPhoneNumber(request.phoneNumber()) == ValidationError.NONE
+                && ValidationUtil.checkGmail(request.email()) == ValidationError.NONE
+                && isValidStay(request.roomType(), request.checkIn(), request.checkOut())
+                && request.numberOfGuests() > 0;
+    }
+
+    private static boolean isValidStay(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        return type != null && checkIn != null && checkOut != null && checkOut.isAfter(checkIn);
+    }
+}
@@ -21,81 +21,21 @@
  */
 
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;// java package
-
-
-class User {
-    protected String username;
-    protected String password;
-
-    public User(String username, String password) {
-        this.username = username;
-        this.password = password;
-    }
-
-    public String getUsername() {
-        return username;
-    }
-
-    public boolean authenticate(String enteredPassword) {
-        return password.equals(enteredPassword);
-    }
-}
-
-
-class Customer extends User {
-    private final String customerName;
-    private final String email;
-
-    public Customer(String username, String password, String customerName, String email) {
-        super(username, password);
-        this.customerName = customerName;
-        this.email = email;
-    }
-
-    public String getCustomerName() {
-        return customerName;
-    }
-
-    public String getEmail() {
-        return email;
-    }
-}
-
-
-class Admin extends User {
-    private final String adminName;
-
-    public Admin(String username, String password, String adminName) {
-        super(username, password);
-        this.adminName = adminName;
-    }
-
-    public String getAdminName() {
-        return adminName;
-    }
-}
-
-
-class ValidationUtil {
-    public static boolean isValidPassword(String password) {
-
-        return password.matches("^(?=.*\\d).{6,}$");
-    }
-
-    public static boolean isValidEmail(String email) {
-        return email.matches("^[a-zA-Z0-9_+&-]+(?:\\.[a-zA-Z0-9_+&-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$");
-    }
-}
+import javax.management.JMException;
 
 
 class HotelManagementSystem {
-    private static final Map<String, GuestInformation> guestsMap = new HashMap<>();
+    private static final String DATA_DIRECTORY = "hotel-data";
+    private static final HotelService hotelService = new HotelService();
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");;
@@ -107,68 +47,6 @@ class HotelManagementSystem {
     }
 
 
-    private static class GuestInformation {
-        private final String phoneNumber;
-        private final String email;
-        private final String address;
-        private final String identification;
-        private final String roomType;
-        private final String roomNumber;
-        private final double roomCost;
-        private final String checkInDate;
-        private final String checkOutDate;
-
-        public GuestInformation(String phoneNumber, String email, String address, String identification, String roomType, String roomNumber, double roomCost, String checkInDate, String checkOutDate) {
-            this.phoneNumber = phoneNumber;
-            this.email = email;
-            this.address = address;
-            this.identification = identification;
-            this.roomType = roomType;
-            this.roomNumber = roomNumber;
-            this.roomCost = roomCost;
-            this.checkInDate = checkInDate;
-            this.checkOutDate = checkOutDate;
-        }
-
-        public String getPhoneNumber() {
-            return phoneNumber;
-        }
-
-        public String getEmail() {
-            return email;
-        }
-
-        public String getAddress() {
-            return address;
-        }
-
-        public String getIdentification() {
-            return identification;
-        }
-
-        public String getRoomType() {
-            return roomType;
-        }
-
-        public String getRoomNumber() {
-            return roomNumber;
-        }
-
-        public double getRoomCost() {
-            return roomCost;
-        }
-
-        public String getCheckInDate() {
-            return checkInDate;
-        }
-
-        public String getCheckOutDate() {
-            return checkOutDate;
-        }
-
-    }
-
-
     private static void performCheckIn() throws InterruptedException {
         String guestName;
         String phoneNumber;
@@ -191,10 +69,12 @@ class HotelManagementSystem {
         while (true) {
             guestName = scanner.nextLine();
 
-            if (guestName.matches("[a-zA-Z ]+")) {
-                break;
-            } else {
+            if (ValidationUtil.checkGuestName(guestName) != ValidationError.NONE) {
                 System.out.println("Invalid input! Please enter alphabets only.");
+            } else if (hotelService.findGuest(guestName) != null) {
+                System.out.print("A guest of that name is already checked in! Please enter another name: ");
+            } else {
+                break;
             }
         }
 
@@ -202,7 +82,7 @@ class HotelManagementSystem {
         while (true) {
             System.out.print("Please enter the Phone number: ");
             phoneNumber = scanner.nextLine();
-            if (phoneNumber.matches("[0-9]+")) {
+            if (ValidationUtil.checkPhoneNumber(phoneNumber) == ValidationError.NONE) {
                 break;
             } else {
                 System.out.println("Invalid input! Please enter integers only.");
@@ -213,7 +93,7 @@ class HotelManagementSystem {
         System.out.print("Enter the e-mail: ");
         while (true) {
             email = scanner.nextLine();
-            if (email.matches("^[a-zA-Z0-9_+&-]+@(gmail\\.com)$")) {
+            if (ValidationUtil.checkGmail(email) == ValidationError.NONE) {
                 break;
             } else {
                 System.out.print("Invalid email format! Please enter a valid Gmail address: ");
@@ -247,28 +127,6 @@ class HotelManagementSystem {
         }
 
 
-        System.out.println("Available Room Numbers:");
-        if (roomType.equalsIgnoreCase("Single")) {
-            System.out.println("101 102");
-        } else if (roomType.equalsIgnoreCase("Double")) {
-            System.out.println("103");
-        } else {
-            System.out.println("Invalid room type");
-        }
-
-
-        System.out.print("Enter the Room Number (101, 102, 103): ");
-        while (true) {
-            roomNumber = scanner.nextLine();
-
-            if (roomNumber.matches("10[123]|20[123]")) {
-                break;
-            } else {
-                System.out.println("Invalid input! Please enter a valid room number.");
-            }
-        }
-
-
         while (true) {
             System.out.print("Please enter the Check-in Date (yyyy-MM-dd): ");
             checkInDate = scanner.nextLine();
@@ -291,8 +149,37 @@ class HotelManagementSystem {
         }
 
 
-        double roomCost = roomType.equalsIgnoreCase("Single") ? 2500.0 : 3500.0;
-        guestsMap.put(guestName, new GuestInformation(phoneNumber, email, address, identification, roomType, roomNumber, roomCost, checkInDate, checkoutDate));
+        LocalDate checkIn = LocalDate.parse(checkInDate);
+        LocalDate checkOut = LocalDate.parse(checkoutDate);
+        List<String> freeRooms = hotelService.findFreeRooms(RoomType.parse(roomType), checkIn, checkOut);
+        if (freeRooms.isEmpty()) {
+            System.out.println("Sorry, no " + roomType + " room is available from " + checkInDate + " to " + checkoutDate + ".");
+            return;
+        }
+
+
+        System.out.println("Available Room Numbers:");
+        System.out.println(String.join(" ", freeRooms));
+
+
+        System.out.print("Enter the Room Number (or press Enter to assign one): ");
+        while (true) {
+            roomNumber = scanner.nextLine().trim();
+
+            if (roomNumber.isEmpty() || freeRooms.contains(roomNumber)) {
+                CheckInResponse response = hotelService.checkIn(new CheckInRequest(guestName, phoneNumber, email, address, identification, RoomType.parse(roomType),
+                        roomNumber.isEmpty() ? null : roomNumber, checkIn, checkOut));
+                if (response.status() == ServiceStatus.OK) {
+                    break;
+                }
+                if (response.status() == ServiceStatus.GUEST_EXISTS) {
+                    System.out.println("A guest named " + guestName + " has just been checked in. Check-in cancelled.");
+                    return;
+                }
+            }
+            System.out.println("Invalid input! Please enter one of the available room numbers, or press Enter to assign one.");
+        }
+
 
         System.out.println();
         System.out.println("The Information of the guest is updating. Please wait for a while!");
@@ -303,8 +190,8 @@ class HotelManagementSystem {
     }
 
     private static void displayGuestInfo(String guestName) throws InterruptedException {
-        if (guestsMap.containsKey(guestName)) {
-            GuestInformation guestInfo = guestsMap.get(guestName);
+        GuestInformation guestInfo = hotelService.findGuest(guestName);
+        if (guestInfo != null) {
             LocalDateTime checkInTime = LocalDateTime.now();
             DateTimeFormatter checkInTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
             String formattedCheckInTime = checkInTime.format(checkInTimeFormatter);
@@ -344,7 +231,7 @@ class HotelManagementSystem {
         while (true) {
             System.out.print("Please enter the name of the Guest: ");
             guestName = scanner.nextLine();
-            if (guestName.matches("[a-zA-Z]+")) {
+            if (ValidationUtil.checkGuestName(guestName) == ValidationError.NONE) {
                 break;
             } else {
                 System.out.println("Invalid input! Please enter alphabets only.");
@@ -352,54 +239,41 @@ class HotelManagementSystem {
         }
 
 
-        String lowercaseGuestName = guestName.toLowerCase();
-        if (guestsMap.containsKey(lowercaseGuestName)) {
-            GuestInformation guestInfo = guestsMap.get(lowercaseGuestName);
-            displayGuestInfo(lowercaseGuestName);
-
-            double roomCost = 2500.0;
-            double mealCost = 1500.0;
+        // Guest names are matched ignoring case, so the name can be typed as it was at check-in or not.
+        if (hotelService.findGuest(guestName) != null) {
+            displayGuestInfo(guestName);
 
 
             System.out.print("Do you want to include meals in the invoice? (yes/no): ");
             String includeMeals = scanner.nextLine();
 
-
-            double totalInvoice = roomCost;
-
-            if (includeMeals.equalsIgnoreCase("yes")) {
-                totalInvoice += mealCost;
+            CheckOutResponse response = hotelService.checkOut(new CheckOutRequest(guestName, includeMeals.equalsIgnoreCase("yes")));
+            if (response.status() != ServiceStatus.OK) {
+                System.out.println("Guest not found. Please check the name and try again.");
+                return;
             }
 
 
             System.out.println("The Check-out process is completed.");
+            printPromotions(response.promoted());
             System.out.println("Showing the Total Invoice");
             Thread.sleep(3000);
-            System.out.println("Total Invoice: $" + totalInvoice);
-
-
-            double additionalCharges = 100.0;
-            double discountRate = 0.10;
-            int numberOfGuest = 2;
-
-
-            double totalInvoiceBeforeDiscount = roomCost * numberOfGuest + additionalCharges;
-            double discount = totalInvoiceBeforeDiscount * discountRate;
-            totalInvoice = totalInvoiceBeforeDiscount - discount;
+            System.out.println("Total Invoice: $" + response.totalWithMeals());
 
 
+            Invoice invoice = response.invoice();
             LocalDateTime checkoutTime = LocalDateTime.now();
             DateTimeFormatter checkoutTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
             String formattedCheckoutTime = checkoutTime.format(checkoutTimeFormatter);
 
 
             System.out.println("\nTotal Invoice:");
-            System.out.printf("%-20s $%.2f%n", "Room Charges:", roomCost * numberOfGuest);
-            System.out.printf("%-20s $%.2f%n", "Additional Charges:", additionalCharges);
-            System.out.printf("%-20s $%.2f%n", "Discount:", discount);
+            System.out.printf("%-20s $%.2f%n", "Room Charges:", invoice.charges());
+            System.out.printf("%-20s $%.2f%n", "Additional Charges:", invoice.additionalCharges());
+            System.out.printf("%-20s $%.2f%n", "Discount:", invoice.discount());
             System.out.println("Checkout Time: " + formattedCheckoutTime);
             System.out.println("----------------------------");
-            System.out.printf("%-20s $%.2f%n", "Total Invoice:", totalInvoice);
+            System.out.printf("%-20s $%.2f%n", "Total Invoice:", invoice.total());
         } else {
             System.out.println("Guest not found. Please check the name and try again.");
         }
@@ -423,14 +297,14 @@ class HotelManagementSystem {
         String checkoutDate;
         String roomType;
         int numberOfGuest;
-        int roomNumber;
+        String roomNumber;
 
         Scanner scanner = new Scanner(System.in);
 
         while (true) {
             System.out.print("Please enter the name of the Guest: ");
             guestName = scanner.nextLine();
-            if (guestName.matches("[a-zA-Z\\s]+")) {
+            if (ValidationUtil.checkGuestName(guestName) == ValidationError.NONE) {
                 break;
             } else {
                 System.out.println("Invalid input! Please enter alphabets and spaces only.");
@@ -441,7 +315,7 @@ class HotelManagementSystem {
         while (true) {
             System.out.print("Please enter the Phone number: ");
             phoneNumber = scanner.nextLine();
-            if (phoneNumber.matches("[0-9]+")) {
+            if (ValidationUtil.checkPhoneNumber(phoneNumber) == ValidationError.NONE) {
                 break;
             } else {
                 System.out.println("Invalid input! Please enter integers only.");
@@ -452,7 +326,7 @@ class HotelManagementSystem {
         System.out.print("Enter the email: ");
         while (true) {
             email = scanner.nextLine();
-            if (email.matches("^[a-zA-Z0-9_+&-]+@(gmail\\.com)$")) {
+            if (ValidationUtil.checkGmail(email) == ValidationError.NONE) {
                 break;
             } else {
                 System.out.print("Invalid email format! Please enter a valid Gmail address: ");
@@ -499,20 +373,25 @@ class HotelManagementSystem {
         }
 
 
-        System.out.print("Please select the Room Number (101, 102, 103): ");
-        while (true) {
-            if (scanner.hasNextInt()) {
-                roomNumber = scanner.nextInt();
+        LocalDate checkIn = LocalDate.parse(checkInDate);
+        LocalDate checkOut = LocalDate.parse(checkoutDate);
+        List<String> freeRooms = hotelService.findFreeRooms(RoomType.parse(roomType), checkIn, checkOut);
+        if (freeRooms.isEmpty()) {
+            System.out.println("Sorry, no " + roomType + " room is available from " + checkInDate + " to " + checkoutDate + ".");
+            offerWaitlist(scanner, new ReservationRequest(guestName, phoneNumber, email, address, checkIn, checkOut, RoomType.parse(roomType), null, 1));
+            return;
+        }
 
-                if (roomNumber >= 101 && roomNumber <= 103) {
-                    break;
-                } else {
-                    System.out.print("Invalid room number! Please enter a valid room number (101, 102, or 103): ");
-                }
-            } else {
-                System.out.print("Invalid input! Please enter a valid integer room number (101, 102, or 103): ");
-                scanner.next();
+
+        StayQuote quote = hotelService.quote(RoomType.parse(roomType), checkIn, checkOut);
+        System.out.printf("Room charges for %d night(s): Rs%.2f (Rs%.2f per night)%n", quote.nights(), quote.roomCharges() / 100.0, quote.averageNightlyRate() / 100.0);
+        System.out.print("Please select the Room Number (" + String.join(", ", freeRooms) + "), or press Enter to assign one: ");
+        while (true) {
+            roomNumber = scanner.nextLine().trim();
+            if (roomNumber.isEmpty() || freeRooms.contains(roomNumber)) {
+                break;
             }
+            System.out.print("Invalid room number! Please enter one of the available rooms (" + String.join(", ", freeRooms) + "), or press Enter to assign one: ");
         }
 
 
@@ -534,14 +413,13 @@ class HotelManagementSystem {
         }
 
 
-        double roomCost = switch (roomType.toLowerCase()) {
-            case "single" -> 2500.0;
-            case "double" -> 3500.0;
-            default -> 0.0;
-        };
-
-
-        double totalInvoice = roomCost * numberOfGuest;
+        ReservationResponse response = hotelService.reserve(new ReservationRequest(guestName, phoneNumber, email, address, checkIn, checkOut, RoomType.parse(roomType),
+                roomNumber.isEmpty() ? null : roomNumber, numberOfGuest));
+        if (response.status() != ServiceStatus.OK) {
+            System.out.println("Sorry, " + (roomNumber.isEmpty() ? "no " + roomType + " room" : "room " + roomNumber) + " is available from " + checkInDate + " to " + checkoutDate + " any more.");
+            return;
+        }
+        roomNumber = response.roomNumber();
 
 
         SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
@@ -568,23 +446,17 @@ class HotelManagementSystem {
         System.out.println("Reservation Time: " + formatter.format(currentDate));
 
 
-        double additionalCharges = 100.0;
-        double discountRate = 0.10;
-
-
-        double totalInvoiceBeforeDiscount = roomCost * numberOfGuest + additionalCharges;
-        double discount = totalInvoiceBeforeDiscount * discountRate;
-        totalInvoice = totalInvoiceBeforeDiscount - discount;
+        Invoice invoice = response.invoice();
 
         System.out.println();
         System.out.println("===== Generating Invoice =====");
         Thread.sleep(3000);
         System.out.println("Total Invoice:");
-        System.out.printf("%-20s $%.2f%n", "Room Charges:", roomCost * numberOfGuest);
-        System.out.printf("%-20s $%.2f%n", "Additional Charges:", additionalCharges);
-        System.out.printf("%-20s $%.2f%n", "Discount:", discount);
+        System.out.printf("%-20s $%.2f%n", "Room Charges:", invoice.charges());
+        System.out.printf("%-20s $%.2f%n", "Additional Charges:", invoice.additionalCharges());
+        System.out.printf("%-20s $%.2f%n", "Discount:", invoice.discount());
         System.out.println("----------------------------");
-        System.out.printf("%-20s $%.2f%n", "Total Invoice:", totalInvoice);
+        System.out.printf("%-20s $%.2f%n", "Total Invoice:", invoice.total());
     }
 
 
@@ -612,14 +484,51 @@ class HotelManagementSystem {
     }
 
 
-    private static final Map<String, Boolean> roomAvailability = new HashMap<>();
+    private static void offerWaitlist(Scanner scanner, ReservationRequest request) {
+        System.out.print("Would you like to join the waitlist for these dates? (yes/no): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("yes")) {
+            return;
+        }
+        int numberOfGuests;
+        while (true) {
+            System.out.print("Please enter the total number of guests: ");
+            String input = scanner.nextLine().trim();
+            if (input.matches("[1-9][0-9]{0,2}")) {
+                numberOfGuests = Integer.parseInt(input);
+                break;
+            }
+            System.out.println("Invalid input! Please enter a valid number greater than 0.");
+        }
+        LoyaltyTier tier;
+        while (true) {
+            System.out.print("Please enter the loyalty tier (Standard, Silver, Gold, Platinum): ");
+            String input = scanner.nextLine().trim().toUpperCase(Locale.ROOT);
+            try {
+                tier = LoyaltyTier.valueOf(input);
+                break;
+            } catch (IllegalArgumentException e) {
+                System.out.println("Invalid tier! Please enter Standard, Silver, Gold or Platinum.");
+            }
+        }
 
-    static {
-        roomAvailability.put("101", true);
-        roomAvailability.put("102", true);
-        roomAvailability.put("103", true);
+        WaitlistResponse response = hotelService.joinWaitlist(new WaitlistRequest(new ReservationRequest(request.guestName(), request.phoneNumber(), request.email(),
+                request.address(), request.checkIn(), request.checkOut(), request.roomType(), null, numberOfGuests), tier));
+        if (response.status() != ServiceStatus.OK) {
+            System.out.println("Sorry, the request could not be added to the waitlist.");
+        } else if (response.reservation() != null) {
+            System.out.println("A room has just become free: room " + response.reservation().roomNumber() + " is reserved from "
+                    + request.checkIn() + " to " + request.checkOut() + ".");
+        } else {
+            System.out.println("Added to the waitlist as request #" + response.waitlistId() + ". The guest will get the first room that frees up for these dates.");
+        }
     }
 
+    private static void printPromotions(List<Reservation> promoted) {
+        for (Reservation reservation : promoted) {
+            System.out.println("Waitlisted guest " + reservation.guestName() + " now has room " + reservation.roomNumber() + " from "
+                    + reservation.checkIn() + " to " + reservation.checkOut() + ".");
+        }
+    }
 
     private static void performRoomManagement() throws InterruptedException {
         System.out.println();
@@ -643,14 +552,14 @@ class HotelManagementSystem {
         do {
             displayMenu();
             while (true) {
-                System.out.print("Enter your choice (1-5): ");
+                System.out.print("Enter your choice (1-10): ");
                 if (scanner.hasNextInt()) {
                     choice = scanner.nextInt();
-                    if (choice >= 1 && choice <= 6) {
+                    if (choice >= 1 && choice <= 10) {
                         scanner.nextLine();
                         break;
                     } else {
-                        System.out.println("Invalid input! Please enter a valid integer between 1 and 6.");
+                        System.out.println("Invalid input! Please enter a valid integer between 1 and 10.");
                         scanner.nextLine();
                     }
                 } else {
@@ -665,11 +574,16 @@ class HotelManagementSystem {
                 case 2 -> reserveRoom();
                 case 3 -> performMaintenance();
                 case 4 -> viewRoomDetails();
-                case 5 -> {
+                case 5 -> findGuests();
+                case 6 -> runNightAudit();
+                case 7 -> cancelReservation();
+                case 8 -> viewOccupancyDashboard();
+                case 9 -> reoptimizeRooms();
+                case 10 -> {
                     System.out.println("Returning to the main menu.");
                     break;
                 }
-                default -> System.out.println("Invalid choice. Please select from 1 - 5");
+                default -> System.out.println("Invalid choice. Please select from 1 - 10");
             }
 
             do {
@@ -681,24 +595,138 @@ class HotelManagementSystem {
         } while (continueChoice.equalsIgnoreCase("yes"));
     }
 
-    private static void initializeRoomAvailability() {
-        roomAvailability.put("101", true);
-        roomAvailability.put("102", true);
-        roomAvailability.put("103", true);
-    }
-
     private static void displayMenu() {
         System.out.println("1. View Room Availability");
         System.out.println("2. Reserve a Room");
         System.out.println("3. Perform Maintenance");
         System.out.println("4. View Room Details");
-        System.out.println("5. Go back to the main menu");
+        System.out.println("5. Find Guests");
+        System.out.println("6. Run Night Audit");
+        System.out.println("7. Cancel a Reservation");
+        System.out.println("8. View Occupancy Dashboard");
+        System.out.println("9. Re-optimize Room Assignments");
+        System.out.println("10. Go back to the main menu");
+    }
+
+    private static void reoptimizeRooms() {
+        System.out.println();
+        System.out.println("===== Re-optimize Room Assignments =====");
+        for (RoomType type : RoomType.values()) {
+            ReoptimizationReport report = hotelService.reoptimizeRooms(type);
+            System.out.println(type.getDisplayName() + " rooms: " + report.moved() + " of " + report.movableBookings() + " movable reservations moved, orphan nights "
+                    + report.orphanNightsBefore() + " -> " + report.orphanNightsAfter() + ".");
+        }
+    }
+
+    private static void cancelReservation() {
+        Scanner scanner = new Scanner(System.in);
+        System.out.println();
+        System.out.println("===== Cancel Reservation =====");
+
+        String guestName = getInput("Enter the guest name on the reservation: ").trim();
+        System.out.print("Enter the reserved room number: ");
+        String roomNumber = getValidRoomNumber(scanner);
+        String checkInDate = getInput("Enter the Check-in Date (yyyy-MM-dd): ").trim();
+        if (!isValidDate(checkInDate)) {
+            System.out.println("Invalid date! Please use the format yyyy-MM-dd.");
+            return;
+        }
+
+        CancellationResponse response = hotelService.cancelReservation(new CancellationRequest(guestName, roomNumber, LocalDate.parse(checkInDate)));
+        if (response.status() == ServiceStatus.OK) {
+            Reservation reservation = response.reservation();
+            System.out.println("Reservation of room " + roomNumber + " from " + reservation.checkIn() + " to " + reservation.checkOut() + " cancelled.");
+            printPromotions(response.promoted());
+        } else {
+            System.out.println("No reservation of room " + roomNumber + " from " + checkInDate + " for " + guestName + " was found.");
+        }
+    }
+
+    private static void viewOccupancyDashboard() {
+        LocalDate today = LocalDate.now();
+        System.out.println();
+        System.out.println("===== Occupancy Dashboard (next 7 nights) =====");
+        System.out.printf("%-12s %-8s %10s %12s %12s%n", "Night", "Rooms", "Occupancy", "ADR", "RevPAR");
+        for (DailyKpis night : hotelService.getDailyKpis(today, today.plusDays(7), null)) {
+            System.out.printf("%-12s %3d/%-4d %9.1f%% %12s %12s%n", night.night(), night.roomsSold(), night.rooms(),
+                    night.occupancy() * 100, String.format("Rs%.2f", night.averageDailyRate() / 100.0), String.format("Rs%.2f", night.revPar() / 100.0));
+        }
+        for (RoomType type : RoomType.values()) {
+            DailyKpis tonight = hotelService.getDailyKpis(today, type);
+            System.out.printf("%s rooms tonight: %.1f%% occupied, ADR Rs%.2f, RevPAR Rs%.2f%n", type.getDisplayName(),
+                    tonight.occupancy() * 100, tonight.averageDailyRate() / 100.0, tonight.revPar() / 100.0);
+        }
+        hotelService.awaitProjections();
+        DailyActivity activity = hotelService.getReports().getDay(today);
+        System.out.printf("Today: %d reservation(s), %d cancellation(s), %d check-in(s), %d check-out(s), %d dine-in order(s), revenue Rs%.2f%n",
+                activity.reservations(), activity.cancellations(), activity.checkIns(), activity.checkOuts(), activity.dineInOrders(), activity.totalRevenue() / 100.0);
+        System.out.printf("Arrivals today: %d, departures today: %d%n", hotelService.getFrontDesk().getArrivals(today, today.plusDays(1)).size(),
+                hotelService.getFrontDesk().getDepartures(today, today.plusDays(1)).size());
+        QuoteCacheStats quotes = hotelService.getQuoteCacheStats();
+        System.out.printf("Availability quotes: %d cached, %.1f%% answered from the cache%n", quotes.size(), quotes.hitRate() * 100);
+        System.out.println();
+        System.out.print(hotelService.getMetrics().snapshot());
+    }
+
+    private static void runNightAudit() {
+        LocalDate businessDate = hotelService.getBusinessDate();
+        System.out.println();
+        System.out.println("===== Night Audit for " + businessDate + " =====");
+        NightAuditReport report = hotelService.runNightAudit(businessDate);
+        System.out.println("In-house guests: " + report.inHouse());
+        System.out.println("Folios posted: " + report.foliosPosted() + " (" + report.nightsPosted() + " nights)");
+        System.out.printf("%-20s Rs%.2f%n", "Room Revenue:", report.roomRevenue() / 100.0);
+        System.out.printf("%-20s Rs%.2f%n", "Room Tax:", report.taxRevenue() / 100.0);
+        System.out.println("----------------------------");
+        System.out.printf("%-20s Rs%.2f%n", "Total Revenue:", report.totalRevenue() / 100.0);
+        System.out.println("Business date is now " + hotelService.getBusinessDate() + ".");
+    }
+
+    private static void findGuests() {
+        Scanner scanner = new Scanner(System.in);
+        System.out.println("Find guests by: 1. Room number  2. Phone number  3. E-mail  4. Identification  5. Departure date");
+        System.out.print("Enter your choice (1-5): ");
+        String choice = scanner.nextLine().trim();
+
+        List<GuestInformation> found;
+        switch (choice) {
+            case "1" -> found = hotelService.findGuestsInRoom(getInput("Enter the room number: ").trim());
+            case "2" -> found = hotelService.findGuestsByPhoneNumber(getInput("Enter the phone number: ").trim());
+            case "3" -> found = hotelService.findGuestsByEmail(getInput("Enter the e-mail: ").trim());
+            case "4" -> found = hotelService.findGuestsByIdentification(getInput("Enter the identification: ").trim());
+            case "5" -> {
+                String date = getInput("Enter the departure date (yyyy-MM-dd): ").trim();
+                if (!HotelService.isValidDate(date)) {
+                    System.out.println("Invalid date! Please use the format yyyy-MM-dd.");
+                    return;
+                }
+                found = hotelService.findDepartures(LocalDate.parse(date));
+            }
+            default -> {
+                System.out.println("Invalid choice. Please select from 1 - 5");
+                return;
+            }
+        }
+
+        if (found.isEmpty()) {
+            System.out.println("No guests found.");
+            return;
+        }
+        for (GuestInformation guest : found) {
+            System.out.println(guest.getGuestName() + " - Room " + guest.getRoomNumber() + " (" + guest.getRoomType() + "), "
+                    + guest.getCheckInDate() + " to " + guest.getCheckOutDate() + ", Phone: " + guest.getPhoneNumber());
+        }
     }
 
     private static void viewRoomAvailability() {
+        LocalDate tonight = LocalDate.now();
         System.out.println("\n===== Room Availability =====");
-        for (Map.Entry<String, Boolean> entry : roomAvailability.entrySet()) {
-            System.out.println("Room " + entry.getKey() + ": " + (entry.getValue() ? "Available" : "Occupied"));
+        for (RoomStatus room : hotelService.getRoomBoard(tonight)) {
+            System.out.println("Room " + room.roomNumber() + ": " + (room.occupied() ? "Occupied" : "Available"));
+        }
+        System.out.println();
+        for (RoomType type : RoomType.values()) {
+            System.out.println(type.getDisplayName() + " rooms free tonight: " + hotelService.countFreeRooms(type, tonight) + "/" + hotelService.getRoomCount(type));
         }
     }
 
@@ -707,14 +735,37 @@ class HotelManagementSystem {
         System.out.println();
         System.out.println("===== Reserve Room Process =====");
 
-        System.out.print("Enter the room number to reserve (101, 102, or 103): ");
+        System.out.print("Enter the room number to reserve (" + String.join(", ", hotelService.getRoomNumbers()) + "): ");
         String roomNumber = getValidRoomNumber(scanner);
 
-        if (roomAvailability.containsKey(roomNumber) && roomAvailability.get(roomNumber)) {
-            roomAvailability.put(roomNumber, false);
-            System.out.println("Room " + roomNumber + " reserved successfully.");
+        String checkInDate;
+        while (true) {
+            System.out.print("Please enter the Check-in Date (yyyy-MM-dd): ");
+            checkInDate = scanner.nextLine();
+            if (isValidDate(checkInDate)) {
+                break;
+            } else {
+                System.out.println("Invalid input! Please enter a valid date in yyyy-MM-dd format.");
+            }
+        }
+
+        String checkoutDate;
+        while (true) {
+            System.out.print("Please enter the Check-out Date (yyyy-MM-dd): ");
+            checkoutDate = scanner.nextLine();
+            if (isValidDate(checkoutDate) && isAfter(checkoutDate, checkInDate)) {
+                break;
+            } else {
+                System.out.println("Invalid input! Please enter a valid date in yyyy-MM-dd format and ensure it's after the Check-in Date.");
+            }
+        }
+
+        RoomReservationResponse response = hotelService.reserveRoom(new RoomReservationRequest(roomNumber, LocalDate.parse(checkInDate), LocalDate.parse(checkoutDate)));
+        if (response.status() == ServiceStatus.OK) {
+            System.out.println("Room " + roomNumber + " reserved successfully from " + checkInDate + " to " + checkoutDate + ".");
         } else {
-            System.out.println("Room " + roomNumber + " is not available for reservation.");
+            System.out.println("Room " + roomNumber + " is not available for reservation on those dates.");
+            System.out.println("The room is next free for that many nights from " + response.nextFreeCheckIn() + ".");
         }
     }
 
@@ -727,8 +778,7 @@ class HotelManagementSystem {
         System.out.print("Enter the room number to mark for maintenance: ");
         String roomNumber = getValidRoomNumber(scanner);
 
-        if (roomAvailability.containsKey(roomNumber)) {
-            roomAvailability.put(roomNumber, true);
+        if (hotelService.markMaintenance(roomNumber) == ServiceStatus.OK) {
             System.out.println("Room " + roomNumber + " marked for maintenance successfully.");
         } else {
             System.out.println("Room " + roomNumber + " does not exist.");
@@ -743,9 +793,12 @@ class HotelManagementSystem {
         System.out.print("Enter the room number to view details: ");
         String roomNumber = getValidRoomNumber(scanner);
 
-        if (roomAvailability.containsKey(roomNumber)) {
+        RoomStatus room = hotelService.getRoomStatus(roomNumber, LocalDate.now());
+        if (room != null) {
             System.out.println("Room " + roomNumber + " Details:");
-            System.out.println("Status: " + (roomAvailability.get(roomNumber) ? "Available" : "Occupied"));
+            System.out.println("Room Type: " + room.roomType().getDisplayName());
+            System.out.println("Status: " + (room.occupied() ? "Occupied" : "Available"));
+            System.out.println("Next Free Night: " + room.nextFreeNight());
         } else {
             System.out.println("Room " + roomNumber + " does not exist.");
         }
@@ -755,7 +808,7 @@ class HotelManagementSystem {
         String roomNumber;
         while (true) {
             roomNumber = scanner.nextLine();
-            if (roomAvailability.containsKey(roomNumber)) {
+            if (hotelService.hasRoom(roomNumber)) {
                 break;
             } else {
                 System.out.print("Invalid room number! Please enter a valid room number: ");
@@ -774,7 +827,8 @@ class HotelManagementSystem {
 
         String customerName;
         String tableNumber;
-        List<String> foodOrder = new ArrayList<>();
+        FoodOrder foodOrder = new FoodOrder();
+        MenuCatalog menu = hotelService.getMenuCatalog();
 
 
         Scanner scanner = new Scanner(System.in);
@@ -784,7 +838,7 @@ class HotelManagementSystem {
             System.out.print("Please enter the name of the customer: ");
             customerName = scanner.nextLine();
 
-            if (customerName.matches("[a-zA-Z]+")) {
+            if (ValidationUtil.checkAlphabetic(customerName) == ValidationError.NONE) {
                 break;
             } else {
                 System.out.println("Invalid input! Please enter alphabets only.");
@@ -800,7 +854,7 @@ class HotelManagementSystem {
 
 
         do {
-            System.out.print("Enter the number of the item you want to order (enter 1 to 5): ");
+            System.out.print("Enter the number of the item you want to order (enter 1 to " + menu.size() + "): ");
             int choice;
             while (true) {
                 if (scanner.hasNextInt()) {
@@ -816,9 +870,9 @@ class HotelManagementSystem {
 
             if (choice == 0) {
                 break;
-            } else if (choice >= 1 && choice <= menu.size()) {
-                foodOrder.add(menu.get(choice - 1));
-                System.out.println(menu.get(choice - 1) + " added to the order.");
+            } else if (menu.isAvailable(choice)) {
+                foodOrder.add(choice, 1);
+                System.out.println(menu.getItem(choice).name() + " added to the order.");
             } else {
                 System.out.println("Invalid choice. Please select a valid item from the menu.");
             }
@@ -839,42 +893,79 @@ class HotelManagementSystem {
         Thread.sleep(3000);
         System.out.println("Total Invoice:");
 
-        double totalAmount = calculateTotalAmount(foodOrder);
-        double tipAmount = 0.005 * totalAmount;
-
-        System.out.printf("%-20s Rs%.2f%n", "Food Items:", totalAmount);
-        System.out.printf("%-20s Rs%.2f%n", "Tip (0.5%):", tipAmount);
-
-
-        double additionalCharges = 0.0;
-        double discount = 0.0;
+        DineInResponse response = hotelService.dineIn(new DineInRequest(customerName, tableNumber, foodOrder));
+        if (response.status() == ServiceStatus.KITCHEN_FULL) {
+            System.out.println("Sorry, the kitchen cannot take more orders right now. Please try again shortly.");
+            return;
+        }
+        Invoice invoice = response.invoice();
 
-        System.out.printf("%-20s Rs%.2f%n", "Additional Charges:", additionalCharges);
-        System.out.printf("%-20s Rs%.2f%n", "Discount:", discount);
+        System.out.printf("%-20s Rs%.2f%n", "Food Items:", invoice.charges());
+        System.out.printf("%-20s Rs%.2f%n", "Tip (0.5%):", invoice.tip());
+        System.out.printf("%-20s Rs%.2f%n", "Tax:", invoice.additionalCharges());
+        System.out.printf("%-20s Rs%.2f%n", "Discount:", invoice.discount());
         System.out.println("----------------------------");
-        double totalInvoice = totalAmount + tipAmount + additionalCharges - discount;
-        System.out.printf("%-20s Rs%.2f%n", "Total Invoice:", totalInvoice);
+        System.out.printf("%-20s Rs%.2f%n", "Total Invoice:", invoice.total());
+        if (response.ticketNumber() >= 0) {
+            System.out.println("Kitchen Ticket: #" + response.ticketNumber());
+        }
     }
 
-    private static final List<String> menu = List.of("1. Burger - Rs300", "2. Pizza - Rs600", "3. Salad - Rs500", "4. Pasta - Rs400", "5. Drink - Rs50");
-
     private static void displayDineInMenu() {
         System.out.println("Menu:");
-        for (String item : menu) {
+        for (String item : hotelService.getMenu()) {
             System.out.println(item);
         }
     }
 
 
-    private static int calculateTotalAmount(List<String> foodOrder) {
-        int totalAmount = 0;
-        for (String orderItem : foodOrder) {
-            int priceIndex = Character.getNumericValue(orderItem.charAt(0)) - 1;
-            String[] parts = menu.get(priceIndex).split(" - Rs");
-            int itemPrice = Integer.parseInt(parts[1]);
-            totalAmount += itemPrice;
+    /**
+     * Restores the hotel from the data directory and keeps journaling into it until the program exits.
+     */
+    private static void openJournal() {
+        try {
+            long start = System.nanoTime();
+            HotelJournal journal = HotelJournal.open(Paths.get(DATA_DIRECTORY), hotelService);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.out.println("Could not save the hotel data: " + e.getMessage());
+                }
+                hotelService.close();
+            }));
+            System.out.println("Hotel data restored from " + DATA_DIRECTORY + " (" + journal.getRecoveredRecords() + " journal records) in " + millis + " ms.");
+        } catch (IOException e) {
+            System.out.println("Could not open the hotel data in " + DATA_DIRECTORY + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+
+    /**
+     * Serves the HTTP API on the port alongside the console, for the booking site and the app.
+     */
+    private static void startHttpApi(String port) {
+        try {
+            HotelHttpApi api = HotelHttpApi.start(hotelService, new InetSocketAddress(Integer.parseInt(port)));
+            System.out.println("HTTP API listening on port " + api.getAddress().getPort()
+                    + (api.usesVirtualThreads() ? " (virtual threads)." : " (thread pool; this JDK has no virtual threads)."));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Could not start the HTTP API on port " + port + ": " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Publishes the operation timers and gauges over JMX, for JConsole or a monitoring agent.
+     */
+    private static void publishMetrics() {
+        try {
+            hotelService.getMetrics().register("hotel");
+        } catch (JMException e) {
+            System.out.println("Could not publish the hotel metrics over JMX: " + e.getMessage());
         }
-        return totalAmount;
     }
 
 
@@ -892,13 +983,20 @@ class HotelManagementSystem {
         System.out.println("\t\t\t\t\t\t\t\t\tThis program allows users to perform various hotel management operations.");
         System.out.println();
 
+        openJournal();
+        publishMetrics();
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--http")) {
+                startHttpApi(args[i + 1]);
+            }
+        }
+
 
         int choice;
         String continueChoice;
 
 
         Scanner scanner = new Scanner(System.in);
-        Map<String, User> users = new HashMap<>();
 
 
         System.out.println("===== Sign-up and Log-in System =====");
@@ -951,7 +1049,7 @@ class HotelManagementSystem {
 
                     System.out.print("Enter user-name: ");
                     String signupUsername;
-                    while (!(signupUsername = scanner.nextLine()).matches("[a-zA-Z]+(\\s[a-zA-Z]+)*")) {
+                    while (ValidationUtil.checkFullName(signupUsername = scanner.nextLine()) != ValidationError.NONE) {
                         System.out.print("Invalid input! Please enter a valid full name with alphabetic characters.");
                     }
 
@@ -960,7 +1058,7 @@ class HotelManagementSystem {
                     String signupPassword;
                     while (true) {
                         signupPassword = scanner.nextLine();
-                        if (signupPassword.matches("^(?=.*\\d).{6,}$")) {
+                        if (ValidationUtil.checkPassword(signupPassword) == ValidationError.NONE) {
                             break;
                         } else {
                             System.out.print("Invalid input! Password must be at least 6 characters long and include a digit. Please try again: ");
@@ -970,7 +1068,7 @@ class HotelManagementSystem {
 
                     System.out.print("Enter the e-mail: ");
                     String customerEmail;
-                    while (!(customerEmail = scanner.nextLine()).matches("^[a-zA-Z0-9_+&-]+(?:\\.[a-zA-Z0-9_+&-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$")) {
+                    while (ValidationUtil.checkEmail(customerEmail = scanner.nextLine()) != ValidationError.NONE) {
                         System.out.print("Invalid input! Please enter a valid email address: ");
                     }
                     if (ValidationUtil.isValidPassword(signupPassword) && ValidationUtil.isValidEmail(customerEmail)) {
@@ -980,7 +1078,7 @@ class HotelManagementSystem {
 
                             while (true) {
                                 customerName = scanner.nextLine();
-                                if (customerName.matches("[a-zA-Z]+")) {
+                                if (ValidationUtil.checkAlphabetic(customerName) == ValidationError.NONE) {
                                     break;
                                 } else {
                                     System.out.print("Invalid input! Please enter alphabets only for the customer name: ");
@@ -988,14 +1086,20 @@ class HotelManagementSystem {
                             }
 
 
-                            Customer newCustomer = new Customer(signupUsername, signupPassword, customerName, customerEmail);
-                            users.put(signupUsername, newCustomer);
-                            System.out.println("Customer Signup Successful!");
+                            SignUpResponse response = hotelService.signUp(new SignUpRequest(AccountType.CUSTOMER, signupUsername, signupPassword, customerEmail, customerName));
+                            if (response.status() == ServiceStatus.OK) {
+                                System.out.println("Customer Signup Successful!");
+                            } else {
+                                System.out.println("The user-name " + signupUsername + " is already taken. Signup failed.");
+                            }
 
 
                         } else if (signupType == 2) {
-                            User newUser = new User(signupUsername, signupPassword);
-                            users.put(signupUsername, newUser);
+                            SignUpResponse response = hotelService.signUp(new SignUpRequest(AccountType.USER, signupUsername, signupPassword, customerEmail, null));
+                            if (response.status() != ServiceStatus.OK) {
+                                System.out.println("The user-name " + signupUsername + " is already taken. Signup failed.");
+                                continue;
+                            }
                             System.out.println("Creating Account...");
                             Thread.sleep(3000);
                             System.out.println("Account Created Successful!");
@@ -1007,7 +1111,7 @@ class HotelManagementSystem {
                             String adminName;
                             while (true) {
                                 adminName = scanner.nextLine();
-                                if (adminName.matches("[a-zA-Z]+")) {
+                                if (ValidationUtil.checkAlphabetic(adminName) == ValidationError.NONE) {
                                     break;
                                 } else {
                                     System.out.print("Invalid input! Please enter alphabets only for the admin name: ");
@@ -1015,9 +1119,12 @@ class HotelManagementSystem {
                             }
 
 
-                            Admin newAdmin = new Admin(signupUsername, signupPassword, adminName);
-                            users.put(signupUsername, newAdmin);
-                            System.out.println("Admin Signup Successful!");
+                            SignUpResponse response = hotelService.signUp(new SignUpRequest(AccountType.ADMIN, signupUsername, signupPassword, customerEmail, adminName));
+                            if (response.status() == ServiceStatus.OK) {
+                                System.out.println("Admin Signup Successful!");
+                            } else {
+                                System.out.println("The user-name " + signupUsername + " is already taken. Signup failed.");
+                            }
                         }
                     } else {
                         System.out.println("Invalid password or email format. Signup failed.");
@@ -1038,7 +1145,7 @@ class HotelManagementSystem {
 
                     while (true) {
                         loginUsername = scanner.nextLine();
-                        if (loginUsername.matches("[a-zA-Z]+")) {
+                        if (ValidationUtil.checkAlphabetic(loginUsername) == ValidationError.NONE) {
                             break;
                         } else {
                             System.out.print("Invalid input! Please enter alphabets only for the username: ");
@@ -1050,8 +1157,9 @@ class HotelManagementSystem {
                     String loginPassword = scanner.nextLine();
 
 
-                    User loginUser = users.get(loginUsername);
-                    if (loginUser != null && loginUser.authenticate(loginPassword)) {
+                    LoginResponse login = hotelService.login(new LoginRequest(loginUsername, loginPassword));
+                    User loginUser = login.user();
+                    if (login.status() == ServiceStatus.OK) {
                         if (loginUser instanceof Customer) {
                             System.out.println("Customer Login Successful!");
                         } else if (loginUser instanceof Admin) {
@@ -1073,7 +1181,7 @@ class HotelManagementSystem {
                 }
                 default -> System.out.println("Invalid choice. Please select from 1 - 3");
             }
-            if (choice == 2 && users.isEmpty()) {
+            if (choice == 2 && !hotelService.hasUsers()) {
                 System.out.println("No users found. Please sign up first.");
                 continue;
             }
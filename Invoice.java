@@ -0,0 +1,6 @@
+
+/**
+ * Invoice: the figures of a bill, in rupees.
+ */
+record Invoice(double charges, double tip, double additionalCharges, double discount, double total) {
+}
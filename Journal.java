@@ -0,0 +1,296 @@
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+
+/**
+ * Journal: an append-only, memory-mapped write-ahead log split into fixed-size segment files.
+ *
+ * Each record is framed as {@code [int length][int crc32c][payload]}; a zero length marks the end
+ * of the written part of a segment. Appends only copy into the mapped segment under a short lock.
+ * A background flusher forces the segment to disk, either every commit interval or as soon as a
+ * caller waits in {@link #awaitDurable(long)}, so concurrent callers share one fsync (group commit).
+ *
+ * Positions returned by {@link #append(ByteBuffer)} are a running count of journal bytes and only
+ * make sense to {@link #awaitDurable(long)} on the same journal instance. Marks, the segment id and
+ * the offset in it, keep their order across restarts.
+ */
+class Journal implements Closeable {
+    interface RecordHandler {
+        /**
+         * Receives one record with the buffer's position and limit framing the payload, and the
+         * {@linkplain #getAppendedMark mark} of the journal's end just after it.
+         */
+        void onRecord(ByteBuffer payload, long mark);
+    }
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long commitIntervalMillis;
+    private final CRC32C crc = new CRC32C();
+    private final Thread flusher;
+
+    private long segmentId;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long appended;
+    private long durable;
+    private int waiters;
+    private boolean closed;
+
+    private Journal(Path directory, int segmentBytes, long commitIntervalMillis) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.commitIntervalMillis = commitIntervalMillis;
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal in the directory, hands every intact record of segment {@code fromSegment}
+     * onwards to the handler in order, and positions the writer after the last intact record.
+     */
+    public static Journal open(Path directory, int segmentBytes, long commitIntervalMillis, long fromSegment, RecordHandler handler) throws IOException {
+        Files.createDirectories(directory);
+        Journal journal = new Journal(directory, segmentBytes, commitIntervalMillis);
+        List<Long> segments = journal.listSegments();
+        segments.removeIf(id -> id < fromSegment);
+        if (segments.isEmpty()) {
+            journal.openSegment(fromSegment);
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            journal.openSegment(segments.get(i));
+            boolean intact = journal.replaySegment(handler);
+            if (!intact && i < segments.size() - 1) {
+                throw new IOException("Journal segment " + segments.get(i) + " is corrupt before its end; later segments cannot be replayed");
+            }
+        }
+        journal.flusher.start();
+        return journal;
+    }
+
+    public synchronized long getSegmentId() {
+        return segmentId;
+    }
+
+    /**
+     * Appends the remaining bytes of the payload and returns the position that must become durable
+     * for the record to survive a crash.
+     */
+    public synchronized long append(ByteBuffer payload) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        int length = payload.remaining();
+        if (length == 0 || HEADER_BYTES + length + Integer.BYTES > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit a journal segment");
+        }
+        if (segment.remaining() < HEADER_BYTES + length + Integer.BYTES) {
+            rotate();
+        }
+        int start = payload.position();
+        crc.reset();
+        crc.update(payload);
+        payload.position(start);
+        segment.putInt(length);
+        segment.putInt((int) crc.getValue());
+        segment.put(payload);
+        appended += HEADER_BYTES + length;
+        return appended;
+    }
+
+    /**
+     * Blocks until everything up to the given position has been forced to disk.
+     */
+    public synchronized void awaitDurable(long position) {
+        if (durable >= position) {
+            return;
+        }
+        waiters++;
+        try {
+            notifyAll();
+            while (durable < position && !closed) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiters--;
+        }
+    }
+
+    public synchronized long getAppendedPosition() {
+        return appended;
+    }
+
+    /**
+     * Where the journal ends: the id of the current segment in the high 32 bits and the offset
+     * after its last record in the low ones. Every record appended later has a greater mark.
+     */
+    public synchronized long getAppendedMark() {
+        return mark(segmentId, segment.position());
+    }
+
+    /**
+     * Forces the current segment and starts a new one; returns the id of the new segment.
+     */
+    public synchronized long rotate() {
+        segment.force();
+        durable = appended;
+        notifyAll();
+        try {
+            channel.close();
+            openSegment(segmentId + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return segmentId;
+    }
+
+    /**
+     * Deletes the segment files that precede the given segment, once a snapshot covers them.
+     */
+    public void deleteSegmentsBefore(long firstKept) throws IOException {
+        for (long id : listSegments()) {
+            if (id < firstKept) {
+                Files.deleteIfExists(segmentPath(id));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            segment.force();
+            durable = appended;
+            closed = true;
+            notifyAll();
+        }
+        flusher.interrupt();
+        channel.close();
+    }
+
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            MappedByteBuffer toForce;
+            synchronized (this) {
+                try {
+                    while (!closed && (appended == durable || waiters == 0)) {
+                        wait(commitIntervalMillis);
+                        if (appended != durable) {
+                            break;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closed) {
+                    return;
+                }
+                target = appended;
+                toForce = segment;
+            }
+            // Appends carry on into the mapped segment while it is being forced.
+            toForce.force();
+            synchronized (this) {
+                if (target > durable) {
+                    durable = target;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private void openSegment(long id) throws IOException {
+        segmentId = id;
+        channel = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+
+    /**
+     * Replays the open segment and leaves its position after the last intact record. Returns false
+     * if the segment ends in a torn or corrupt record, whose bytes are then cleared.
+     */
+    private boolean replaySegment(RecordHandler handler) {
+        MappedByteBuffer buffer = segment;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length == 0) {
+                buffer.position(start);
+                return true;
+            }
+            if (length < 0 || length > buffer.remaining() - Integer.BYTES) {
+                return truncateAt(start);
+            }
+            int checksum = buffer.getInt();
+            int payloadStart = buffer.position();
+            buffer.limit(payloadStart + length);
+            crc.reset();
+            crc.update(buffer);
+            if ((int) crc.getValue() != checksum) {
+                buffer.limit(buffer.capacity());
+                return truncateAt(start);
+            }
+            buffer.position(payloadStart);
+            handler.onRecord(buffer, mark(segmentId, payloadStart + length));
+            buffer.limit(buffer.capacity());
+            buffer.position(payloadStart + length);
+            appended += HEADER_BYTES + length;
+        }
+        return true;
+    }
+
+    private static long mark(long segmentId, int offset) {
+        return segmentId << 32 | offset;
+    }
+
+    private boolean truncateAt(int position) {
+        MappedByteBuffer buffer = segment;
+        buffer.position(position);
+        while (buffer.remaining() >= Long.BYTES) {
+            buffer.putLong(0L);
+        }
+        while (buffer.hasRemaining()) {
+            buffer.put((byte) 0);
+        }
+        buffer.position(position);
+        buffer.force();
+        return false;
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,144 @@
+
+/**
+ * JsonWriter: builds the JSON response bodies of the HTTP API, putting in the commas itself.
+ */
+final class JsonWriter {
+    private final StringBuilder out = new StringBuilder(256);
+    // Whether the object or array being written already has a member, one flag per open level.
+    private long hasMember;
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter beginObject() {
+        beforeValue();
+        out.append('{');
+        open();
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        close();
+        out.append('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        beforeValue();
+        out.append('[');
+        open();
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        close();
+        out.append(']');
+        return this;
+    }
+
+    public JsonWriter name(String name) {
+        beforeValue();
+        writeString(name);
+        out.append(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        beforeValue();
+        if (value == null) {
+            out.append("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        beforeValue();
+        out.append(value);
+        return this;
+    }
+
+    public JsonWriter value(double value) {
+        beforeValue();
+        if (Double.isFinite(value)) {
+            out.append(value);
+        } else {
+            out.append("null");
+        }
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        beforeValue();
+        out.append(value);
+        return this;
+    }
+
+    public JsonWriter field(String name, String value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, long value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, double value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void open() {
+        depth++;
+        if (depth >= Long.SIZE) {
+            throw new IllegalStateException("JSON nested too deeply");
+        }
+        hasMember &= ~(1L << depth);
+    }
+
+    private void close() {
+        depth--;
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        long bit = 1L << depth;
+        if (depth > 0 && (hasMember & bit) != 0) {
+            out.append(',');
+        }
+        hasMember |= bit;
+    }
+
+    private void writeString(String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
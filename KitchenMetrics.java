@@ -0,0 +1,12 @@
+
+import java.util.List;
+
+
+/**
+ * KitchenMetrics: counters at one instant; two snapshots give the rates between them.
+ */
+record KitchenMetrics(long timestampNanos, long submitted, long rejected, long ready, long served, List<StationMetrics> stations) {
+    double ordersPerSecondSince(KitchenMetrics earlier) {
+        return (submitted - earlier.submitted) * 1e9 / Math.max(1, timestampNanos - earlier.timestampNanos);
+    }
+}
@@ -0,0 +1,361 @@
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+
+/**
+ * TicketStatus: how far the kitchen has got with an order.
+ */
+enum TicketStatus {
+    QUEUED,
+    PREPARING,
+    READY,
+    SERVED
+}
+
+
+/**
+ * KitchenPipeline: carries dine-in orders from the tables to the kitchen stations.
+ *
+ * Orders go into a bounded ring of preallocated slots. Any number of tables submit at once: a
+ * table claims the next sequence with one CAS, copies the order into that slot and publishes it by
+ * writing the sequence into the slot's published marker, so the submit path takes no lock and
+ * allocates nothing. Every station reads the whole ring in sequence order and takes only the lines
+ * routed to it, in batches, advancing its own sequence once per batch. A slot is reused only after
+ * every station has read past it; a submit that would overrun the slowest station is rejected.
+ *
+ * Each station must be drained by one thread at a time. Readiness is tracked per order: the order
+ * is READY once every station it needed has marked its part ready, and SERVED after that.
+ */
+class KitchenPipeline {
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final KitchenStation[] STATIONS = KitchenStation.values();
+    private static final int IDLE_YIELDS = 100;
+    private static final long IDLE_PARK_NANOS = 100_000;
+
+    private final MenuCatalog menu;
+    private final int mask;
+    private final int maxLines;
+    private final Slot[] slots;
+    private final long[] published;
+
+    private final Sequence claimed = new Sequence(-1);
+    private final Sequence gatingCache = new Sequence(-1);
+    private final Sequence[] consumed = new Sequence[STATIONS.length];
+
+    private final Map<Long, TicketProgress> progress = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder ready = new LongAdder();
+    private final LongAdder served = new LongAdder();
+    private final LongAdder[] stationTickets = new LongAdder[STATIONS.length];
+    private final LongAdder[] stationBatches = new LongAdder[STATIONS.length];
+    private final List<Thread> stationThreads = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param capacity number of ring slots, a power of two
+     * @param maxLines most lines one order may have
+     */
+    public KitchenPipeline(MenuCatalog menu, int capacity, int maxLines) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.menu = menu;
+        this.mask = capacity - 1;
+        this.maxLines = maxLines;
+        this.slots = new Slot[capacity];
+        this.published = new long[capacity];
+        Arrays.fill(published, -1);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(maxLines);
+        }
+        for (KitchenStation station : STATIONS) {
+            consumed[station.ordinal()] = new Sequence(-1);
+            stationTickets[station.ordinal()] = new LongAdder();
+            stationBatches[station.ordinal()] = new LongAdder();
+        }
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    /**
+     * Sends the order to the kitchen and returns its ticket number, or -1 if the ring is full
+     * because the stations have fallen a whole ring behind. The order's items must be on the menu.
+     */
+    public long submit(String tableNumber, FoodOrder order) {
+        int lines = order.getLineCount();
+        if (lines == 0 || lines > maxLines) {
+            throw new IllegalArgumentException("An order must have between 1 and " + maxLines + " lines: " + lines);
+        }
+        long sequence;
+        long current;
+        do {
+            current = claimed.get();
+            sequence = current + 1;
+            long wrapPoint = sequence - slots.length;
+            if (wrapPoint > gatingCache.get()) {
+                long slowest = slowestStation();
+                gatingCache.set(slowest);
+                if (wrapPoint > slowest) {
+                    rejected.increment();
+                    return -1;
+                }
+            }
+        } while (!claimed.compareAndSet(current, sequence));
+
+        int index = (int) sequence & mask;
+        Slot slot = slots[index];
+        slot.tableNumber = tableNumber;
+        slot.lineCount = lines;
+        int stations = 0;
+        for (int line = 0; line < lines; line++) {
+            int itemId = order.getItemId(line);
+            KitchenStation station = KitchenStation.forCategory(menu.getCategory(itemId));
+            slot.itemIds[line] = itemId;
+            slot.quantities[line] = order.getQuantity(line);
+            slot.lineStations[line] = (byte) station.ordinal();
+            stations |= 1 << station.ordinal();
+        }
+        slot.stations = stations;
+        PUBLISHED.setRelease(published, index, sequence);
+        return sequence;
+    }
+
+    /**
+     * Reads up to {@code maxBatch} published orders past the station's position and hands the
+     * station's part of each to the handler. Returns the number of tickets handed over.
+     */
+    public int drain(KitchenStation station, int maxBatch, Consumer<KitchenTicket> handler) {
+        Sequence position = consumed[station.ordinal()];
+        int bit = 1 << station.ordinal();
+        long first = position.get() + 1;
+        long last = first - 1;
+        int tickets = 0;
+        for (long sequence = first; sequence < first + maxBatch; sequence++) {
+            int index = (int) sequence & mask;
+            if ((long) PUBLISHED.getAcquire(published, index) != sequence) {
+                break;
+            }
+            Slot slot = slots[index];
+            if ((slot.stations & bit) != 0) {
+                KitchenTicket ticket = slot.ticketFor(sequence, station);
+                int stations = slot.stations;
+                progress.computeIfAbsent(sequence, key -> new TicketProgress(stations));
+                handler.accept(ticket);
+                tickets++;
+            }
+            last = sequence;
+        }
+        if (last >= first) {
+            position.setRelease(last);
+            stationTickets[station.ordinal()].add(tickets);
+            stationBatches[station.ordinal()].increment();
+        }
+        return tickets;
+    }
+
+    /**
+     * Marks the station's part of the order ready. Returns false if the station has not received
+     * that part or already marked it.
+     */
+    public boolean markReady(long ticketNumber, KitchenStation station) {
+        TicketProgress ticket = progress.get(ticketNumber);
+        if (ticket == null) {
+            return false;
+        }
+        int bit = 1 << station.ordinal();
+        int before = ticket.pending.getAndUpdate(pending -> pending & ~bit);
+        if ((before & bit) == 0) {
+            return false;
+        }
+        if (before == bit) {
+            ready.increment();
+        }
+        return true;
+    }
+
+    /**
+     * Marks a ready order served. Returns false if it is not ready or was already served.
+     */
+    public boolean markServed(long ticketNumber) {
+        TicketProgress ticket = progress.get(ticketNumber);
+        if (ticket == null || ticket.pending.get() != 0 || !progress.remove(ticketNumber, ticket)) {
+            return false;
+        }
+        served.increment();
+        return true;
+    }
+
+    /**
+     * Returns the status of the order, or null if no order has that ticket number.
+     */
+    public TicketStatus getStatus(long ticketNumber) {
+        if (ticketNumber < 0 || ticketNumber > claimed.get()) {
+            return null;
+        }
+        TicketProgress ticket = progress.get(ticketNumber);
+        if (ticket != null) {
+            return ticket.pending.get() == 0 ? TicketStatus.READY : TicketStatus.PREPARING;
+        }
+        // Every station has read past it and it is no longer tracked, so it has been served.
+        return ticketNumber <= slowestStation() ? TicketStatus.SERVED : TicketStatus.QUEUED;
+    }
+
+    /**
+     * Number of published orders the station has not read yet, its own or not.
+     */
+    public long getQueueDepth(KitchenStation station) {
+        return Math.max(0, claimed.get() - consumed[station.ordinal()].get());
+    }
+
+    public KitchenMetrics getMetrics() {
+        List<StationMetrics> stations = new ArrayList<>();
+        for (KitchenStation station : STATIONS) {
+            stations.add(new StationMetrics(station, stationTickets[station.ordinal()].sum(), stationBatches[station.ordinal()].sum(), getQueueDepth(station)));
+        }
+        return new KitchenMetrics(System.nanoTime(), claimed.get() + 1, rejected.sum(), ready.sum(), served.sum(), stations);
+    }
+
+    /**
+     * Starts a daemon thread that drains the station until interrupted. When the ring has nothing
+     * new for it the thread first yields, then parks for a moment, so an idle kitchen costs
+     * little CPU.
+     */
+    public Thread startStation(KitchenStation station, int maxBatch, Consumer<KitchenTicket> handler) {
+        Thread worker = new Thread(() -> {
+            int idle = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                if (drain(station, maxBatch, handler) > 0 || getQueueDepth(station) > 0) {
+                    idle = 0;
+                } else if (++idle < IDLE_YIELDS) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        }, "kitchen-" + station.name().toLowerCase());
+        worker.setDaemon(true);
+        stationThreads.add(worker);
+        worker.start();
+        return worker;
+    }
+
+    /**
+     * Stops every station thread started with {@link #startStation}; orders they had not read
+     * yet stay in the ring.
+     */
+    public void close() {
+        stationThreads.forEach(Thread::interrupt);
+        stationThreads.clear();
+    }
+
+    private long slowestStation() {
+        long slowest = Long.MAX_VALUE;
+        for (Sequence sequence : consumed) {
+            slowest = Math.min(slowest, sequence.get());
+        }
+        return slowest;
+    }
+
+
+    private static final class Slot {
+        private final int[] itemIds;
+        private final int[] quantities;
+        private final byte[] lineStations;
+        private String tableNumber;
+        private int lineCount;
+        private int stations;
+
+        Slot(int maxLines) {
+            itemIds = new int[maxLines];
+            quantities = new int[maxLines];
+            lineStations = new byte[maxLines];
+        }
+
+        KitchenTicket ticketFor(long sequence, KitchenStation station) {
+            int count = 0;
+            for (int line = 0; line < lineCount; line++) {
+                if (lineStations[line] == station.ordinal()) {
+                    count++;
+                }
+            }
+            int[] ids = new int[count];
+            int[] amounts = new int[count];
+            for (int line = 0, next = 0; line < lineCount; line++) {
+                if (lineStations[line] == station.ordinal()) {
+                    ids[next] = itemIds[line];
+                    amounts[next++] = quantities[line];
+                }
+            }
+            return new KitchenTicket(sequence, tableNumber, station, ids, amounts);
+        }
+    }
+
+    private static final class TicketProgress {
+        // One bit per station whose part is not ready yet.
+        private final AtomicInteger pending;
+
+        TicketProgress(int stations) {
+            pending = new AtomicInteger(stations);
+        }
+    }
+
+
+    // The sequences are written by different threads; padding keeps each on its own cache line.
+    private static class LeftPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    private static class SequenceValue extends LeftPadding {
+        volatile long value;
+    }
+
+    private static final class Sequence extends SequenceValue {
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        Sequence(long initial) {
+            value = initial;
+        }
+
+        long get() {
+            return value;
+        }
+
+        void set(long newValue) {
+            value = newValue;
+        }
+
+        void setRelease(long newValue) {
+            VALUE.setRelease(this, newValue);
+        }
+
+        boolean compareAndSet(long expected, long newValue) {
+            return VALUE.compareAndSet(this, expected, newValue);
+        }
+    }
+}
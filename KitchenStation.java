@@ -0,0 +1,17 @@
+
+/**
+ * KitchenStation: where a menu item is prepared.
+ */
+enum KitchenStation {
+    GRILL,
+    SALAD,
+    DRINKS;
+
+    static KitchenStation forCategory(MenuCategory category) {
+        return switch (category) {
+            case MAIN -> GRILL;
+            case SALAD -> SALAD;
+            case DRINK -> DRINKS;
+        };
+    }
+}
@@ -0,0 +1,6 @@
+
+/**
+ * KitchenTicket: the lines of one order that a station has to prepare.
+ */
+record KitchenTicket(long ticketNumber, String tableNumber, KitchenStation station, int[] itemIds, int[] quantities) {
+}
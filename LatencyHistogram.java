@@ -0,0 +1,99 @@
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * LatencyHistogram: a log-linear histogram of durations that any number of threads record into
+ * without a lock.
+ *
+ * Every power of two is split into 32 equal buckets, so a bucket is never wider than about 3% of
+ * the values in it, from one nanosecond up to centuries, in under 2,000 counters. Recording is
+ * a few shifts, one atomic increment and an add to the running sum; the count is read by summing
+ * the counters.
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucket(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            count += counts.get(b);
+        }
+        return count;
+    }
+
+    /**
+     * The duration below which the given fraction of the recorded ones fall, 0.99 being p99, or 0
+     * if nothing has been recorded.
+     */
+    public long percentile(double fraction) {
+        return percentiles(fraction)[0];
+    }
+
+    public LatencySummary summarize() {
+        long[] p = percentiles(0.50, 0.90, 0.99, 0.999);
+        long count = p[4];
+        return new LatencySummary(count, count == 0 ? 0 : sum.sum() / count, p[0], p[1], p[2], p[3], max.get());
+    }
+
+    /**
+     * The percentiles from one pass over the counters, followed by the count they were taken
+     * from. The counters are read once so that concurrent recording cannot make a higher
+     * percentile come out lower.
+     */
+    private long[] percentiles(double... fractions) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            snapshot[b] = counts.get(b);
+            count += snapshot[b];
+        }
+        long[] values = new long[fractions.length + 1];
+        values[fractions.length] = count;
+        if (count == 0) {
+            return values;
+        }
+        long ceiling = max.get();
+        long seen = 0;
+        int f = 0;
+        for (int b = 0; b < BUCKETS && f < fractions.length; b++) {
+            seen += snapshot[b];
+            while (f < fractions.length && seen >= Math.max(1, (long) Math.ceil(fractions[f] * count))) {
+                values[f++] = Math.min(upperEdge(b), ceiling);
+            }
+        }
+        return values;
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * The largest value that falls in the bucket.
+     */
+    static long upperEdge(int bucket) {
+        int shift = Math.max(0, bucket / SUB_BUCKETS - 1);
+        long lower = (long) (bucket - shift * SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,8 @@
+
+/**
+ * LatencySummary: a histogram's figures at one instant, in nanoseconds. A percentile is the upper
+ * edge of the bucket it falls in, so it is never below the true value and at most one bucket
+ * width above it.
+ */
+record LatencySummary(long count, long mean, long p50, long p90, long p99, long p999, long max) {
+}
@@ -0,0 +1,6 @@
+
+/**
+ * LoggedEvent: an event with its place in the log, numbered from 1, and when it was appended.
+ */
+record LoggedEvent(long sequence, long timestampMillis, DomainEvent event) {
+}
@@ -0,0 +1,6 @@
+
+/**
+ * LoginRequest: a username and the password to check for it.
+ */
+record LoginRequest(String username, String password) {
+}
@@ -0,0 +1,7 @@
+
+/**
+ * LoginResponse: the user logged in, if the password matched. {@code sessionToken} lets the
+ * terminal resume the session without the password until it expires.
+ */
+record LoginResponse(ServiceStatus status, User user, String sessionToken) {
+}
@@ -0,0 +1,10 @@
+
+/**
+ * LoyaltyTier: loyalty tiers, lowest first; a higher tier is served first from the waitlist.
+ */
+enum LoyaltyTier {
+    STANDARD,
+    SILVER,
+    GOLD,
+    PLATINUM
+}
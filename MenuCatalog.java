@@ -0,0 +1,182 @@
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * MenuCatalog: the restaurant menu, indexed by item id.
+ *
+ * Items are numbered from 1 in the order they were added, which is also the number the console
+ * shows. Prices are whole paisa, so totals are exact integer sums. The entries are held in plain
+ * arrays indexed by id behind one volatile reference; a change publishes new arrays, so pricing
+ * an order reads one reference and then costs one array lookup per line, whatever the menu size.
+ */
+class MenuCatalog {
+    private static final int PAISA_PER_RUPEE = 100;
+    private static final int BASIS_POINTS = 10_000;
+
+    private volatile Entries entries = new Entries(new String[1], new MenuCategory[1], new int[1], new boolean[1], List.of());
+
+    /**
+     * The menu the hotel has always served.
+     */
+    public static MenuCatalog standard() {
+        MenuCatalog menu = new MenuCatalog();
+        menu.addItem("Burger", MenuCategory.MAIN, 300 * PAISA_PER_RUPEE);
+        menu.addItem("Pizza", MenuCategory.MAIN, 600 * PAISA_PER_RUPEE);
+        menu.addItem("Salad", MenuCategory.SALAD, 500 * PAISA_PER_RUPEE);
+        menu.addItem("Pasta", MenuCategory.MAIN, 400 * PAISA_PER_RUPEE);
+        menu.addItem("Drink", MenuCategory.DRINK, 50 * PAISA_PER_RUPEE);
+        return menu;
+    }
+
+    /**
+     * Adds an available item and returns its id.
+     */
+    public synchronized int addItem(String name, MenuCategory category, int price) {
+        if (price < 0) {
+            throw new IllegalArgumentException("Price must not be negative: " + price);
+        }
+        Entries current = entries;
+        int id = current.prices.length;
+        String[] names = Arrays.copyOf(current.names, id + 1);
+        MenuCategory[] categories = Arrays.copyOf(current.categories, id + 1);
+        int[] prices = Arrays.copyOf(current.prices, id + 1);
+        boolean[] available = Arrays.copyOf(current.available, id + 1);
+        names[id] = name;
+        categories[id] = category;
+        prices[id] = price;
+        available[id] = true;
+        entries = Entries.of(names, categories, prices, available);
+        return id;
+    }
+
+    public synchronized void setAvailable(int id, boolean available) {
+        Entries current = requireItem(id);
+        boolean[] flags = current.available.clone();
+        flags[id] = available;
+        entries = Entries.of(current.names, current.categories, current.prices, flags);
+    }
+
+    public synchronized void setPrice(int id, int price) {
+        if (price < 0) {
+            throw new IllegalArgumentException("Price must not be negative: " + price);
+        }
+        Entries current = requireItem(id);
+        int[] prices = current.prices.clone();
+        prices[id] = price;
+        entries = Entries.of(current.names, current.categories, prices, current.available);
+    }
+
+    public int size() {
+        return entries.prices.length - 1;
+    }
+
+    public boolean contains(int id) {
+        return id >= 1 && id < entries.prices.length;
+    }
+
+    public boolean isAvailable(int id) {
+        Entries current = entries;
+        return id >= 1 && id < current.prices.length && current.available[id];
+    }
+
+    public MenuCategory getCategory(int id) {
+        return requireItem(id).categories[id];
+    }
+
+    public MenuItem getItem(int id) {
+        Entries current = requireItem(id);
+        return new MenuItem(id, current.names[id], current.categories[id], current.prices[id], current.available[id]);
+    }
+
+    public List<MenuItem> getItems() {
+        Entries current = entries;
+        List<MenuItem> items = new ArrayList<>();
+        for (int id = 1; id < current.prices.length; id++) {
+            items.add(new MenuItem(id, current.names[id], current.categories[id], current.prices[id], current.available[id]));
+        }
+        return items;
+    }
+
+    /**
+     * The menu as the console prints it, e.g. "1. Burger - Rs300".
+     */
+    public List<String> getDisplayLines() {
+        return entries.displayLines;
+    }
+
+    /**
+     * True if every line of the order names an available item in a positive quantity.
+     */
+    public boolean isOrderable(FoodOrder order) {
+        Entries current = entries;
+        for (int line = 0; line < order.getLineCount(); line++) {
+            int id = order.getItemId(line);
+            if (id < 1 || id >= current.prices.length || !current.available[id] || order.getQuantity(line) <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sum of price times quantity over the order's lines, in paisa.
+     */
+    public long subtotal(FoodOrder order) {
+        int[] prices = entries.prices;
+        long subtotal = 0;
+        for (int line = 0; line < order.getLineCount(); line++) {
+            subtotal += (long) prices[order.getItemId(line)] * order.getQuantity(line);
+        }
+        return subtotal;
+    }
+
+    /**
+     * Prices the order with the tip and tax given in basis points of the subtotal, rounded to the
+     * nearest paisa.
+     */
+    public DineInBill bill(FoodOrder order, int tipBasisPoints, int taxBasisPoints) {
+        HotelEvents.MenuBillEvent event = new HotelEvents.MenuBillEvent();
+        event.begin();
+        long subtotal = subtotal(order);
+        long tip = percentage(subtotal, tipBasisPoints);
+        long tax = percentage(subtotal, taxBasisPoints);
+        if (event.shouldCommit()) {
+            event.lines = order.getLineCount();
+            event.subtotal = subtotal;
+            event.total = subtotal + tip + tax;
+            event.commit();
+        }
+        return new DineInBill(subtotal, tip, tax, subtotal + tip + tax);
+    }
+
+    private static long percentage(long amount, int basisPoints) {
+        return (amount * basisPoints + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    private Entries requireItem(int id) {
+        Entries current = entries;
+        if (id < 1 || id >= current.prices.length) {
+            throw new IllegalArgumentException("Unknown menu item: " + id);
+        }
+        return current;
+    }
+
+
+    // Index 0 is unused so item ids index the arrays directly.
+    private record Entries(String[] names, MenuCategory[] categories, int[] prices, boolean[] available, List<String> displayLines) {
+        static Entries of(String[] names, MenuCategory[] categories, int[] prices, boolean[] available) {
+            List<String> lines = new ArrayList<>();
+            for (int id = 1; id < prices.length; id++) {
+                String price = prices[id] % PAISA_PER_RUPEE == 0
+                        ? String.valueOf(prices[id] / PAISA_PER_RUPEE)
+                        : String.format("%d.%02d", prices[id] / PAISA_PER_RUPEE, prices[id] % PAISA_PER_RUPEE);
+                lines.add(id + ". " + names[id] + " - Rs" + price + (available[id] ? "" : " (unavailable)"));
+            }
+            return new Entries(names, categories, prices, available, Collections.unmodifiableList(lines));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+
+/**
+ * MenuCategory: the kitchen section a menu item belongs to.
+ */
+enum MenuCategory {
+    MAIN("Main"),
+    SALAD("Salad"),
+    DRINK("Drink");
+
+    private final String displayName;
+
+    MenuCategory(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
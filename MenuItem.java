@@ -0,0 +1,6 @@
+
+/**
+ * MenuItem: one entry of the menu; the price is in paisa (1/100 rupee).
+ */
+record MenuItem(int id, String name, MenuCategory category, int price, boolean available) {
+}
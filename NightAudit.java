@@ -0,0 +1,108 @@
+
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * NightAudit: closes a business day by posting the room night, and the tax on it, to every folio.
+ *
+ * The folios are split into partitions that are posted in parallel on a fork/join pool, and the
+ * revenue totals of the partitions are merged into one report. Each folio remembers the night it
+ * has been posted through, so running the audit again for the same date posts nothing, and an
+ * audit that was skipped catches up on every night since.
+ */
+class NightAudit {
+    // Small enough to spread a few thousand folios over several workers.
+    private static final int PARTITION_SIZE = 512;
+
+    private final ForkJoinPool pool;
+
+    public NightAudit() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public NightAudit(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Posts every night up to and including the business date, at the given room tax.
+     */
+    public NightAuditReport run(Folio[] folios, LocalDate businessDate, int taxBasisPoints) {
+        long start = System.nanoTime();
+        int businessDay = (int) businessDate.toEpochDay();
+        Totals totals = folios.length <= PARTITION_SIZE
+                ? post(folios, 0, folios.length, businessDay, taxBasisPoints)
+                : pool.invoke(new Partition(folios, 0, folios.length, businessDay, taxBasisPoints));
+        return new NightAuditReport(businessDate, folios.length, totals.inHouse, totals.foliosPosted, totals.nightsPosted,
+                totals.roomRevenue, totals.taxRevenue, System.nanoTime() - start);
+    }
+
+    private static Totals post(Folio[] folios, int from, int to, int businessDay, int taxBasisPoints) {
+        Totals totals = new Totals();
+        for (int i = from; i < to; i++) {
+            Folio folio = folios[i];
+            if (folio.getCheckInDay() <= businessDay && businessDay < folio.getCheckOutDay()) {
+                totals.inHouse++;
+            }
+            int nights = folio.postNightsThrough(businessDay, taxBasisPoints);
+            if (nights > 0) {
+                long roomRevenue = nights * folio.getNightlyRate();
+                totals.foliosPosted++;
+                totals.nightsPosted += nights;
+                totals.roomRevenue += roomRevenue;
+                totals.taxRevenue += nights * Folio.roomTax(folio.getNightlyRate(), taxBasisPoints);
+            }
+        }
+        return totals;
+    }
+
+
+    private static final class Totals {
+        private int inHouse;
+        private int foliosPosted;
+        private long nightsPosted;
+        private long roomRevenue;
+        private long taxRevenue;
+
+        Totals merge(Totals other) {
+            inHouse += other.inHouse;
+            foliosPosted += other.foliosPosted;
+            nightsPosted += other.nightsPosted;
+            roomRevenue += other.roomRevenue;
+            taxRevenue += other.taxRevenue;
+            return this;
+        }
+    }
+
+    private static final class Partition extends RecursiveTask<Totals> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Folio[] folios;
+        private final int from;
+        private final int to;
+        private final int businessDay;
+        private final int taxBasisPoints;
+
+        Partition(Folio[] folios, int from, int to, int businessDay, int taxBasisPoints) {
+            this.folios = folios;
+            this.from = from;
+            this.to = to;
+            this.businessDay = businessDay;
+            this.taxBasisPoints = taxBasisPoints;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= PARTITION_SIZE) {
+                return post(folios, from, to, businessDay, taxBasisPoints);
+            }
+            int middle = (from + to) >>> 1;
+            Partition left = new Partition(folios, from, middle, businessDay, taxBasisPoints);
+            left.fork();
+            Totals right = new Partition(folios, middle, to, businessDay, taxBasisPoints).compute();
+            return right.merge(left.join());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * NightAuditReport: what one night audit posted; revenue amounts are in paisa.
+ *
+ * {@code inHouse} counts the guests staying the business night. {@code foliosPosted} and
+ * {@code nightsPosted} count only what this run posted, so a re-run of the same date reports zero.
+ */
+record NightAuditReport(LocalDate businessDate, int folios, int inHouse, int foliosPosted, long nightsPosted,
+                        long roomRevenue, long taxRevenue, long elapsedNanos) {
+    long totalRevenue() {
+        return roomRevenue + taxRevenue;
+    }
+}
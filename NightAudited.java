@@ -0,0 +1,9 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * NightAudited: the night audit closed the business date, posting the revenue of its nights.
+ */
+record NightAudited(LocalDate businessDate, long roomRevenue, long taxRevenue) implements DomainEvent {
+}
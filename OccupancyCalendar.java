@@ -0,0 +1,267 @@
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+
+/**
+ * OccupancyCalendar: one bit per room per night, packed into long words and grouped by room type.
+ * Within a type every room owns a slot, and night n of the horizon is stored as the run of words
+ * {@code [n * wordsPerNight, (n + 1) * wordsPerNight)}, so counting free rooms is a popcount over
+ * one run and a first-fit search ORs the runs of the stay together. Queries work on epoch days and
+ * never allocate.
+ *
+ *
+ * Rooms of one type share words, so bits are set and cleared with atomic OR/AND. Adding a room may
+ * replace the word array. The copy is bracketed by a sequence number that is odd while it runs,
+ * and a writer that saw the sequence move, or land on odd, re-applies its change to the new array.
+ */
+class OccupancyCalendar {
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int firstDay;
+    private final int nights;
+    private final Map<RoomType, TypeCalendar> calendars = new EnumMap<>(RoomType.class);
+
+    public OccupancyCalendar(int firstDay, int nights) {
+        if (nights <= 0) {
+            throw new IllegalArgumentException("nights must be positive: " + nights);
+        }
+        this.firstDay = firstDay;
+        this.nights = nights;
+        for (RoomType type : RoomType.values()) {
+            calendars.put(type, new TypeCalendar(nights));
+        }
+    }
+
+    public int getFirstDay() {
+        return firstDay;
+    }
+
+    public int getEndDay() {
+        return firstDay + nights;
+    }
+
+    public boolean covers(int fromDay, int toDay) {
+        return fromDay >= firstDay && toDay <= firstDay + nights && fromDay < toDay;
+    }
+
+    /**
+     * Registers another room of the given type and returns its slot.
+     */
+    public int addRoom(RoomType type) {
+        return calendars.get(type).addRoom(nights);
+    }
+
+    public int getRoomCount(RoomType type) {
+        return calendars.get(type).layout.rooms;
+    }
+
+    public void occupy(RoomType type, int slot, int fromDay, int toDay) {
+        update(calendars.get(type), slot, fromDay, toDay, true);
+    }
+
+    public void vacate(RoomType type, int slot, int fromDay, int toDay) {
+        update(calendars.get(type), slot, fromDay, toDay, false);
+    }
+
+    private void update(TypeCalendar calendar, int slot, int fromDay, int toDay, boolean occupied) {
+        long bit = 1L << slot;
+        int word = slot >>> 6;
+        int first = Math.max(fromDay, firstDay) - firstDay;
+        int end = Math.min(toDay, getEndDay()) - firstDay;
+        int sequence;
+        do {
+            sequence = calendar.sequence;
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            Layout layout = calendar.layout;
+            for (int night = first; night < end; night++) {
+                int index = night * layout.wordsPerNight + word;
+                if (occupied) {
+                    WORDS.getAndBitwiseOr(layout.words, index, bit);
+                } else {
+                    WORDS.getAndBitwiseAnd(layout.words, index, ~bit);
+                }
+            }
+        } while ((sequence & 1) != 0 || calendar.sequence != sequence);
+    }
+
+    public int countFree(RoomType type, int day) {
+        requireCovered(day, day + 1);
+        Layout layout = calendars.get(type).layout;
+        int base = (day - firstDay) * layout.wordsPerNight;
+        int occupied = 0;
+        for (int w = 0; w < layout.wordsPerNight; w++) {
+            occupied += Long.bitCount(layout.words[base + w]);
+        }
+        return layout.rooms - occupied;
+    }
+
+    /**
+     * The number of rooms of the type that are free for every night of [fromDay, toDay).
+     */
+    public int countFreeForStay(RoomType type, int fromDay, int toDay) {
+        requireCovered(fromDay, toDay);
+        Layout layout = calendars.get(type).layout;
+        int wordsPerNight = layout.wordsPerNight;
+        long[] words = layout.words;
+        int first = (fromDay - firstDay) * wordsPerNight;
+        int end = (toDay - firstDay) * wordsPerNight;
+        int free = 0;
+        for (int w = 0; w < wordsPerNight; w++) {
+            long busy = 0;
+            for (int i = first + w; i < end && busy != -1L; i += wordsPerNight) {
+                busy |= words[i];
+            }
+            free += Long.bitCount(~busy & layout.validBits(w));
+        }
+        return free;
+    }
+
+    /**
+     * Fills {@code counts[i]} with the number of free rooms on night {@code fromDay + i}.
+     */
+    public void countFreePerNight(RoomType type, int fromDay, int[] counts) {
+        requireCovered(fromDay, fromDay + counts.length);
+        Layout layout = calendars.get(type).layout;
+        int wordsPerNight = layout.wordsPerNight;
+        long[] words = layout.words;
+        int base = (fromDay - firstDay) * wordsPerNight;
+        for (int i = 0; i < counts.length; i++, base += wordsPerNight) {
+            int occupied = 0;
+            for (int w = 0; w < wordsPerNight; w++) {
+                occupied += Long.bitCount(words[base + w]);
+            }
+            counts[i] = layout.rooms - occupied;
+        }
+    }
+
+    /**
+     * Adds up one rate per night of [fromDay, toDay), picked by the rooms of the type sold that
+     * night: {@code rates[tierBySold[sold]][night - ratesFromDay]}. Rooms beyond the {@code rooms}
+     * the rates were compiled for count as free, so {@code sold} never leaves the tier lookup.
+     */
+    public long sumRatesBySold(RoomType type, int fromDay, int toDay, int rooms, long[][] rates, byte[] tierBySold, int ratesFromDay) {
+        requireCovered(fromDay, toDay);
+        Layout layout = calendars.get(type).layout;
+        int wordsPerNight = layout.wordsPerNight;
+        long[] words = layout.words;
+        int added = layout.rooms - rooms;
+        int base = (fromDay - firstDay) * wordsPerNight;
+        long total = 0;
+        for (int night = fromDay; night < toDay; night++, base += wordsPerNight) {
+            int occupied = 0;
+            for (int w = 0; w < wordsPerNight; w++) {
+                occupied += Long.bitCount(words[base + w]);
+            }
+            total += rates[tierBySold[Math.max(occupied - added, 0)]][night - ratesFromDay];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the lowest slot of the given type that is free for every night of [fromDay, toDay),
+     * or -1 if there is none.
+     */
+    public int findFirstFree(RoomType type, int fromDay, int toDay) {
+        requireCovered(fromDay, toDay);
+        Layout layout = calendars.get(type).layout;
+        int wordsPerNight = layout.wordsPerNight;
+        long[] words = layout.words;
+        int first = (fromDay - firstDay) * wordsPerNight;
+        int end = (toDay - firstDay) * wordsPerNight;
+        for (int w = 0; w < wordsPerNight; w++) {
+            long busy = 0;
+            for (int i = first + w; i < end && busy != -1L; i += wordsPerNight) {
+                busy |= words[i];
+            }
+            long free = ~busy & layout.validBits(w);
+            if (free != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(free);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Passes every slot of the given type that is free for every night of [fromDay, toDay) to the
+     * action, lowest slot first.
+     */
+    public void forEachFree(RoomType type, int fromDay, int toDay, IntConsumer action) {
+        requireCovered(fromDay, toDay);
+        Layout layout = calendars.get(type).layout;
+        int wordsPerNight = layout.wordsPerNight;
+        long[] words = layout.words;
+        int first = (fromDay - firstDay) * wordsPerNight;
+        int end = (toDay - firstDay) * wordsPerNight;
+        for (int w = 0; w < wordsPerNight; w++) {
+            long busy = 0;
+            for (int i = first + w; i < end && busy != -1L; i += wordsPerNight) {
+                busy |= words[i];
+            }
+            for (long free = ~busy & layout.validBits(w); free != 0; free &= free - 1) {
+                action.accept((w << 6) + Long.numberOfTrailingZeros(free));
+            }
+        }
+    }
+
+    private void requireCovered(int fromDay, int toDay) {
+        if (!covers(fromDay, toDay)) {
+            throw new IllegalArgumentException("Nights " + fromDay + ".." + toDay + " are outside the calendar horizon " + firstDay + ".." + getEndDay());
+        }
+    }
+
+
+    private static final class Layout {
+        private final int rooms;
+        private final int wordsPerNight;
+        private final long[] words;
+
+        Layout(int rooms, int wordsPerNight, long[] words) {
+            this.rooms = rooms;
+            this.wordsPerNight = wordsPerNight;
+            this.words = words;
+        }
+
+        long validBits(int word) {
+            int remaining = rooms - (word << 6);
+            return remaining >= 64 ? -1L : (1L << remaining) - 1;
+        }
+    }
+
+
+    private static final class TypeCalendar {
+        private volatile Layout layout;
+        // Odd while addRoom copies the words into a larger array.
+        private volatile int sequence;
+
+        TypeCalendar(int nights) {
+            layout = new Layout(0, 1, new long[nights]);
+        }
+
+        synchronized int addRoom(int nights) {
+            Layout current = layout;
+            int rooms = current.rooms + 1;
+            int needed = (rooms + 63) >>> 6;
+            if (needed == current.wordsPerNight) {
+                layout = new Layout(rooms, needed, current.words);
+                return rooms - 1;
+            }
+            long[] grown = new long[nights * needed];
+            sequence++;
+            for (int night = 0; night < nights; night++) {
+                for (int w = 0; w < current.wordsPerNight; w++) {
+                    grown[night * needed + w] = (long) WORDS.getVolatile(current.words, night * current.wordsPerNight + w);
+                }
+            }
+            layout = new Layout(rooms, needed, grown);
+            sequence++;
+            return rooms - 1;
+        }
+    }
+}
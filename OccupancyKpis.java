@@ -0,0 +1,144 @@
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+
+/**
+ * OccupancyKpis: rooms sold and room revenue per night and room type, kept up to date as stays are
+ * sold and cancelled so the dashboard never scans the guests or the calendar.
+ *
+ * Every night has a bucket of LongAdders, one pair per room type, so terminals selling
+ * overlapping nights add to the same counters without contending. Reading n nights costs n
+ * bucket lookups.
+ */
+class OccupancyKpis {
+    private static final RoomType[] TYPES = RoomType.values();
+
+    private final ToIntFunction<RoomType> roomCount;
+    private final Map<Integer, NightBucket> nights = new ConcurrentHashMap<>();
+
+    /**
+     * @param roomCount the number of rooms of a type, to measure occupancy against
+     */
+    public OccupancyKpis(ToIntFunction<RoomType> roomCount) {
+        this.roomCount = roomCount;
+    }
+
+    /**
+     * Counts a stay as sold at the nightly rate, in paisa.
+     */
+    public void addStay(RoomType type, int checkInDay, int checkOutDay, long nightlyRate) {
+        update(type, checkInDay, checkOutDay, 1, nightlyRate);
+    }
+
+    /**
+     * Takes back a stay that was counted with {@link #addStay}.
+     */
+    public void removeStay(RoomType type, int checkInDay, int checkOutDay, long nightlyRate) {
+        update(type, checkInDay, checkOutDay, -1, -nightlyRate);
+    }
+
+    /**
+     * The night's figures for one room type, or the whole hotel when the type is null.
+     */
+    public DailyKpis getNight(LocalDate night, RoomType type) {
+        NightBucket bucket = nights.get((int) night.toEpochDay());
+        if (type != null) {
+            return bucket == null
+                    ? new DailyKpis(night, type, roomCount.applyAsInt(type), 0, 0)
+                    : new DailyKpis(night, type, roomCount.applyAsInt(type), bucket.sold[type.ordinal()].sum(), bucket.revenue[type.ordinal()].sum());
+        }
+        int rooms = 0;
+        long sold = 0;
+        long revenue = 0;
+        for (RoomType each : TYPES) {
+            rooms += roomCount.applyAsInt(each);
+            if (bucket != null) {
+                sold += bucket.sold[each.ordinal()].sum();
+                revenue += bucket.revenue[each.ordinal()].sum();
+            }
+        }
+        return new DailyKpis(night, null, rooms, sold, revenue);
+    }
+
+    /**
+     * The figures of every night in [from, to), in date order.
+     */
+    public List<DailyKpis> getNights(LocalDate from, LocalDate to, RoomType type) {
+        List<DailyKpis> result = new ArrayList<>();
+        for (LocalDate night = from; night.isBefore(to); night = night.plusDays(1)) {
+            result.add(getNight(night, type));
+        }
+        return result;
+    }
+
+    /**
+     * The figures of [from, to) added up into one, e.g. for a month.
+     */
+    public DailyKpis getPeriod(LocalDate from, LocalDate to, RoomType type) {
+        int rooms = 0;
+        long sold = 0;
+        long revenue = 0;
+        for (DailyKpis night : getNights(from, to, type)) {
+            rooms += night.rooms();
+            sold += night.roomsSold();
+            revenue += night.roomRevenue();
+        }
+        return new DailyKpis(from, type, rooms, sold, revenue);
+    }
+
+
+    interface NightVisitor {
+        void visit(int epochDay, RoomType type, long roomsSold, long roomRevenue);
+    }
+
+    void forEachNight(NightVisitor visitor) {
+        nights.forEach((day, bucket) -> {
+            for (RoomType type : TYPES) {
+                long sold = bucket.sold[type.ordinal()].sum();
+                long revenue = bucket.revenue[type.ordinal()].sum();
+                if (sold != 0 || revenue != 0) {
+                    visitor.visit(day, type, sold, revenue);
+                }
+            }
+        });
+    }
+
+    /**
+     * Overwrites the night's figures for the type; used to load a snapshot, with nothing else
+     * updating the figures.
+     */
+    void restoreNight(int epochDay, RoomType type, long roomsSold, long roomRevenue) {
+        NightBucket bucket = nights.computeIfAbsent(epochDay, day -> new NightBucket());
+        bucket.sold[type.ordinal()].reset();
+        bucket.sold[type.ordinal()].add(roomsSold);
+        bucket.revenue[type.ordinal()].reset();
+        bucket.revenue[type.ordinal()].add(roomRevenue);
+    }
+
+    private void update(RoomType type, int checkInDay, int checkOutDay, int rooms, long revenue) {
+        for (int day = checkInDay; day < checkOutDay; day++) {
+            NightBucket bucket = nights.computeIfAbsent(day, key -> new NightBucket());
+            bucket.sold[type.ordinal()].add(rooms);
+            bucket.revenue[type.ordinal()].add(revenue);
+        }
+    }
+
+
+    private static final class NightBucket {
+        private final LongAdder[] sold = new LongAdder[TYPES.length];
+        private final LongAdder[] revenue = new LongAdder[TYPES.length];
+
+        NightBucket() {
+            for (int i = 0; i < TYPES.length; i++) {
+                sold[i] = new LongAdder();
+                revenue[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+
+/**
+ * OccupancyTier: once at least {@code minOccupancyBasisPoints} of the rooms of a type are sold for
+ * a night, the night is sold at {@code basisPoints} of its rate.
+ */
+record OccupancyTier(int minOccupancyBasisPoints, int basisPoints) {
+}
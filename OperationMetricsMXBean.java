@@ -0,0 +1,22 @@
+
+/**
+ * OperationMetricsMXBean: the figures of one hotel operation, such as a reservation or a check-in,
+ * since the service started. Published as {@code hotel:type=Operation,name=<operation>}.
+ */
+public interface OperationMetricsMXBean {
+    long getCount();
+
+    long getFailures();
+
+    long getCountLastMinute();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
@@ -0,0 +1,113 @@
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * OperationTimer: how often one operation has run, how often it failed and how long it took, kept
+ * without a lock.
+ *
+ * The count of the last minute comes from a ring of 64 counters, one per tick of 2^30 ns, just
+ * over a second, so the tick is a shift of the clock rather than a division. Each counter holds
+ * the tick it counts in its upper bits, so the first operation of a new tick takes the slot over
+ * in the same compare-and-set that counts it.
+ */
+class OperationTimer implements OperationMetricsMXBean {
+    private static final int SLOTS = 64;
+    private static final int COUNT_BITS = 40;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long TICK_MASK = (1L << (Long.SIZE - COUNT_BITS)) - 1;
+    private static final int TICK_SHIFT = 30;
+    private static final int TICKS_PER_MINUTE = 56;
+
+    private final HotelOperation operation;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLongArray ticks = new AtomicLongArray(SLOTS);
+
+    OperationTimer(HotelOperation operation) {
+        this.operation = operation;
+    }
+
+    public HotelOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Records one run that started at the given {@link System#nanoTime} and ends now.
+     */
+    public void record(long startNanos, boolean succeeded) {
+        long now = System.nanoTime();
+        latency.record(now - startNanos);
+        if (!succeeded) {
+            failures.increment();
+        }
+        long tick = (now >>> TICK_SHIFT) & TICK_MASK;
+        int slot = (int) tick & (SLOTS - 1);
+        long current;
+        long next;
+        do {
+            current = ticks.get(slot);
+            next = current >>> COUNT_BITS == tick ? current + 1 : tick << COUNT_BITS | 1;
+        } while (!ticks.compareAndSet(slot, current, next));
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * The runs that ended in the current tick and the 56 before it, about the last minute.
+     */
+    @Override
+    public long getCountLastMinute() {
+        long now = (System.nanoTime() >>> TICK_SHIFT) & TICK_MASK;
+        long count = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            long value = ticks.get(slot);
+            if (((now - (value >>> COUNT_BITS)) & TICK_MASK) <= TICKS_PER_MINUTE) {
+                count += value & COUNT_MASK;
+            }
+        }
+        return count;
+    }
+
+    public LatencySummary getLatency() {
+        return latency.summarize();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return micros(latency.summarize().mean());
+    }
+
+    @Override
+    public double getP50Micros() {
+        return micros(latency.percentile(0.50));
+    }
+
+    @Override
+    public double getP99Micros() {
+        return micros(latency.percentile(0.99));
+    }
+
+    @Override
+    public double getP999Micros() {
+        return micros(latency.percentile(0.999));
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return micros(latency.summarize().max());
+    }
+
+    static double micros(long nanos) {
+        return nanos / 1_000.0;
+    }
+}
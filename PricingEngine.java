@@ -0,0 +1,242 @@
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * PricingEngine: room rates by type and night, from a base rate per type adjusted by season, day
+ * of the week and how full the night already is.
+ *
+ * The rules are compiled into a RateTable: for every room type and occupancy tier, one array with
+ * the price of every night of the calendar horizon, plus a lookup from rooms sold to tier. A change
+ * of rule compiles and publishes a new table behind one volatile reference, so quoting never
+ * evaluates a rule: it reads the rooms sold per night from the occupancy bitsets and adds up one
+ * array element per night. Nights outside the horizon are priced from the rules at the lowest tier.
+ */
+class PricingEngine {
+    private static final int BASIS_POINTS = 10_000;
+    private static final RoomType[] TYPES = RoomType.values();
+
+    private final RoomInventory inventory;
+    private final Map<RoomType, Long> baseRates = new EnumMap<>(RoomType.class);
+    private final int[] dayOfWeekBasisPoints = new int[DayOfWeek.values().length];
+    private final List<SeasonalRate> seasons = new ArrayList<>();
+    private List<OccupancyTier> tiers = List.of();
+    private volatile RateTable table;
+    private volatile long rulesVersion;
+
+    public PricingEngine(RoomInventory inventory) {
+        this.inventory = inventory;
+        Arrays.fill(dayOfWeekBasisPoints, BASIS_POINTS);
+        for (RoomType type : TYPES) {
+            baseRates.put(type, 0L);
+        }
+        publish();
+    }
+
+    /**
+     * The rates the hotel has always charged: a flat rate per room type.
+     */
+    public static PricingEngine standard(RoomInventory inventory) {
+        PricingEngine pricing = new PricingEngine(inventory);
+        for (RoomType type : TYPES) {
+            pricing.setBaseRate(type, standardRate(type));
+        }
+        return pricing;
+    }
+
+    static long standardRate(RoomType type) {
+        return switch (type) {
+            case SINGLE -> 2_500_00;
+            case DOUBLE -> 3_500_00;
+        };
+    }
+
+    public synchronized void setBaseRate(RoomType type, long nightlyRate) {
+        if (nightlyRate < 0) {
+            throw new IllegalArgumentException("Rate must not be negative: " + nightlyRate);
+        }
+        baseRates.put(type, nightlyRate);
+        publish();
+    }
+
+    public synchronized void setDayOfWeekRate(DayOfWeek day, int basisPoints) {
+        requireBasisPoints(basisPoints);
+        dayOfWeekBasisPoints[day.ordinal()] = basisPoints;
+        publish();
+    }
+
+    /**
+     * Adds a season; where seasons overlap, the one added last applies.
+     */
+    public synchronized void addSeason(SeasonalRate season) {
+        if (!season.to().isAfter(season.from())) {
+            throw new IllegalArgumentException("Season must end after it starts: " + season);
+        }
+        requireBasisPoints(season.basisPoints());
+        seasons.add(season);
+        publish();
+    }
+
+    public synchronized boolean removeSeason(SeasonalRate season) {
+        if (!seasons.remove(season)) {
+            return false;
+        }
+        publish();
+        return true;
+    }
+
+    /**
+     * Replaces the occupancy tiers; a night is priced at the highest tier its occupancy reaches.
+     */
+    public synchronized void setOccupancyTiers(List<OccupancyTier> occupancyTiers) {
+        List<OccupancyTier> sorted = new ArrayList<>(occupancyTiers);
+        for (OccupancyTier tier : sorted) {
+            requireBasisPoints(tier.basisPoints());
+            if (tier.minOccupancyBasisPoints() <= 0 || tier.minOccupancyBasisPoints() > BASIS_POINTS) {
+                throw new IllegalArgumentException("Occupancy must be above 0 and at most 10000 basis points: " + tier);
+            }
+        }
+        sorted.sort(Comparator.comparingInt(OccupancyTier::minOccupancyBasisPoints));
+        tiers = List.copyOf(sorted);
+        publish();
+    }
+
+    /**
+     * Changes whenever the rules do, so a price worked out earlier can be told apart from one the
+     * current rules would give.
+     */
+    public long getRulesVersion() {
+        return rulesVersion;
+    }
+
+    /**
+     * The room charges of the stay at the current rules and occupancy.
+     */
+    public StayQuote quote(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Check-out " + checkOut + " must be after check-in " + checkIn);
+        }
+        int in = (int) checkIn.toEpochDay();
+        int out = (int) checkOut.toEpochDay();
+        return new StayQuote(type, checkIn, checkOut, out - in, roomCharges(type, in, out));
+    }
+
+    /**
+     * The rate of one night at the current rules and occupancy.
+     */
+    public long nightlyRate(RoomType type, LocalDate night) {
+        int day = (int) night.toEpochDay();
+        return roomCharges(type, day, day + 1);
+    }
+
+    private long roomCharges(RoomType type, int in, int out) {
+        RateTable current = current();
+        int rooms = current.rooms[type.ordinal()];
+        int first = Math.max(in, current.firstDay);
+        int end = Math.min(out, current.endDay);
+        long total = 0;
+        if (first < end) {
+            // Straight off the occupancy bitsets; a room added since the table was checked only shows up as one more free room.
+            total += inventory.sumRatesBySold(type, first, end, rooms, current.prices[type.ordinal()], current.tierBySold[type.ordinal()], current.firstDay);
+        }
+        for (int day = in; day < Math.min(out, current.firstDay); day++) {
+            total += current.rules.rate(type, day, 0);
+        }
+        for (int day = Math.max(in, current.endDay); day < out; day++) {
+            total += current.rules.rate(type, day, 0);
+        }
+        return total;
+    }
+
+    /**
+     * The published table, compiled again first if rooms were added since, which moves the
+     * occupancy at which each tier starts.
+     */
+    private RateTable current() {
+        RateTable current = table;
+        for (RoomType type : TYPES) {
+            if (current.rooms[type.ordinal()] != inventory.getRoomCount(type)) {
+                synchronized (this) {
+                    publish();
+                    return table;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Compiles the rules and publishes the table before the new version, so whoever sees the new
+     * version also sees the table.
+     */
+    private void publish() {
+        table = compile();
+        rulesVersion++;
+    }
+
+    private RateTable compile() {
+        Rules rules = new Rules(new EnumMap<>(baseRates), dayOfWeekBasisPoints.clone(), List.copyOf(seasons), tiers);
+        int firstDay = inventory.getFirstDay();
+        int nights = inventory.getEndDay() - firstDay;
+        int[] rooms = new int[TYPES.length];
+        long[][][] prices = new long[TYPES.length][tiers.size() + 1][nights];
+        byte[][] tierBySold = new byte[TYPES.length][];
+        for (RoomType type : TYPES) {
+            int t = type.ordinal();
+            rooms[t] = inventory.getRoomCount(type);
+            for (int tier = 0; tier <= tiers.size(); tier++) {
+                for (int night = 0; night < nights; night++) {
+                    prices[t][tier][night] = rules.rate(type, firstDay + night, tier);
+                }
+            }
+            tierBySold[t] = new byte[rooms[t] + 1];
+            for (int sold = 0; sold <= rooms[t]; sold++) {
+                long occupancy = rooms[t] == 0 ? 0 : (long) sold * BASIS_POINTS / rooms[t];
+                byte tier = 0;
+                while (tier < tiers.size() && tiers.get(tier).minOccupancyBasisPoints() <= occupancy) {
+                    tier++;
+                }
+                tierBySold[t][sold] = tier;
+            }
+        }
+        return new RateTable(rules, firstDay, firstDay + nights, rooms, prices, tierBySold);
+    }
+
+    private static void requireBasisPoints(int basisPoints) {
+        if (basisPoints < 0) {
+            throw new IllegalArgumentException("Basis points must not be negative: " + basisPoints);
+        }
+    }
+
+
+    private record Rules(Map<RoomType, Long> baseRates, int[] dayOfWeekBasisPoints, List<SeasonalRate> seasons, List<OccupancyTier> tiers) {
+        /**
+         * The rate of the night at the given tier, 0 being below every occupancy tier.
+         */
+        long rate(RoomType type, int epochDay, int tier) {
+            long rate = BillingEngine.percentage(baseRates.get(type), dayOfWeekBasisPoints[LocalDate.ofEpochDay(epochDay).getDayOfWeek().ordinal()]);
+            for (int s = seasons.size() - 1; s >= 0; s--) {
+                if (seasons.get(s).covers(type, epochDay)) {
+                    rate = BillingEngine.percentage(rate, seasons.get(s).basisPoints());
+                    break;
+                }
+            }
+            return tier == 0 ? rate : BillingEngine.percentage(rate, tiers.get(tier - 1).basisPoints());
+        }
+    }
+
+
+    /**
+     * RateTable: the compiled rules. {@code prices[type][tier][night - firstDay]} is the rate of a
+     * night and {@code tierBySold[type][roomsSold]} the tier a night is priced at.
+     */
+    private record RateTable(Rules rules, int firstDay, int endDay, int[] rooms, long[][][] prices, byte[][] tierBySold) {
+    }
+}
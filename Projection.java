@@ -0,0 +1,8 @@
+
+/**
+ * Projection: a read model built from the event log. Its runner hands it every event in order,
+ * from one thread.
+ */
+interface Projection {
+    void apply(LoggedEvent event);
+}
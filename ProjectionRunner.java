@@ -0,0 +1,97 @@
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * ProjectionRunner: keeps one projection up to date with the event log from a daemon thread of
+ * its own, so building it never holds up the terminal that made the change. It starts from the
+ * first event, so a projection added later is built from the whole log.
+ *
+ * An event the projection fails on is counted and skipped; one bad event should not stop the
+ * read model from following the rest.
+ */
+class ProjectionRunner {
+    private static final int BATCH = 256;
+    private static final long IDLE_WAIT_MILLIS = 1_000;
+
+    private final EventLog log;
+    private final Projection projection;
+    private final Thread worker;
+    private final LongAdder failures = new LongAdder();
+    private volatile long position;
+
+    public ProjectionRunner(String name, EventLog log, Projection projection) {
+        this.log = log;
+        this.projection = projection;
+        this.worker = new Thread(this::run, "projection-" + name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public Projection getProjection() {
+        return projection;
+    }
+
+    /**
+     * The sequence of the last event the projection has seen.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Events appended that the projection has yet to see.
+     */
+    public long getLag() {
+        return Math.max(0, log.getLastSequence() - position);
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Waits until the projection has seen the event with the given sequence or the timeout passes,
+     * and returns whether it has. A terminal that wants to read its own change waits for the
+     * sequence the change was logged at.
+     */
+    public boolean awaitPosition(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (this) {
+            for (long remaining = timeoutMillis; position < sequence && remaining > 0; remaining = deadline - System.currentTimeMillis()) {
+                wait(remaining);
+            }
+            return position >= sequence;
+        }
+    }
+
+    public void close() {
+        worker.interrupt();
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long from = position;
+                if (log.read(from, BATCH, this::applyOne) == 0) {
+                    log.awaitAfter(from, IDLE_WAIT_MILLIS);
+                    continue;
+                }
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void applyOne(LoggedEvent event) {
+        try {
+            projection.apply(event);
+        } catch (RuntimeException e) {
+            failures.increment();
+        }
+        position = event.sequence();
+    }
+}
@@ -0,0 +1,171 @@
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+
+/**
+ * QuoteCache: recent answers to "is this room type free for these nights, and for how much",
+ * keyed by room type, stay and number of guests.
+ *
+ * Every room type has a version per night of the calendar horizon, raised whenever a booking of a
+ * room of that type is added or removed on that night. An entry remembers the sum of the versions
+ * of its nights and the pricing rules' version when it was worked out; a lookup adds the versions
+ * up again and treats the entry as gone if either differs. A booking change so invalidates exactly
+ * the quotes of its type that share a night with it, at the cost of a few increments, and never
+ * looks at the entries themselves. The versions are read before the quote is worked out, so a
+ * change that races with it only makes the entry stale sooner.
+ *
+ * Entries also expire after a fixed time. The cache is split into segments by key, each a
+ * least-recently-used map under its own lock, so lookups of different stays rarely contend.
+ */
+class QuoteCache implements RoomInventory.BookingListener {
+    private static final int SEGMENTS = 16;
+
+    private final RoomInventory inventory;
+    private final PricingEngine pricing;
+    private final long timeToLiveMillis;
+    private final LongSupplier clock;
+    private final int firstDay;
+    private final int endDay;
+    // Per room type, one version per night of the horizon and a last one for the nights outside it.
+    private final AtomicLongArray[] versions = new AtomicLongArray[RoomType.values().length];
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public QuoteCache(RoomInventory inventory, PricingEngine pricing, int maxEntries, long timeToLiveMillis) {
+        this(inventory, pricing, maxEntries, timeToLiveMillis, System::currentTimeMillis);
+    }
+
+    QuoteCache(RoomInventory inventory, PricingEngine pricing, int maxEntries, long timeToLiveMillis, LongSupplier clock) {
+        if (maxEntries < SEGMENTS) {
+            throw new IllegalArgumentException("maxEntries must be at least " + SEGMENTS + ": " + maxEntries);
+        }
+        this.inventory = inventory;
+        this.pricing = pricing;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.clock = clock;
+        this.firstDay = inventory.getFirstDay();
+        this.endDay = inventory.getEndDay();
+        for (int t = 0; t < versions.length; t++) {
+            versions[t] = new AtomicLongArray(endDay - firstDay + 1);
+        }
+        for (int s = 0; s < SEGMENTS; s++) {
+            segments[s] = new Segment(maxEntries / SEGMENTS);
+        }
+    }
+
+    public RoomQuote get(RoomType type, LocalDate checkIn, LocalDate checkOut, int guests) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Check-out " + checkOut + " must be after check-in " + checkIn);
+        }
+        int in = (int) checkIn.toEpochDay();
+        int out = (int) checkOut.toEpochDay();
+        Key key = new Key(type, in, out, guests);
+        Segment segment = segments[(key.hashCode() & 0x7fffffff) % SEGMENTS];
+        long stamp = stamp(type, in, out);
+        long rulesVersion = pricing.getRulesVersion();
+        long now = clock.getAsLong();
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry != null && (entry.stamp != stamp || entry.rulesVersion != rulesVersion || now >= entry.expiresAtMillis)) {
+                segment.remove(key);
+                stale.increment();
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            hits.increment();
+            return entry.quote;
+        }
+        misses.increment();
+        RoomQuote quote = new RoomQuote(type, checkIn, checkOut, guests, inventory.countFreeRooms(type, in, out),
+                pricing.quote(type, checkIn, checkOut).roomCharges());
+        synchronized (segment) {
+            segment.put(key, new Entry(quote, stamp, rulesVersion, now + timeToLiveMillis));
+        }
+        return quote;
+    }
+
+    @Override
+    public void booked(String roomNumber, int checkInDay, int checkOutDay) {
+        invalidate(inventory.getRoomType(roomNumber), checkInDay, checkOutDay);
+    }
+
+    @Override
+    public void released(String roomNumber, int checkInDay, int checkOutDay) {
+        invalidate(inventory.getRoomType(roomNumber), checkInDay, checkOutDay);
+    }
+
+    /**
+     * Makes every quote of the type that includes one of the nights of [checkInDay, checkOutDay)
+     * stale.
+     */
+    public void invalidate(RoomType type, int checkInDay, int checkOutDay) {
+        AtomicLongArray nights = versions[type.ordinal()];
+        if (checkInDay < firstDay || checkOutDay > endDay) {
+            nights.incrementAndGet(endDay - firstDay);
+        }
+        for (int day = Math.max(checkInDay, firstDay); day < Math.min(checkOutDay, endDay); day++) {
+            nights.incrementAndGet(day - firstDay);
+        }
+    }
+
+    public QuoteCacheStats getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new QuoteCacheStats(hits.sum(), misses.sum(), stale.sum(), evictions.sum(), size);
+    }
+
+    private long stamp(RoomType type, int in, int out) {
+        AtomicLongArray nights = versions[type.ordinal()];
+        long stamp = 0;
+        if (in < firstDay || out > endDay) {
+            stamp += nights.get(endDay - firstDay);
+        }
+        for (int day = Math.max(in, firstDay); day < Math.min(out, endDay); day++) {
+            stamp += nights.get(day - firstDay);
+        }
+        return stamp;
+    }
+
+
+    private record Key(RoomType type, int checkInDay, int checkOutDay, int guests) {
+    }
+
+
+    private record Entry(RoomQuote quote, long stamp, long rulesVersion, long expiresAtMillis) {
+    }
+
+
+    private final class Segment extends LinkedHashMap<Key, Entry> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
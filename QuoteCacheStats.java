@@ -0,0 +1,11 @@
+
+/**
+ * QuoteCacheStats: how a QuoteCache has been doing since it was created. A stale lookup found an
+ * entry whose nights had changed since and counts as a miss too.
+ */
+record QuoteCacheStats(long hits, long misses, long stale, long evictions, int size) {
+    double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,7 @@
+
+/**
+ * ReoptimizationReport: what a re-optimization of one room type did. Orphan nights are free
+ * nights from today on, between bookings, in runs too short to sell.
+ */
+record ReoptimizationReport(RoomType roomType, int movableBookings, int moved, int orphanNightsBefore, int orphanNightsAfter) {
+}
@@ -0,0 +1,68 @@
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+
+/**
+ * ReportingView: the hotel's activity per day, for the reports. Each day's figures are one
+ * immutable record replaced as events arrive, so a report reads consistent figures for every day
+ * without a lock.
+ */
+class ReportingView implements Projection {
+    private final ZoneId zone;
+    private final NavigableMap<LocalDate, DailyActivity> days = new ConcurrentSkipListMap<>();
+
+    public ReportingView(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    @Override
+    public void apply(LoggedEvent logged) {
+        LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(logged.timestampMillis()), zone);
+        DomainEvent event = logged.event();
+        DailyActivity change = null;
+        if (event instanceof ReservationMade) {
+            change = new DailyActivity(day, 1, 0, 0, 0, 0, 0, 0, 0);
+        } else if (event instanceof ReservationCancelled) {
+            change = new DailyActivity(day, 0, 1, 0, 0, 0, 0, 0, 0);
+        } else if (event instanceof GuestCheckedIn) {
+            change = new DailyActivity(day, 0, 0, 1, 0, 0, 0, 0, 0);
+        } else if (event instanceof GuestCheckedOut checkedOut) {
+            change = new DailyActivity(day, 0, 0, 0, 1, checkedOut.billed(), 0, 0, 0);
+        } else if (event instanceof ChargePosted charge) {
+            change = new DailyActivity(day, 0, 0, 0, 0, 0, charge.amount(), 0, 0);
+        } else if (event instanceof DineInServed served) {
+            change = new DailyActivity(day, 0, 0, 0, 0, 0, 0, 1, served.total());
+        }
+        if (change != null) {
+            days.merge(day, change, DailyActivity::plus);
+        }
+    }
+
+    public DailyActivity getDay(LocalDate day) {
+        return days.getOrDefault(day, DailyActivity.empty(day));
+    }
+
+    /**
+     * Every day in [from, to) with any activity, in date order.
+     */
+    public List<DailyActivity> getDays(LocalDate from, LocalDate to) {
+        return new ArrayList<>(days.subMap(from, true, to, false).values());
+    }
+
+    /**
+     * The activity of [from, to) added up, dated {@code from}.
+     */
+    public DailyActivity getTotal(LocalDate from, LocalDate to) {
+        DailyActivity total = DailyActivity.empty(from);
+        for (DailyActivity day : days.subMap(from, true, to, false).values()) {
+            total = total.plus(day);
+        }
+        return total;
+    }
+}
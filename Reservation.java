@@ -0,0 +1,15 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * Reservation: a stay booked through HotelService.reserve; the nightly rate is in paisa.
+ * {@code flexibleRoom} is set when the guest left the room to the hotel, which may then move the
+ * stay to another room of the type.
+ */
+record Reservation(String guestName, String phoneNumber, String email, String roomNumber, RoomType roomType,
+                   LocalDate checkIn, LocalDate checkOut, int numberOfGuests, long nightlyRate, boolean flexibleRoom) {
+    Reservation inRoom(String roomNumber) {
+        return new Reservation(guestName, phoneNumber, email, roomNumber, roomType, checkIn, checkOut, numberOfGuests, nightlyRate, flexibleRoom);
+    }
+}
@@ -0,0 +1,6 @@
+
+/**
+ * ReservationCancelled: a reservation was cancelled and its nights freed.
+ */
+record ReservationCancelled(Reservation reservation) implements DomainEvent {
+}
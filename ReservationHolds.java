@@ -0,0 +1,160 @@
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+
+/**
+ * ReservationHolds: the holds in place, each expiring on its own unless it is taken first.
+ *
+ * The expiry times are kept on a {@link HierarchicalTimingWheel} that one daemon thread advances
+ * every tick, so tens of thousands of holds cost one thread and a few objects each, and an expiry
+ * is O(1) however many are pending. A hold is settled by whoever removes it from the map first:
+ * {@link #take} for a confirmation or a release, or the expiry thread, which then hands it to the
+ * expiry action. The loser finds nothing, so a hold is never both confirmed and expired. A hold
+ * whose expiry action throws is put back and expires again at the next tick, since its room is
+ * still booked for it and nothing else would free it.
+ */
+class ReservationHolds {
+    /**
+     * Holder: a hold and its timeout on the wheel, which is null until it is armed.
+     */
+    private static final class Holder {
+        final RoomHold hold;
+        volatile HierarchicalTimingWheel.Timeout<RoomHold> timeout;
+
+        Holder(RoomHold hold) {
+            this.hold = hold;
+        }
+    }
+
+    private final Map<Long, Holder> holds = new ConcurrentHashMap<>();
+    private final HierarchicalTimingWheel<RoomHold> wheel;
+    private final Consumer<RoomHold> onExpiry;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final Thread expirer;
+
+    public ReservationHolds(long tickMillis, Consumer<RoomHold> onExpiry) {
+        this.wheel = new HierarchicalTimingWheel<>(TimeUnit.MILLISECONDS.toNanos(tickMillis), System.nanoTime());
+        this.onExpiry = onExpiry;
+        this.expirer = new Thread(this::run, "hold-expiry");
+        this.expirer.setDaemon(true);
+        this.expirer.start();
+    }
+
+    public long nextId() {
+        return nextId.getAndIncrement();
+    }
+
+    /**
+     * Puts the hold in place and starts its clock. The room must already be booked for it.
+     */
+    public void place(RoomHold hold) {
+        Holder holder = new Holder(hold);
+        // In the map before it is on the wheel, so an expiry always finds it.
+        holds.put(hold.id(), holder);
+        arm(holder);
+    }
+
+    /**
+     * Settles the hold for the caller, who then owns its room: it can no longer expire. Null if it
+     * has already expired or been taken.
+     */
+    public RoomHold take(long id) {
+        Holder holder = holds.remove(id);
+        if (holder == null) {
+            return null;
+        }
+        HierarchicalTimingWheel.Timeout<RoomHold> timeout = holder.timeout;
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+        return holder.hold;
+    }
+
+    public RoomHold get(long id) {
+        Holder holder = holds.get(id);
+        return holder == null ? null : holder.hold;
+    }
+
+    public int size() {
+        return holds.size();
+    }
+
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    /**
+     * Expiry actions that threw; the holds they were for are put back and tried again.
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public void forEach(Consumer<RoomHold> action) {
+        holds.values().forEach(holder -> action.accept(holder.hold));
+    }
+
+    /**
+     * Puts back a hold read from the journal without starting its clock, so it cannot expire while
+     * the rest of the journal is still being replayed. {@link #armRestored} starts it.
+     */
+    void restore(RoomHold hold) {
+        holds.putIfAbsent(hold.id(), new Holder(hold));
+        nextId.accumulateAndGet(hold.id() + 1, Math::max);
+    }
+
+    /**
+     * Starts the clock of every restored hold; one that ran out while the hotel was down expires
+     * at the next tick.
+     */
+    void armRestored() {
+        for (Holder holder : holds.values()) {
+            if (holder.timeout == null) {
+                arm(holder);
+            }
+        }
+    }
+
+    public void close() {
+        expirer.interrupt();
+    }
+
+    private void arm(Holder holder) {
+        long remainingMillis = holder.hold.expiresAtMillis() - System.currentTimeMillis();
+        holder.timeout = wheel.schedule(holder.hold, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis)));
+    }
+
+    private void run() {
+        long tickMillis = TimeUnit.NANOSECONDS.toMillis(wheel.getTickNanos());
+        List<RoomHold> due = new ArrayList<>();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.sleep(tickMillis);
+                wheel.advance(System.nanoTime(), due);
+                for (RoomHold hold : due) {
+                    if (holds.remove(hold.id()) != null) {
+                        try {
+                            onExpiry.accept(hold);
+                            expired.increment();
+                        } catch (RuntimeException e) {
+                            failures.increment();
+                            place(hold);
+                        }
+                    }
+                }
+                due.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
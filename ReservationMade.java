@@ -0,0 +1,6 @@
+
+/**
+ * ReservationMade: a reservation was booked, directly, from a hold or from the waitlist.
+ */
+record ReservationMade(Reservation reservation) implements DomainEvent {
+}
@@ -0,0 +1,6 @@
+
+/**
+ * ReservationMoved: a re-optimization moved the reservation to another room of its type.
+ */
+record ReservationMoved(Reservation reservation, String toRoom) implements DomainEvent {
+}
@@ -0,0 +1,13 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * ReservationRequest: the guest's details and the stay to book. A null {@code roomNumber} leaves
+ * the choice of room to the hotel.
+ */
+record ReservationRequest(String guestName, String phoneNumber, String email, String address, LocalDate checkIn, LocalDate checkOut, RoomType roomType, String roomNumber, int numberOfGuests) {
+    ReservationRequest inRoom(String roomNumber) {
+        return new ReservationRequest(guestName, phoneNumber, email, address, checkIn, checkOut, roomType, roomNumber, numberOfGuests);
+    }
+}
@@ -0,0 +1,7 @@
+
+/**
+ * ReservationResponse: the room booked and the invoice for the stay, when the reservation went
+ * through.
+ */
+record ReservationResponse(ServiceStatus status, String roomNumber, Invoice invoice) {
+}
@@ -0,0 +1,225 @@
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.IntSupplier;
+
+
+/**
+ * RoomAllocator: chooses the room for a stay when the guest does not ask for one.
+ *
+ * First fit fills rooms in order and leaves one- and two-night holes between bookings that no
+ * later stay fits into. Best fit instead places the stay where the bookings either side of it
+ * leave the least free time around it: a free run the stay closes exactly costs nothing, a short
+ * run left over costs a little, and a run too short to sell costs far more than any other. Each
+ * free room is scored from the two bookings around the stay, which its calendar finds in one
+ * lookup, so a choice costs a scan over the free rooms of the type.
+ *
+ * {@link #reoptimize} plans the future bookings that may move again from scratch, longest first
+ * within each check-in day, and moves them all at once if that leaves fewer orphan nights.
+ */
+class RoomAllocator {
+    static final int MIN_SELLABLE_NIGHTS = 2;
+    // A free run this long is as easy to sell as an open calendar.
+    private static final int OPEN_RUN_NIGHTS = 28;
+    private static final long ORPHAN_NIGHT_COST = 1_000;
+    private static final int REPLAN_ATTEMPTS = 3;
+
+    private final RoomInventory inventory;
+    private final IntSupplier today;
+
+    public RoomAllocator(RoomInventory inventory) {
+        this(inventory, () -> (int) LocalDate.now().toEpochDay());
+    }
+
+    /**
+     * @param today the epoch day from which nights can still be sold
+     */
+    RoomAllocator(RoomInventory inventory, IntSupplier today) {
+        this.inventory = inventory;
+        this.today = today;
+    }
+
+    /**
+     * Returns the room of the type that the stay fits best, or null if none is free for it.
+     */
+    public String findBestFit(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        requireRange(checkIn, checkOut);
+        return findBestFit(type, (int) checkIn.toEpochDay(), (int) checkOut.toEpochDay());
+    }
+
+    /**
+     * Books the room of the type that the stay fits best and returns its number, or null if every
+     * room of the type is taken for some night of it.
+     */
+    public String bookBestFit(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        requireRange(checkIn, checkOut);
+        int in = (int) checkIn.toEpochDay();
+        int out = (int) checkOut.toEpochDay();
+        while (true) {
+            String roomNumber = findBestFit(type, in, out);
+            // Losing a race only means the room is taken now, so scoring again skips it.
+            if (roomNumber == null || inventory.book(roomNumber, in, out)) {
+                return roomNumber;
+            }
+        }
+    }
+
+    private String findBestFit(RoomType type, int in, int out) {
+        int sellableFrom = today.getAsInt();
+        BestFit best = new BestFit();
+        inventory.forEachFreeRoom(type, in, out, (roomNumber, previousCheckOut, nextCheckIn) -> {
+            long cost = cost(sellableFrom, previousCheckOut, in, out, nextCheckIn);
+            if (cost < best.cost) {
+                best.cost = cost;
+                best.roomNumber = roomNumber;
+            }
+        });
+        return best.roomNumber;
+    }
+
+    /**
+     * Moves the future reservations of the type that were not booked into a particular room so
+     * that fewer nights are left unsellable. The plan is made on a copy of the calendars and then
+     * applied in one step; if a terminal books one of its rooms in between, it is made again.
+     * Reservations of other types, that start today or earlier, or that no longer hold their room
+     * are left where they are.
+     *
+     * @param applied called with the moves once they are made, to update whatever else records
+     *                where each reservation is
+     */
+    public ReoptimizationReport reoptimize(RoomType type, Collection<Reservation> reservations, MoveListener applied) {
+        int sellableFrom = today.getAsInt();
+        for (int attempt = 1; ; attempt++) {
+            Map<String, TreeMap<Integer, Integer>> plan = copyCalendars(type);
+            int orphansBefore = countOrphanNights(plan, sellableFrom);
+            List<Reservation> movable = new ArrayList<>();
+            for (Reservation reservation : reservations) {
+                int in = (int) reservation.checkIn().toEpochDay();
+                TreeMap<Integer, Integer> bookings = plan.get(reservation.roomNumber());
+                if (reservation.roomType() == type && reservation.flexibleRoom() && in > sellableFrom
+                        && bookings != null && bookings.remove(in, (int) reservation.checkOut().toEpochDay())) {
+                    movable.add(reservation);
+                }
+            }
+            movable.sort(Comparator.comparing(Reservation::checkIn).thenComparing(Reservation::checkOut, Comparator.reverseOrder()));
+
+            List<RoomMove> moves = new ArrayList<>();
+            for (Reservation reservation : movable) {
+                int in = (int) reservation.checkIn().toEpochDay();
+                int out = (int) reservation.checkOut().toEpochDay();
+                String roomNumber = placeBestFit(plan, sellableFrom, in, out);
+                if (roomNumber == null) {
+                    // Placed in this order the stays no longer all fit; keep them where they are.
+                    return new ReoptimizationReport(type, movable.size(), 0, orphansBefore, orphansBefore);
+                }
+                if (!roomNumber.equals(reservation.roomNumber())) {
+                    moves.add(new RoomMove(reservation.roomNumber(), roomNumber, in, out));
+                }
+            }
+            int orphansAfter = countOrphanNights(plan, sellableFrom);
+            if (moves.isEmpty() || orphansAfter >= orphansBefore) {
+                return new ReoptimizationReport(type, movable.size(), 0, orphansBefore, orphansBefore);
+            }
+            if (inventory.moveAll(moves)) {
+                applied.moved(moves);
+                return new ReoptimizationReport(type, movable.size(), moves.size(), orphansBefore, orphansAfter);
+            }
+            if (attempt == REPLAN_ATTEMPTS) {
+                return new ReoptimizationReport(type, movable.size(), 0, orphansBefore, orphansBefore);
+            }
+        }
+    }
+
+    /**
+     * Orphan nights of the type from today on, as the calendars stand.
+     */
+    public int countOrphanNights(RoomType type) {
+        return countOrphanNights(copyCalendars(type), today.getAsInt());
+    }
+
+
+    interface MoveListener {
+        void moved(List<RoomMove> moves);
+    }
+
+    /**
+     * Lower is better. The run before the stay only counts from the first night that can still
+     * be sold; the run after an open calendar counts as open.
+     */
+    static long cost(int sellableFrom, int previousCheckOut, int in, int out, int nextCheckIn) {
+        int before = in - Math.max(previousCheckOut, sellableFrom);
+        int after = nextCheckIn == Integer.MAX_VALUE ? OPEN_RUN_NIGHTS : nextCheckIn - out;
+        return runCost(before) + runCost(after);
+    }
+
+    private static long runCost(int nights) {
+        if (nights <= 0) {
+            return 0;
+        }
+        return nights < MIN_SELLABLE_NIGHTS ? ORPHAN_NIGHT_COST * nights : Math.min(nights, OPEN_RUN_NIGHTS);
+    }
+
+    private static String placeBestFit(Map<String, TreeMap<Integer, Integer>> plan, int sellableFrom, int in, int out) {
+        String bestRoom = null;
+        long bestCost = Long.MAX_VALUE;
+        for (Map.Entry<String, TreeMap<Integer, Integer>> room : plan.entrySet()) {
+            TreeMap<Integer, Integer> bookings = room.getValue();
+            Map.Entry<Integer, Integer> before = bookings.lowerEntry(out);
+            if (before != null && before.getValue() > in) {
+                continue;
+            }
+            Integer after = bookings.ceilingKey(out);
+            long cost = cost(sellableFrom, before == null ? Integer.MIN_VALUE : before.getValue(), in, out, after == null ? Integer.MAX_VALUE : after);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestRoom = room.getKey();
+            }
+        }
+        if (bestRoom != null) {
+            plan.get(bestRoom).put(in, out);
+        }
+        return bestRoom;
+    }
+
+    private Map<String, TreeMap<Integer, Integer>> copyCalendars(RoomType type) {
+        Map<String, TreeMap<Integer, Integer>> calendars = new LinkedHashMap<>();
+        for (String roomNumber : inventory.getRoomNumbers(type)) {
+            calendars.put(roomNumber, new TreeMap<>());
+        }
+        inventory.forEachBooking((roomNumber, checkInDay, checkOutDay) -> {
+            TreeMap<Integer, Integer> bookings = calendars.get(roomNumber);
+            if (bookings != null) {
+                bookings.put(checkInDay, checkOutDay);
+            }
+        });
+        return calendars;
+    }
+
+    private static int countOrphanNights(Map<String, TreeMap<Integer, Integer>> calendars, int sellableFrom) {
+        int orphans = 0;
+        for (TreeMap<Integer, Integer> bookings : calendars.values()) {
+            Map.Entry<Integer, Integer> inHouse = bookings.lowerEntry(sellableFrom);
+            int freeFrom = inHouse == null ? sellableFrom : Math.max(sellableFrom, inHouse.getValue());
+            for (Map.Entry<Integer, Integer> booking : bookings.tailMap(sellableFrom, true).entrySet()) {
+                int run = booking.getKey() - freeFrom;
+                if (run > 0 && run < MIN_SELLABLE_NIGHTS) {
+                    orphans += run;
+                }
+                freeFrom = booking.getValue();
+            }
+        }
+        return orphans;
+    }
+
+    private static void requireRange(LocalDate checkIn, LocalDate checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Check-out " + checkOut + " must be after check-in " + checkIn);
+        }
+    }
+
+
+    private static final class BestFit {
+        private String roomNumber;
+        private long cost = Long.MAX_VALUE;
+    }
+}
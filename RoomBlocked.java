@@ -0,0 +1,9 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * RoomBlocked: room management booked the nights of [checkIn, checkOut) without a guest.
+ */
+record RoomBlocked(String roomNumber, LocalDate checkIn, LocalDate checkOut) implements DomainEvent {
+}
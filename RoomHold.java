@@ -0,0 +1,7 @@
+
+/**
+ * RoomHold: a room held for a shopper while they pay. The reservation is what confirming the hold
+ * books, at the rate quoted when the room was held; {@code expiresAtMillis} is wall-clock time.
+ */
+record RoomHold(long id, Reservation reservation, long expiresAtMillis) {
+}
@@ -0,0 +1,7 @@
+
+/**
+ * RoomHoldResponse: the hold placed. {@code invoice} is what the stay comes to if the hold is
+ * confirmed.
+ */
+record RoomHoldResponse(ServiceStatus status, RoomHold hold, Invoice invoice) {
+}
@@ -0,0 +1,461 @@
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * RoomInventory: date-aware booking calendar for every room in the hotel.
+ * Each room keeps its bookings as a sorted set of non-overlapping [check-in, check-out) ranges,
+ * keyed by the epoch day of the check-in night. Because the ranges never overlap, the booking that
+ * starts last before a requested check-out is the only one that can clash with the stay, so the
+ * availability checks below are a single TreeMap lookup per room.
+ *
+ * Every change is mirrored into an OccupancyCalendar so whole-hotel questions (free rooms per
+ * night, first free room of a type) are answered from packed bitsets instead of room by room.
+ *
+ * The inventory is safe to share between terminals. Each room is its own lock: the check and the
+ * insert of a booking happen under that room's monitor only, so stays in different rooms are
+ * booked in parallel and two terminals can never both win the same nights of one room.
+ */
+class RoomInventory {
+    /**
+     * Told about every booking that is added or removed, while the room's lock is still held, so
+     * a listener sees the changes of one room in the order they were made.
+     */
+    interface BookingListener {
+        void booked(String roomNumber, int checkInDay, int checkOutDay);
+
+        void released(String roomNumber, int checkInDay, int checkOutDay);
+    }
+
+    interface BookingVisitor {
+        void visit(String roomNumber, int checkInDay, int checkOutDay);
+    }
+
+    /**
+     * Told about a free room together with the bookings on either side of the stay: the check-out
+     * day of the one before, or Integer.MIN_VALUE if there is none, and the check-in day of the one
+     * after, or Integer.MAX_VALUE. Called under the room's lock.
+     */
+    interface FreeRoomVisitor {
+        void visit(String roomNumber, int previousCheckOutDay, int nextCheckInDay);
+    }
+
+    private static final int DEFAULT_HORIZON_NIGHTS = 2 * 366;
+
+    private final Map<String, RoomCalendar> rooms = new ConcurrentHashMap<>();
+    private final List<String> roomNumbers = new CopyOnWriteArrayList<>();
+    private final Map<RoomType, List<RoomCalendar>> roomsByType = new EnumMap<>(RoomType.class);
+    private final OccupancyCalendar occupancy;
+    private final List<BookingListener> listeners = new CopyOnWriteArrayList<>();
+
+    public RoomInventory() {
+        this(LocalDate.now().minusDays(1), DEFAULT_HORIZON_NIGHTS);
+    }
+
+    public RoomInventory(LocalDate firstNight, int horizonNights) {
+        this.occupancy = new OccupancyCalendar(toDay(firstNight), horizonNights);
+        for (RoomType type : RoomType.values()) {
+            roomsByType.put(type, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    public synchronized void addRoom(String roomNumber, RoomType type) {
+        if (rooms.containsKey(roomNumber)) {
+            throw new IllegalArgumentException("Room " + roomNumber + " already exists");
+        }
+        // The room must be findable by slot before the calendar starts reporting the slot as free.
+        List<RoomCalendar> sameType = roomsByType.get(type);
+        RoomCalendar calendar = new RoomCalendar(roomNumber, type, sameType.size());
+        sameType.add(calendar);
+        rooms.put(roomNumber, calendar);
+        roomNumbers.add(roomNumber);
+        occupancy.addRoom(type);
+    }
+
+    public void addBookingListener(BookingListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeBookingListener(BookingListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Visits every booking of every room, one room at a time under that room's lock.
+     */
+    public void forEachBooking(BookingVisitor visitor) {
+        for (String roomNumber : roomNumbers) {
+            rooms.get(roomNumber).forEachBooking(visitor);
+        }
+    }
+
+    /**
+     * The first night of the calendar horizon, as an epoch day.
+     */
+    public int getFirstDay() {
+        return occupancy.getFirstDay();
+    }
+
+    /**
+     * The epoch day just after the last night of the calendar horizon.
+     */
+    public int getEndDay() {
+        return occupancy.getEndDay();
+    }
+
+    public int getRoomCount(RoomType type) {
+        return occupancy.getRoomCount(type);
+    }
+
+    public boolean hasRoom(String roomNumber) {
+        return rooms.containsKey(roomNumber);
+    }
+
+    public RoomType getRoomType(String roomNumber) {
+        return room(roomNumber).type;
+    }
+
+    public List<String> getRoomNumbers() {
+        return Collections.unmodifiableList(roomNumbers);
+    }
+
+    /**
+     * The rooms of the type, in the order they were added.
+     */
+    public List<String> getRoomNumbers(RoomType type) {
+        List<String> numbers = new ArrayList<>();
+        for (RoomCalendar calendar : roomsByType.get(type)) {
+            numbers.add(calendar.roomNumber);
+        }
+        return numbers;
+    }
+
+    public boolean isFree(String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        return room(roomNumber).isFree(toDay(checkIn), toDay(checkOut));
+    }
+
+    public boolean isOccupied(String roomNumber, LocalDate night) {
+        int day = toDay(night);
+        return !room(roomNumber).isFree(day, day + 1);
+    }
+
+    /**
+     * Books the room for [checkIn, checkOut). Returns false, leaving the calendar untouched,
+     * if any night of the stay is already booked.
+     */
+    public boolean book(String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        requireRange(checkIn, checkOut);
+        return room(roomNumber).book(toDay(checkIn), toDay(checkOut));
+    }
+
+    public boolean book(String roomNumber, int checkInDay, int checkOutDay) {
+        if (checkOutDay <= checkInDay) {
+            throw new IllegalArgumentException("Check-out day " + checkOutDay + " must be after check-in day " + checkInDay);
+        }
+        return room(roomNumber).book(checkInDay, checkOutDay);
+    }
+
+    /**
+     * Books the first room of the type that is free for the whole stay and returns its number,
+     * or null if every room of the type is taken for some night of it.
+     */
+    public String bookFirstFree(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        requireRange(checkIn, checkOut);
+        int in = toDay(checkIn);
+        int out = toDay(checkOut);
+        List<RoomCalendar> candidates = roomsByType.get(type);
+        if (occupancy.covers(in, out)) {
+            // Losing a race only means the slot is occupied now, so the next search skips it.
+            for (int slot; (slot = occupancy.findFirstFree(type, in, out)) >= 0; ) {
+                RoomCalendar calendar = candidates.get(slot);
+                if (calendar.book(in, out)) {
+                    return calendar.roomNumber;
+                }
+            }
+            return null;
+        }
+        for (RoomCalendar calendar : candidates) {
+            if (calendar.book(in, out)) {
+                return calendar.roomNumber;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Visits every room of the type that is free for [checkInDay, checkOutDay), in the order the
+     * rooms were added, with the bookings either side of the stay.
+     */
+    public void forEachFreeRoom(RoomType type, int checkInDay, int checkOutDay, FreeRoomVisitor visitor) {
+        List<RoomCalendar> candidates = roomsByType.get(type);
+        if (occupancy.covers(checkInDay, checkOutDay)) {
+            occupancy.forEachFree(type, checkInDay, checkOutDay, slot -> candidates.get(slot).visitIfFree(checkInDay, checkOutDay, visitor));
+            return;
+        }
+        for (RoomCalendar calendar : candidates) {
+            calendar.visitIfFree(checkInDay, checkOutDay, visitor);
+        }
+    }
+
+    /**
+     * Tells the visitor about the bookings either side of [checkInDay, checkOutDay) if the room is
+     * free for it, and returns whether it was.
+     */
+    public boolean visitIfFree(String roomNumber, int checkInDay, int checkOutDay, FreeRoomVisitor visitor) {
+        return room(roomNumber).visitIfFree(checkInDay, checkOutDay, visitor);
+    }
+
+    /**
+     * Makes all the moves in one step, so bookings may also trade rooms: holding every room
+     * involved, it checks that each booking exists and fits its new room once all of them have
+     * left their old ones, and only then moves them. Returns false, changing nothing, otherwise.
+     */
+    public boolean moveAll(List<RoomMove> moves) {
+        SortedMap<Integer, RoomCalendar> involved = new TreeMap<>();
+        for (RoomMove move : moves) {
+            RoomCalendar from = room(move.fromRoom());
+            RoomCalendar to = room(move.toRoom());
+            if (from.type != to.type) {
+                throw new IllegalArgumentException("Room " + move.fromRoom() + " and room " + move.toRoom() + " are of different types");
+            }
+            // Rooms are locked in type and slot order, whoever moves them.
+            involved.put(lockOrder(from), from);
+            involved.put(lockOrder(to), to);
+        }
+        return lockAll(new ArrayList<>(involved.values()), 0, () -> {
+            Map<RoomCalendar, TreeMap<Integer, Integer>> trial = new HashMap<>();
+            for (RoomCalendar calendar : involved.values()) {
+                trial.put(calendar, new TreeMap<>(calendar.bookings));
+            }
+            for (RoomMove move : moves) {
+                if (!trial.get(rooms.get(move.fromRoom())).remove(move.checkInDay(), move.checkOutDay())) {
+                    return false;
+                }
+            }
+            for (RoomMove move : moves) {
+                TreeMap<Integer, Integer> bookings = trial.get(rooms.get(move.toRoom()));
+                Map.Entry<Integer, Integer> last = bookings.lowerEntry(move.checkOutDay());
+                if (last != null && last.getValue() > move.checkInDay()) {
+                    return false;
+                }
+                bookings.put(move.checkInDay(), move.checkOutDay());
+            }
+            for (RoomMove move : moves) {
+                rooms.get(move.fromRoom()).release(move.checkInDay(), move.checkOutDay());
+            }
+            for (RoomMove move : moves) {
+                rooms.get(move.toRoom()).book(move.checkInDay(), move.checkOutDay());
+            }
+            return true;
+        });
+    }
+
+    private static boolean lockAll(List<RoomCalendar> calendars, int index, BooleanSupplier action) {
+        if (index == calendars.size()) {
+            return action.getAsBoolean();
+        }
+        synchronized (calendars.get(index)) {
+            return lockAll(calendars, index + 1, action);
+        }
+    }
+
+    private static int lockOrder(RoomCalendar calendar) {
+        return calendar.type.ordinal() << 24 | calendar.slot;
+    }
+
+    /**
+     * Removes the booking that exactly matches [checkIn, checkOut).
+     */
+    public boolean release(String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        return room(roomNumber).release(toDay(checkIn), toDay(checkOut));
+    }
+
+    public boolean release(String roomNumber, int checkInDay, int checkOutDay) {
+        return room(roomNumber).release(checkInDay, checkOutDay);
+    }
+
+    /**
+     * Removes whichever booking covers the given night, if any.
+     */
+    public boolean vacate(String roomNumber, LocalDate night) {
+        return room(roomNumber).vacate(toDay(night));
+    }
+
+    public int countFreeRooms(RoomType type, LocalDate night) {
+        return countFreeRooms(type, toDay(night));
+    }
+
+    public int countFreeRooms(RoomType type, int epochDay) {
+        return occupancy.countFree(type, epochDay);
+    }
+
+    /**
+     * The number of rooms of the type that are free for the whole of [checkInDay, checkOutDay).
+     */
+    public int countFreeRooms(RoomType type, int checkInDay, int checkOutDay) {
+        if (occupancy.covers(checkInDay, checkOutDay)) {
+            return occupancy.countFreeForStay(type, checkInDay, checkOutDay);
+        }
+        int free = 0;
+        for (RoomCalendar calendar : roomsByType.get(type)) {
+            if (calendar.isFree(checkInDay, checkOutDay)) {
+                free++;
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Fills {@code counts[i]} with the number of free rooms of the type on night {@code fromEpochDay + i}.
+     */
+    public void countFreeRoomsPerNight(RoomType type, int fromEpochDay, int[] counts) {
+        occupancy.countFreePerNight(type, fromEpochDay, counts);
+    }
+
+    /**
+     * Adds up the rate of every night of [fromEpochDay, toEpochDay) at that night's occupancy; see
+     * {@link OccupancyCalendar#sumRatesBySold}.
+     */
+    public long sumRatesBySold(RoomType type, int fromEpochDay, int toEpochDay, int rooms, long[][] rates, byte[] tierBySold, int ratesFromDay) {
+        return occupancy.sumRatesBySold(type, fromEpochDay, toEpochDay, rooms, rates, tierBySold, ratesFromDay);
+    }
+
+    /**
+     * Returns the first room of the type that is free for the whole stay, or null if none is.
+     */
+    public String findFirstFreeRoom(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        requireRange(checkIn, checkOut);
+        int in = toDay(checkIn);
+        int out = toDay(checkOut);
+        List<RoomCalendar> candidates = roomsByType.get(type);
+        if (occupancy.covers(in, out)) {
+            int slot = occupancy.findFirstFree(type, in, out);
+            return slot < 0 ? null : candidates.get(slot).roomNumber;
+        }
+        for (RoomCalendar calendar : candidates) {
+            if (calendar.isFree(in, out)) {
+                return calendar.roomNumber;
+            }
+        }
+        return null;
+    }
+
+    public List<String> findFreeRooms(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        requireRange(checkIn, checkOut);
+        int in = toDay(checkIn);
+        int out = toDay(checkOut);
+        List<String> freeRooms = new ArrayList<>();
+        for (RoomCalendar calendar : roomsByType.get(type)) {
+            if (calendar.isFree(in, out)) {
+                freeRooms.add(calendar.roomNumber);
+            }
+        }
+        return freeRooms;
+    }
+
+    /**
+     * Returns the earliest check-in date on or after {@code from} at which the room is free for
+     * {@code nights} consecutive nights.
+     */
+    public LocalDate nextFreeWindow(String roomNumber, LocalDate from, int nights) {
+        if (nights <= 0) {
+            throw new IllegalArgumentException("nights must be positive: " + nights);
+        }
+        return LocalDate.ofEpochDay(room(roomNumber).nextFreeWindow(toDay(from), nights));
+    }
+
+    private RoomCalendar room(String roomNumber) {
+        RoomCalendar calendar = rooms.get(roomNumber);
+        if (calendar == null) {
+            throw new IllegalArgumentException("Unknown room: " + roomNumber);
+        }
+        return calendar;
+    }
+
+    private static void requireRange(LocalDate checkIn, LocalDate checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Check-out " + checkOut + " must be after check-in " + checkIn);
+        }
+    }
+
+    private static int toDay(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+
+    private final class RoomCalendar {
+        private final String roomNumber;
+        private final RoomType type;
+        private final int slot;
+        private final TreeMap<Integer, Integer> bookings = new TreeMap<>();
+
+        RoomCalendar(String roomNumber, RoomType type, int slot) {
+            this.roomNumber = roomNumber;
+            this.type = type;
+            this.slot = slot;
+        }
+
+        synchronized boolean isFree(int in, int out) {
+            Map.Entry<Integer, Integer> last = bookings.lowerEntry(out);
+            return last == null || last.getValue() <= in;
+        }
+
+        synchronized boolean book(int in, int out) {
+            if (!isFree(in, out)) {
+                return false;
+            }
+            bookings.put(in, out);
+            occupancy.occupy(type, slot, in, out);
+            for (BookingListener listener : listeners) {
+                listener.booked(roomNumber, in, out);
+            }
+            return true;
+        }
+
+        synchronized boolean release(int in, int out) {
+            if (!bookings.remove(in, out)) {
+                return false;
+            }
+            occupancy.vacate(type, slot, in, out);
+            for (BookingListener listener : listeners) {
+                listener.released(roomNumber, in, out);
+            }
+            return true;
+        }
+
+        synchronized boolean vacate(int day) {
+            Map.Entry<Integer, Integer> booking = bookings.floorEntry(day);
+            return booking != null && booking.getValue() > day && release(booking.getKey(), booking.getValue());
+        }
+
+        synchronized boolean visitIfFree(int in, int out, FreeRoomVisitor visitor) {
+            Map.Entry<Integer, Integer> before = bookings.lowerEntry(out);
+            if (before != null && before.getValue() > in) {
+                return false;
+            }
+            Integer after = bookings.ceilingKey(out);
+            visitor.visit(roomNumber, before == null ? Integer.MIN_VALUE : before.getValue(), after == null ? Integer.MAX_VALUE : after);
+            return true;
+        }
+
+        synchronized void forEachBooking(BookingVisitor visitor) {
+            for (Map.Entry<Integer, Integer> booking : bookings.entrySet()) {
+                visitor.visit(roomNumber, booking.getKey(), booking.getValue());
+            }
+        }
+
+        synchronized int nextFreeWindow(int start, int nights) {
+            while (true) {
+                Map.Entry<Integer, Integer> clash = bookings.lowerEntry(start + nights);
+                if (clash == null || clash.getValue() <= start) {
+                    return start;
+                }
+                start = clash.getValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+
+/**
+ * RoomMove: a booking of [checkInDay, checkOutDay) moved to another room of the same type.
+ */
+record RoomMove(String fromRoom, String toRoom, int checkInDay, int checkOutDay) {
+}
@@ -0,0 +1,13 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * RoomQuote: whether a stay can be sold and what its room charges come to. {@code freeRooms} is
+ * the number of rooms of the type free for every night of it; the charges are in paisa.
+ */
+record RoomQuote(RoomType roomType, LocalDate checkIn, LocalDate checkOut, int guests, int freeRooms, long roomCharges) {
+    boolean available() {
+        return freeRooms > 0;
+    }
+}
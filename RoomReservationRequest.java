@@ -0,0 +1,9 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * RoomReservationRequest: blocks the nights of [checkIn, checkOut) of one room, with no guest.
+ */
+record RoomReservationRequest(String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+}
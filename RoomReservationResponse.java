@@ -0,0 +1,10 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * RoomReservationResponse: {@code nextFreeCheckIn} is only set when the room was not available
+ * for the requested stay.
+ */
+record RoomReservationResponse(ServiceStatus status, LocalDate nextFreeCheckIn) {
+}
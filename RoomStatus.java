@@ -0,0 +1,9 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * RoomStatus: whether a room is occupied on a night, and the next night it is free.
+ */
+record RoomStatus(String roomNumber, RoomType roomType, boolean occupied, LocalDate nextFreeNight) {
+}
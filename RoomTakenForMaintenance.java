@@ -0,0 +1,9 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * RoomTakenForMaintenance: room management took the room out of service for the night.
+ */
+record RoomTakenForMaintenance(String roomNumber, LocalDate night) implements DomainEvent {
+}
@@ -0,0 +1,27 @@
+
+/**
+ * RoomType: the kinds of rooms the hotel rents out.
+ */
+enum RoomType {
+    SINGLE("Single"),
+    DOUBLE("Double");
+
+    private final String displayName;
+
+    RoomType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public static RoomType parse(String value) {
+        for (RoomType type : values()) {
+            if (type.displayName.equalsIgnoreCase(value.trim())) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
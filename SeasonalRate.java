@@ -0,0 +1,13 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * SeasonalRate: the nights of [from, to) are sold at {@code basisPoints} of the usual rate, for
+ * one room type or for every type when {@code roomType} is null. 12_000 is 20% more.
+ */
+record SeasonalRate(LocalDate from, LocalDate to, RoomType roomType, int basisPoints) {
+    boolean covers(RoomType type, int epochDay) {
+        return (roomType == null || roomType == type) && epochDay >= from.toEpochDay() && epochDay < to.toEpochDay();
+    }
+}
@@ -0,0 +1,18 @@
+
+/**
+ * ServiceStatus: how a HotelService operation ended.
+ */
+enum ServiceStatus {
+    OK,
+    INVALID_INPUT,
+    UNKNOWN_ROOM,
+    ROOM_UNAVAILABLE,
+    GUEST_NOT_FOUND,
+    GUEST_EXISTS,
+    USERNAME_TAKEN,
+    LOGIN_FAILED,
+    KITCHEN_FULL,
+    RESERVATION_NOT_FOUND,
+    NOT_WAITLISTED,
+    HOLD_NOT_FOUND
+}
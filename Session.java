@@ -0,0 +1,9 @@
+
+/**
+ * Session: a logged-in terminal. The token is what the terminal presents instead of the password.
+ */
+record Session(String token, String username, AccountType role, long expiresAtMillis) {
+    boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -0,0 +1,86 @@
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+
+/**
+ * SessionCache: the sessions of logged-in terminals, so a terminal that has already proven its
+ * password presents a random token instead of paying for another password hash.
+ *
+ * Sessions are held in a ConcurrentHashMap keyed by token and expire after a period without use;
+ * each use extends them. Expired sessions are dropped when they are next presented and by a sweep
+ * that runs every so many logins, so the map stays bounded by the terminals in use.
+ */
+class SessionCache {
+    private static final int TOKEN_BYTES = 32;
+    private static final int SWEEP_EVERY_OPENS = 1024;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long timeToLiveMillis;
+    private final LongSupplier clock;
+    private final AtomicInteger opensSinceSweep = new AtomicInteger();
+
+    public SessionCache(long timeToLiveMillis) {
+        this(timeToLiveMillis, System::currentTimeMillis);
+    }
+
+    SessionCache(long timeToLiveMillis, LongSupplier clock) {
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.clock = clock;
+    }
+
+    public Session open(String username, AccountType role) {
+        if (opensSinceSweep.incrementAndGet() >= SWEEP_EVERY_OPENS) {
+            opensSinceSweep.set(0);
+            sweep();
+        }
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        Session session = new Session(ENCODER.encodeToString(bytes), username, role, clock.getAsLong() + timeToLiveMillis);
+        sessions.put(session.token(), session);
+        return session;
+    }
+
+    /**
+     * Returns the live session for the token, extended by another period, or null if the token is
+     * unknown or has expired.
+     */
+    public Session resume(String token) {
+        if (token == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (session.isExpired(now)) {
+            sessions.remove(token, session);
+            return null;
+        }
+        Session extended = new Session(token, session.username(), session.role(), now + timeToLiveMillis);
+        // A concurrent close or extension wins; this use still counts as long as the session was live.
+        sessions.replace(token, session, extended);
+        return extended;
+    }
+
+    public boolean close(String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public void sweep() {
+        long now = clock.getAsLong();
+        sessions.values().removeIf(session -> session.isExpired(now));
+    }
+}
@@ -0,0 +1,7 @@
+
+/**
+ * SignUpRequest: a new account. {@code name} is the customer's or the administrator's; a USER
+ * account has none.
+ */
+record SignUpRequest(AccountType accountType, String username, String password, String email, String name) {
+}
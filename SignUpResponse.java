@@ -0,0 +1,6 @@
+
+/**
+ * SignUpResponse: the account created, when the sign-up went through.
+ */
+record SignUpResponse(ServiceStatus status, User user) {
+}
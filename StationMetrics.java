@@ -0,0 +1,6 @@
+
+/**
+ * StationMetrics: the counters of one kitchen station at the instant of a KitchenMetrics.
+ */
+record StationMetrics(KitchenStation station, long tickets, long batches, long queueDepth) {
+}
@@ -0,0 +1,13 @@
+
+import java.time.LocalDate;
+
+
+/**
+ * StayQuote: the room charges of a stay, in paisa. A booked stay is charged its average nightly
+ * rate, rounded down to the paisa, for every night.
+ */
+record StayQuote(RoomType roomType, LocalDate checkIn, LocalDate checkOut, int nights, long roomCharges) {
+    long averageNightlyRate() {
+        return roomCharges / nights;
+    }
+}
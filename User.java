@@ -0,0 +1,28 @@
+
+/**
+ * User: a staff account. The base of the other account types.
+ */
+class User {
+    protected String username;
+    protected String passwordHash;
+
+    /**
+     * @param passwordHash the password as hashed by a CredentialStore; the password itself is never kept
+     */
+    public User(String username, String passwordHash) {
+        this.username = username;
+        this.passwordHash = passwordHash;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    public boolean authenticate(CredentialStore credentials, String enteredPassword) {
+        return credentials.verify(enteredPassword, passwordHash);
+    }
+}
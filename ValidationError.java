@@ -0,0 +1,15 @@
+
+/**
+ * ValidationError: why a value was rejected, or NONE if it was accepted.
+ */
+enum ValidationError {
+    NONE,
+    EMPTY,
+    INVALID_CHARACTER,
+    TOO_SHORT,
+    TOO_LONG,
+    MISSING_DIGIT,
+    INVALID_FORMAT,
+    UNSUPPORTED_DOMAIN,
+    OUT_OF_RANGE
+}
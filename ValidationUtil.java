@@ -0,0 +1,281 @@
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+
+/**
+ * ValidationUtil: input checks shared by the console and the service layer.
+ *
+ * The fixed rules are hand-written character scans that return a ValidationError and never
+ * allocate or print, so they are cheap enough for bulk imports. Ad-hoc rules can still use a
+ * regular expression through {@link #matches(String, CharSequence)}, which compiles each pattern
+ * only once.
+ */
+class ValidationUtil {
+    private static final String GMAIL_DOMAIN = "@gmail.com";
+    private static final int MIN_PASSWORD_LENGTH = 6;
+    private static final int MAX_ROOM_NUMBER_LENGTH = 6;
+    private static final int MAX_TLD_LENGTH = 7;
+
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+    public static boolean isValidPassword(String password) {
+        return checkPassword(password) == ValidationError.NONE;
+    }
+
+    public static boolean isValidEmail(String email) {
+        return checkEmail(email) == ValidationError.NONE;
+    }
+
+    public static boolean matches(String regex, CharSequence input) {
+        return PATTERNS.computeIfAbsent(regex, Pattern::compile).matcher(input).matches();
+    }
+
+
+    /**
+     * At least six characters on one line, one of which is a digit.
+     */
+    public static ValidationError checkPassword(String password) {
+        if (password == null || password.isEmpty()) {
+            return ValidationError.EMPTY;
+        }
+        boolean hasDigit = false;
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (isLineTerminator(c)) {
+                return ValidationError.INVALID_CHARACTER;
+            }
+            hasDigit |= isDigit(c);
+        }
+        if (password.length() < MIN_PASSWORD_LENGTH) {
+            return ValidationError.TOO_SHORT;
+        }
+        return hasDigit ? ValidationError.NONE : ValidationError.MISSING_DIGIT;
+    }
+
+    /**
+     * Letters only, e.g. a first name or a login user-name.
+     */
+    public static ValidationError checkAlphabetic(String value) {
+        if (value == null || value.isEmpty()) {
+            return ValidationError.EMPTY;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!isLetter(value.charAt(i))) {
+                return ValidationError.INVALID_CHARACTER;
+            }
+        }
+        return ValidationError.NONE;
+    }
+
+    /**
+     * Letters and whitespace in any order, e.g. a guest name as typed at the front desk.
+     */
+    public static ValidationError checkGuestName(String value) {
+        if (value == null || value.isEmpty()) {
+            return ValidationError.EMPTY;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!isLetter(c) && !isWhitespace(c)) {
+                return ValidationError.INVALID_CHARACTER;
+            }
+        }
+        return ValidationError.NONE;
+    }
+
+    /**
+     * Words of letters separated by single whitespace characters, e.g. a full name used as user-name.
+     */
+    public static ValidationError checkFullName(String value) {
+        if (value == null || value.isEmpty()) {
+            return ValidationError.EMPTY;
+        }
+        boolean afterSeparator = true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isLetter(c)) {
+                afterSeparator = false;
+            } else if (isWhitespace(c) && !afterSeparator) {
+                afterSeparator = true;
+            } else {
+                return isWhitespace(c) ? ValidationError.INVALID_FORMAT : ValidationError.INVALID_CHARACTER;
+            }
+        }
+        return afterSeparator ? ValidationError.INVALID_FORMAT : ValidationError.NONE;
+    }
+
+    public static ValidationError checkPhoneNumber(String value) {
+        return checkDigits(value, Integer.MAX_VALUE);
+    }
+
+    public static ValidationError checkRoomNumber(String value) {
+        return checkDigits(value, MAX_ROOM_NUMBER_LENGTH);
+    }
+
+    /**
+     * A Gmail address: local part of letters, digits and {@code _+&-} followed by {@code @gmail.com}.
+     */
+    public static ValidationError checkGmail(String email) {
+        if (email == null || email.isEmpty()) {
+            return ValidationError.EMPTY;
+        }
+        int at = email.indexOf('@');
+        if (at < 0) {
+            return ValidationError.INVALID_FORMAT;
+        }
+        if (at == 0) {
+            return ValidationError.EMPTY;
+        }
+        for (int i = 0; i < at; i++) {
+            if (!isLocalPartChar(email.charAt(i))) {
+                return ValidationError.INVALID_CHARACTER;
+            }
+        }
+        if (email.length() - at != GMAIL_DOMAIN.length() || !email.regionMatches(at, GMAIL_DOMAIN, 0, GMAIL_DOMAIN.length())) {
+            return ValidationError.UNSUPPORTED_DOMAIN;
+        }
+        return ValidationError.NONE;
+    }
+
+    /**
+     * Any address of the form {@code local.part@some.domain.tld} with a 2-7 letter top-level domain.
+     */
+    public static ValidationError checkEmail(String email) {
+        if (email == null || email.isEmpty()) {
+            return ValidationError.EMPTY;
+        }
+        int at = email.indexOf('@');
+        if (at <= 0 || at == email.length() - 1) {
+            return ValidationError.INVALID_FORMAT;
+        }
+
+        char previous = '.';
+        for (int i = 0; i < at; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (previous == '.') {
+                    return ValidationError.INVALID_FORMAT;
+                }
+            } else if (!isLocalPartChar(c)) {
+                return ValidationError.INVALID_CHARACTER;
+            }
+            previous = c;
+        }
+        if (previous == '.') {
+            return ValidationError.INVALID_FORMAT;
+        }
+
+        int lastDot = email.lastIndexOf('.');
+        if (lastDot < at) {
+            return ValidationError.INVALID_FORMAT;
+        }
+        previous = '.';
+        for (int i = at + 1; i < lastDot; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (previous == '.') {
+                    return ValidationError.INVALID_FORMAT;
+                }
+            } else if (!isLetter(c) && !isDigit(c) && c != '-') {
+                return ValidationError.INVALID_CHARACTER;
+            }
+            previous = c;
+        }
+        if (previous == '.') {
+            return ValidationError.INVALID_FORMAT;
+        }
+
+        int tldLength = email.length() - lastDot - 1;
+        if (tldLength < 2) {
+            return ValidationError.TOO_SHORT;
+        }
+        if (tldLength > MAX_TLD_LENGTH) {
+            return ValidationError.TOO_LONG;
+        }
+        for (int i = lastDot + 1; i < email.length(); i++) {
+            if (!isLetter(email.charAt(i))) {
+                return ValidationError.INVALID_CHARACTER;
+            }
+        }
+        return ValidationError.NONE;
+    }
+
+    /**
+     * A calendar date written as yyyy-MM-dd.
+     */
+    public static ValidationError checkDate(String value) {
+        if (value == null || value.isEmpty()) {
+            return ValidationError.EMPTY;
+        }
+        if (value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return ValidationError.INVALID_FORMAT;
+        }
+        int year = parseDigits(value, 0, 4);
+        int month = parseDigits(value, 5, 7);
+        int day = parseDigits(value, 8, 10);
+        if (year < 0 || month < 0 || day < 0) {
+            return ValidationError.INVALID_CHARACTER;
+        }
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return ValidationError.OUT_OF_RANGE;
+        }
+        return ValidationError.NONE;
+    }
+
+
+    private static ValidationError checkDigits(String value, int maxLength) {
+        if (value == null || value.isEmpty()) {
+            return ValidationError.EMPTY;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!isDigit(value.charAt(i))) {
+                return ValidationError.INVALID_CHARACTER;
+            }
+        }
+        return value.length() > maxLength ? ValidationError.TOO_LONG : ValidationError.NONE;
+    }
+
+    private static int parseDigits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLocalPartChar(char c) {
+        return isLetter(c) || isDigit(c) || c == '_' || c == '+' || c == '&' || c == '-';
+    }
+
+    // The same characters as \s in java.util.regex.
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // The characters that '.' does not match in java.util.regex.
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,112 @@
+
+import java.util.*;
+
+
+/**
+ * Waitlist: reservation requests for nights that were sold out, kept so the nights can be offered
+ * to them when a room frees up.
+ *
+ * Entries are grouped by room type, check-in day and check-out day, with a heap per exact stay.
+ * Every entry in one heap fits a free run of nights exactly when its head does, so finding the
+ * best request that fits a run looks at one head per distinct stay inside the run and never at
+ * the entries queued behind it.
+ */
+class Waitlist {
+    private final Map<RoomType, TreeMap<Integer, TreeMap<Integer, PriorityQueue<WaitlistEntry>>>> stays = new EnumMap<>(RoomType.class);
+    private final Map<Long, WaitlistEntry> entries = new HashMap<>();
+
+    public Waitlist() {
+        for (RoomType type : RoomType.values()) {
+            stays.put(type, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Adds the entry unless one with its id is already waiting.
+     */
+    public synchronized boolean add(WaitlistEntry entry) {
+        if (entries.putIfAbsent(entry.id(), entry) != null) {
+            return false;
+        }
+        stays.get(entry.request().roomType())
+                .computeIfAbsent(entry.checkInDay(), day -> new TreeMap<>())
+                .computeIfAbsent(entry.checkOutDay(), day -> new PriorityQueue<>(WaitlistEntry.PRIORITY))
+                .add(entry);
+        return true;
+    }
+
+    /**
+     * Takes the entry off the list and returns it, or null if it is not waiting.
+     */
+    public synchronized WaitlistEntry remove(long id) {
+        WaitlistEntry entry = entries.remove(id);
+        if (entry != null) {
+            TreeMap<Integer, TreeMap<Integer, PriorityQueue<WaitlistEntry>>> byCheckIn = stays.get(entry.request().roomType());
+            TreeMap<Integer, PriorityQueue<WaitlistEntry>> byCheckOut = byCheckIn.get(entry.checkInDay());
+            PriorityQueue<WaitlistEntry> queue = byCheckOut.get(entry.checkOutDay());
+            queue.remove(entry);
+            if (queue.isEmpty()) {
+                byCheckOut.remove(entry.checkOutDay());
+                if (byCheckOut.isEmpty()) {
+                    byCheckIn.remove(entry.checkInDay());
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Takes the best waiting request of the type whose stay lies within [fromDay, toDay) off the
+     * list and returns it, or null if none fits.
+     */
+    public synchronized WaitlistEntry pollBestFit(RoomType type, int fromDay, int toDay) {
+        if (fromDay >= toDay) {
+            return null;
+        }
+        WaitlistEntry best = null;
+        for (TreeMap<Integer, PriorityQueue<WaitlistEntry>> byCheckOut : stays.get(type).subMap(fromDay, true, toDay, false).values()) {
+            for (PriorityQueue<WaitlistEntry> queue : byCheckOut.headMap(toDay, true).values()) {
+                WaitlistEntry head = queue.peek();
+                if (best == null || WaitlistEntry.PRIORITY.compare(head, best) < 0) {
+                    best = head;
+                }
+            }
+        }
+        return best == null ? null : remove(best.id());
+    }
+
+    /**
+     * Takes every entry whose check-in day is before the given day off the list and returns them.
+     */
+    public synchronized List<WaitlistEntry> removeCheckInsBefore(int day) {
+        List<WaitlistEntry> expired = new ArrayList<>();
+        for (TreeMap<Integer, TreeMap<Integer, PriorityQueue<WaitlistEntry>>> byCheckIn : stays.values()) {
+            for (TreeMap<Integer, PriorityQueue<WaitlistEntry>> byCheckOut : byCheckIn.headMap(day, false).values()) {
+                for (PriorityQueue<WaitlistEntry> queue : byCheckOut.values()) {
+                    expired.addAll(queue);
+                }
+            }
+        }
+        for (WaitlistEntry entry : expired) {
+            remove(entry.id());
+        }
+        return expired;
+    }
+
+    public synchronized boolean isEmpty(RoomType type) {
+        return stays.get(type).isEmpty();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * The waiting entries, best first.
+     */
+    public synchronized List<WaitlistEntry> getEntries() {
+        List<WaitlistEntry> waiting = new ArrayList<>(entries.values());
+        waiting.sort(WaitlistEntry.PRIORITY);
+        return waiting;
+    }
+}
@@ -0,0 +1,20 @@
+
+import java.util.Comparator;
+
+
+/**
+ * WaitlistEntry: a reservation request waiting for a room of its type to free up. Entries are
+ * served by loyalty tier, best first, and then in the order they joined, which their ids follow.
+ */
+record WaitlistEntry(long id, LoyaltyTier tier, ReservationRequest request) {
+    static final Comparator<WaitlistEntry> PRIORITY = Comparator.comparing(WaitlistEntry::tier, Comparator.reverseOrder())
+            .thenComparingLong(WaitlistEntry::id);
+
+    int checkInDay() {
+        return (int) request.checkIn().toEpochDay();
+    }
+
+    int checkOutDay() {
+        return (int) request.checkOut().toEpochDay();
+    }
+}
@@ -0,0 +1,7 @@
+
+/**
+ * WaitlistRequest: asks for the stay to be booked if a room of the type is free for it, and
+ * otherwise to be booked as soon as one frees up. The room number of the reservation is ignored.
+ */
+record WaitlistRequest(ReservationRequest reservation, LoyaltyTier tier) {
+}
@@ -0,0 +1,7 @@
+
+/**
+ * WaitlistResponse: either {@code reservation} is set, when a room was free straight away, or
+ * {@code waitlistId} identifies the waiting request; it is -1 otherwise.
+ */
+record WaitlistResponse(ServiceStatus status, long waitlistId, Reservation reservation) {
+}
@@ -0,0 +1,72 @@
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmark: a small in-process harness for the benchmarks in this directory.
+ *
+ * Each measurement warms the operation up, then runs it in a timed loop and reports throughput,
+ * the bytes allocated per operation and the resulting allocation rate, read from the thread's
+ * allocation counter. Results are folded into a sink so the JIT cannot drop the work.
+ */
+class Benchmark {
+    interface Operation {
+        long run(int iteration);
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile long sink;
+
+    private final long warmupNanos;
+    private final long measureNanos;
+
+    Benchmark(long warmupMillis, long measureMillis) {
+        this.warmupNanos = TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        this.measureNanos = TimeUnit.MILLISECONDS.toNanos(measureMillis);
+    }
+
+    static Benchmark fromArgs(String[] args) {
+        long warmup = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        long measure = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        return new Benchmark(warmup, measure);
+    }
+
+    static void printHeader() {
+        System.out.printf("%-48s %14s %10s %12s %12s%n", "Benchmark", "ops/s", "ns/op", "B/op", "alloc MB/s");
+    }
+
+    Result measure(String name, Operation operation) {
+        loop(operation, warmupNanos);
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long operations = loop(operation, measureNanos);
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Result result = new Result(name, operations * 1e9 / elapsed, elapsed / (double) operations, allocated / (double) operations, allocated * 1e9 / elapsed / (1024 * 1024));
+        System.out.printf("%-48s %14.0f %10.1f %12.1f %12.1f%n", result.name(), result.opsPerSecond(), result.nanosPerOp(), result.bytesPerOp(), result.allocatedMegabytesPerSecond());
+        return result;
+    }
+
+    private static long loop(Operation operation, long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long operations = 0;
+        long accumulator = 0;
+        // Check the clock once per batch so the timer call does not dominate cheap operations.
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < 1024; i++) {
+                accumulator += operation.run((int) operations + i);
+            }
+            operations += 1024;
+        }
+        sink += accumulator;
+        return operations;
+    }
+
+
+    record Result(String name, double opsPerSecond, double nanosPerOp, double bytesPerOp, double allocatedMegabytesPerSecond) {
+    }
+}
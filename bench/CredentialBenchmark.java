@@ -0,0 +1,66 @@
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * CredentialBenchmark: what one password hash costs, and how many logins per second terminals
+ * get with the password each time against resuming their session token.
+ *
+ * Usage: java CredentialBenchmark [terminals] [seconds]
+ */
+class CredentialBenchmark {
+    public static void main(String[] args) throws Exception {
+        int terminals = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        long millis = (args.length > 1 ? Long.parseLong(args[1]) : 3) * 1000;
+        CredentialStore credentials = new CredentialStore();
+        for (int i = 0; i < 3; i++) {
+            credentials.hash("warm up 1");
+        }
+        long start = System.nanoTime();
+        String hash = credentials.hash("secret1");
+        System.out.printf("PBKDF2 %,d iterations: %.1f ms per hash%n", credentials.getIterations(), (System.nanoTime() - start) / 1e6);
+        start = System.nanoTime();
+        boolean matches = credentials.verify("secret1", hash);
+        System.out.printf("verify: %.1f ms (%s)%n", (System.nanoTime() - start) / 1e6, matches);
+
+        HotelService service = new HotelService();
+        List<String> tokens = new ArrayList<>();
+        for (int t = 0; t < terminals; t++) {
+            String username = "Clerk " + (char) ('A' + t);
+            service.signUp(new SignUpRequest(AccountType.ADMIN, username, "secret" + t, "clerk" + t + "@example.com", "Clerk"));
+            tokens.add(service.login(new LoginRequest(username, "secret" + t)).sessionToken());
+        }
+
+        System.out.printf("%d terminals, %d s each:%n", terminals, millis / 1000);
+        run("login with password", terminals, millis, t -> service.login(new LoginRequest("Clerk " + (char) ('A' + t), "secret" + t)).status());
+        run("resume session token", terminals, millis, t -> service.resumeSession(tokens.get(t)).status());
+        service.close();
+    }
+
+    private static void run(String name, int terminals, long millis, Terminal terminal) throws InterruptedException {
+        LongAdder logins = new LongAdder();
+        ConcurrentHashMap<ServiceStatus, LongAdder> statuses = new ConcurrentHashMap<>();
+        CountDownLatch finished = new CountDownLatch(terminals);
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        for (int t = 0; t < terminals; t++) {
+            int id = t;
+            new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    statuses.computeIfAbsent(terminal.login(id), status -> new LongAdder()).increment();
+                    logins.increment();
+                }
+                finished.countDown();
+            }).start();
+        }
+        finished.await();
+        System.out.printf("  %-24s %,14.0f logins/s  %s%n", name, logins.sum() * 1000.0 / millis, statuses);
+    }
+
+    private interface Terminal {
+        ServiceStatus login(int terminal);
+    }
+}
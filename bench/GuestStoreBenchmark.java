@@ -0,0 +1,131 @@
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * GuestStoreBenchmark: heap retained per guest by a map of heap records against the off-heap
+ * GuestStore, and the cost of looking a guest up and reading a field from each. It then churns
+ * the store, checks every secondary index against a full scan and times the indexed lookups.
+ *
+ * Usage: java GuestStoreBenchmark [guests] [warmupMillis] [measureMillis]
+ */
+class GuestStoreBenchmark {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) {
+        int guests = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Benchmark benchmark = new Benchmark(args.length > 1 ? Long.parseLong(args[1]) : 1000, args.length > 2 ? Long.parseLong(args[2]) : 2000);
+        String[] names = new String[guests];
+        for (int g = 0; g < guests; g++) {
+            names[g] = "Guest " + Integer.toString(g, 26).replace('0', 'z');
+        }
+
+        long baseline = usedHeap();
+        Map<String, GuestInformation> map = new HashMap<>();
+        for (int g = 0; g < guests; g++) {
+            GuestInformation guest = guest(names[g], g);
+            map.put(guest.getGuestName(), guest);
+        }
+        long mapBytes = usedHeap() - baseline;
+
+        baseline = usedHeap();
+        GuestStore store = new GuestStore();
+        for (int g = 0; g < guests; g++) {
+            store.put(guest(names[g], g));
+        }
+        long storeBytes = usedHeap() - baseline;
+
+        for (int g = 0; g < guests; g += 997) {
+            GuestInformation expected = map.get(names[g]);
+            GuestInformation actual = store.get(names[g]);
+            if (!actual.equals(expected)) {
+                throw new IllegalStateException("Stored guest differs: " + expected + " vs " + actual);
+            }
+        }
+
+        System.out.printf("%,d guests%n", guests);
+        System.out.printf("HashMap of heap records: %,d heap bytes (%.0f B/guest)%n", mapBytes, mapBytes / (double) guests);
+        System.out.printf("GuestStore:              %,d heap bytes (%.0f B/guest), %,d off-heap bytes (%.0f B/guest)%n",
+                storeBytes, storeBytes / (double) guests, store.getOffHeapBytes(), store.getOffHeapBytes() / (double) guests);
+        System.out.println();
+
+        Benchmark.printHeader();
+        benchmark.measure("HashMap get + getRoomNumber", i -> map.get(names[(i & Integer.MAX_VALUE) % guests]).getRoomNumber().length());
+        benchmark.measure("GuestStore get (copy) + getRoomNumber", i -> store.get(names[(i & Integer.MAX_VALUE) % guests]).getRoomNumber().length());
+        benchmark.measure("GuestStore read + getRoomNumber", i -> store.read(names[(i & Integer.MAX_VALUE) % guests], guest -> guest.getRoomNumber().length()));
+        benchmark.measure("GuestStore read + getCheckIn", i -> store.read(names[(i & Integer.MAX_VALUE) % guests], guest -> guest.getCheckIn().getDayOfMonth()));
+        benchmark.measure("GuestStore contains (miss)", i -> store.contains("Nobody") ? 1 : 0);
+
+        churn(store, map, names);
+        verifyIndexes(store, map, guests);
+        LocalDate departure = LocalDate.of(2026, 3, 21);
+        benchmark.measure("findByPhoneNumber", i -> store.findByPhoneNumber("0300" + (1_000_000 + (i & Integer.MAX_VALUE) % guests)).size());
+        benchmark.measure("findByRoomNumber", i -> store.findByRoomNumber(String.valueOf(100 + (i & Integer.MAX_VALUE) % 400)).size());
+        benchmark.measure("findByCheckOut (1 day)", i -> store.findByCheckOut(departure, departure.plusDays(1)).size());
+        long start = System.nanoTime();
+        int[] matches = {0};
+        store.forEach(guest -> matches[0] += guest.getCheckOutDate().equals("2026-03-21") ? 1 : 0);
+        System.out.printf("%-48s %,.1f ms for %,d departures%n", "full scan for one departure date", (System.nanoTime() - start) / 1e6, matches[0]);
+    }
+
+    /**
+     * Checks out every third guest and moves every seventh to another room, in both containers.
+     */
+    private static void churn(GuestStore store, Map<String, GuestInformation> map, String[] names) {
+        for (int g = 0; g < names.length; g += 3) {
+            store.remove(names[g].toUpperCase(Locale.ROOT));
+            map.remove(names[g]);
+        }
+        for (int g = 1; g < names.length; g += 7) {
+            GuestInformation moved = guest(names[g], g + 1);
+            store.replace(moved);
+            map.put(names[g], moved);
+        }
+    }
+
+    private static void verifyIndexes(GuestStore store, Map<String, GuestInformation> map, int guests) {
+        if (store.size() != map.size()) {
+            throw new IllegalStateException("Store holds " + store.size() + " guests, expected " + map.size());
+        }
+        Map<String, Integer> rooms = new HashMap<>();
+        Map<String, Integer> departures = new HashMap<>();
+        for (GuestInformation guest : map.values()) {
+            rooms.merge(guest.getRoomNumber(), 1, Integer::sum);
+            departures.merge(guest.getCheckOutDate(), 1, Integer::sum);
+        }
+        rooms.forEach((room, count) -> check("room " + room, store.findByRoomNumber(room).size(), count));
+        departures.forEach((date, count) -> check("departures on " + date, store.findByCheckOut(LocalDate.parse(date), LocalDate.parse(date).plusDays(1)).size(), count));
+        for (int g = 0; g < guests; g += Math.max(101, guests / 200)) {
+            String phone = "0300" + (1_000_000 + g);
+            long expected = map.values().stream().filter(guest -> guest.getPhoneNumber().equals(phone)).count();
+            check("phone " + phone, store.findByPhoneNumber(phone).size(), (int) expected);
+        }
+        System.out.printf("Secondary indexes agree with a full scan after churn (%,d guests)%n", store.size());
+    }
+
+    private static void check(String what, int actual, int expected) {
+        if (actual != expected) {
+            throw new IllegalStateException("Index for " + what + " returned " + actual + " guests, expected " + expected);
+        }
+    }
+
+    private static GuestInformation guest(String name, int index) {
+        String checkIn = "2026-0" + (index % 9 + 1) + "-1" + index % 10;
+        String checkOut = "2026-0" + (index % 9 + 1) + "-2" + index % 8;
+        return GuestInformation.of(name, "0300" + (1_000_000 + index), "guest" + index + "@gmail.com", "House " + index + ", Street 4, Lahore",
+                "35202-" + (1_000_000 + index) + "-1", index % 3 == 0 ? "double" : "single", String.valueOf(100 + index % 400),
+                index % 3 == 0 ? 3500.0 : 2500.0, checkIn, checkOut);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,359 @@
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * HotPathBenchmarks: throughput and allocation of the operations every front-desk flow runs through.
+ *
+ * Usage: java HotPathBenchmarks [warmupMillis] [measureMillis] [maxGuests]
+ */
+class HotPathBenchmarks {
+    private static final LocalDate FIRST_NIGHT = LocalDate.of(2026, 1, 1);
+    private static final int AVAILABILITY_ROOMS = 1000;
+    private static final int AVAILABILITY_NIGHTS = 365;
+
+    public static void main(String[] args) {
+        Benchmark benchmark = Benchmark.fromArgs(args);
+        int maxGuests = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        Benchmark.printHeader();
+
+        dineIn(benchmark);
+        billing(benchmark);
+        occupancyKpis(benchmark);
+        dates(benchmark);
+        validation(benchmark);
+        for (int guests = 1_000; guests <= maxGuests; guests *= 10) {
+            guestLookups(benchmark, guests);
+        }
+        availability(benchmark);
+        pricing(benchmark);
+        events(benchmark);
+        metrics(benchmark);
+        flightRecorder(benchmark);
+        timingWheel(benchmark);
+    }
+
+    private static void dineIn(Benchmark benchmark) {
+        MenuCatalog standard = MenuCatalog.standard();
+        FoodOrder order = FoodOrder.of(1, 2, 5, 5, 3);
+        benchmark.measure("MenuCatalog.subtotal (5 lines)", i -> standard.subtotal(order));
+        benchmark.measure("MenuCatalog.bill (5 lines)", i -> standard.bill(order, 50, 1600).total());
+
+        // A large menu costs the same per line as the small one.
+        MenuCatalog large = new MenuCatalog();
+        for (int item = 0; item < 500; item++) {
+            large.addItem("Item " + item, MenuCategory.values()[item % 3], 100 * (50 + item));
+        }
+        FoodOrder largeOrder = new FoodOrder();
+        for (int line = 0; line < 20; line++) {
+            largeOrder.add(1 + line * 23, 1 + line % 3);
+        }
+        benchmark.measure("MenuCatalog.subtotal (500 items, 20 lines)", i -> large.subtotal(largeOrder));
+    }
+
+    private static void billing(Benchmark benchmark) {
+        BillingEngine engine = new BillingEngine(BillingRule.surcharge(100_00), BillingRule.discount(1_000), BillingRule.longStayDiscount(7, 500));
+        Random random = new Random(7);
+        List<Folio> folios = new ArrayList<>();
+        List<String[]> stays = new ArrayList<>();
+        for (int f = 0; f < 10_000; f++) {
+            LocalDate checkIn = FIRST_NIGHT.plusDays(random.nextInt(300));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(14));
+            Folio folio = new Folio("Guest " + f, String.valueOf(100 + f % 400), RoomType.SINGLE, (int) checkIn.toEpochDay(), (int) checkOut.toEpochDay(), 2_500_00);
+            folio.post("Meals", 1_500_00);
+            folios.add(folio);
+            stays.add(new String[]{checkIn.toString(), checkOut.toString()});
+        }
+        benchmark.measure("BillingEngine.bill (1 folio)", i -> engine.bill(folios.get(i & 8191)).total());
+        benchmark.measure("BillingEngine.totalOf (10k folios)", i -> engine.totalOf(folios));
+        benchmark.measure("BillingEngine.billAll (10k folios)", i -> engine.billAll(folios).size());
+        // What re-billing cost when every folio's nights came from its date strings.
+        benchmark.measure("parse dates per folio (10k folios)", i -> {
+            long nights = 0;
+            for (String[] stay : stays) {
+                nights += LocalDate.parse(stay[1]).toEpochDay() - LocalDate.parse(stay[0]).toEpochDay();
+            }
+            return nights;
+        });
+    }
+
+    private static void occupancyKpis(Benchmark benchmark) {
+        OccupancyKpis kpis = new OccupancyKpis(type -> 500);
+        Random random = new Random(11);
+        int firstDay = (int) FIRST_NIGHT.toEpochDay();
+        List<GuestInformation> guests = new ArrayList<>();
+        for (int g = 0; g < 100_000; g++) {
+            LocalDate checkIn = FIRST_NIGHT.plusDays(random.nextInt(365));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(7));
+            RoomType type = g % 3 == 0 ? RoomType.DOUBLE : RoomType.SINGLE;
+            kpis.addStay(type, (int) checkIn.toEpochDay(), (int) checkOut.toEpochDay(), PricingEngine.standardRate(type));
+            guests.add(GuestInformation.of("Guest " + g, "03001234567", "guest@gmail.com", "Lahore", "35202", type.getDisplayName().toLowerCase(),
+                    String.valueOf(100 + g % 500), PricingEngine.standardRate(type) / 100.0, checkIn.toString(), checkOut.toString()));
+        }
+        benchmark.measure("OccupancyKpis.addStay (3 nights)", i -> {
+            int day = firstDay + (i & 255);
+            kpis.addStay(RoomType.SINGLE, day, day + 3, 2_500_00);
+            return day;
+        });
+        LocalDate month = FIRST_NIGHT.plusDays(120);
+        benchmark.measure("OccupancyKpis.getPeriod (30 nights)", i -> kpis.getPeriod(month, month.plusDays(30), null).roomsSold());
+        // The same figure from a scan of 100k stays, as a dashboard refresh would otherwise cost.
+        benchmark.measure("scan 100k stays for 30 nights", i -> {
+            long sold = 0;
+            long from = month.toEpochDay();
+            long to = from + 30;
+            for (GuestInformation guest : guests) {
+                long in = Math.max(from, guest.getCheckIn().toEpochDay());
+                long out = Math.min(to, guest.getCheckOut().toEpochDay());
+                sold += Math.max(0, out - in);
+            }
+            return sold;
+        });
+    }
+
+    private static void dates(Benchmark benchmark) {
+        String[] dates = {"2026-11-03", "2026-11-07", "2026-02-30", "2026-1-5"};
+        benchmark.measure("isValidDate", i -> HotelService.isValidDate(dates[i & 3]) ? 1 : 0);
+        benchmark.measure("isAfter", i -> HotelService.isAfter(dates[i & 1 ^ 1], dates[i & 1]) ? 1 : 0);
+        benchmark.measure("LocalDate.parse baseline", i -> LocalDate.parse(dates[i & 1]).getDayOfMonth());
+    }
+
+    private static void validation(Benchmark benchmark) {
+        String[] emails = {"john.doe@mail.example.org", "no-at-sign.example.com"};
+        String[] passwords = {"secret1", "short"};
+        benchmark.measure("ValidationUtil.isValidEmail", i -> ValidationUtil.isValidEmail(emails[i & 1]) ? 1 : 0);
+        benchmark.measure("ValidationUtil.isValidPassword", i -> ValidationUtil.isValidPassword(passwords[i & 1]) ? 1 : 0);
+        benchmark.measure("ValidationUtil.checkGmail", i -> ValidationUtil.checkGmail("guest_01@gmail.com").ordinal());
+        benchmark.measure("ValidationUtil.checkGuestName", i -> ValidationUtil.checkGuestName("John Smith").ordinal());
+    }
+
+    private static void guestLookups(Benchmark benchmark, int guests) {
+        // One-night stays, a hundred per room, so every guest can be checked in.
+        int rooms = Math.max(1, guests / 100);
+        RoomInventory inventory = new RoomInventory(FIRST_NIGHT, 1);
+        for (int room = 0; room < rooms; room++) {
+            inventory.addRoom(String.valueOf(100_000 + room), RoomType.SINGLE);
+        }
+        HotelService service = new HotelService(inventory);
+        String[] names = new String[guests];
+        for (int g = 0; g < guests; g++) {
+            names[g] = guestName(g);
+            LocalDate checkIn = FIRST_NIGHT.plusDays(g / rooms);
+            CheckInRequest request = new CheckInRequest(names[g], "03001234567", "guest@gmail.com", "Street 1", "ID" + g,
+                    RoomType.SINGLE, String.valueOf(100_000 + g % rooms), checkIn, checkIn.plusDays(1));
+            if (service.checkIn(request).status() != ServiceStatus.OK) {
+                throw new IllegalStateException("Could not check in guest " + g);
+            }
+        }
+        benchmark.measure("findGuest hit (" + guests + " guests)", i -> service.findGuest(names[(i & Integer.MAX_VALUE) % guests]).getRoomNumber().length());
+        benchmark.measure("findGuest miss (" + guests + " guests)", i -> service.findGuest("Nobody") == null ? 1 : 0);
+        service.close();
+    }
+
+    private static void availability(Benchmark benchmark) {
+        RoomInventory inventory = new RoomInventory(FIRST_NIGHT, AVAILABILITY_NIGHTS + 30);
+        for (int room = 0; room < AVAILABILITY_ROOMS; room++) {
+            inventory.addRoom(String.valueOf(1000 + room), room % 3 == 0 ? RoomType.DOUBLE : RoomType.SINGLE);
+        }
+        Random random = new Random(42);
+        for (int booking = 0; booking < AVAILABILITY_ROOMS * 60; booking++) {
+            LocalDate checkIn = FIRST_NIGHT.plusDays(random.nextInt(AVAILABILITY_NIGHTS));
+            inventory.book(String.valueOf(1000 + random.nextInt(AVAILABILITY_ROOMS)), checkIn, checkIn.plusDays(1 + random.nextInt(4)));
+        }
+        LocalDate[] checkIns = new LocalDate[64];
+        for (int i = 0; i < checkIns.length; i++) {
+            checkIns[i] = FIRST_NIGHT.plusDays(random.nextInt(AVAILABILITY_NIGHTS - 7));
+        }
+        int firstDay = (int) FIRST_NIGHT.toEpochDay();
+        int[] counts = new int[90];
+        List<String> roomNumbers = new ArrayList<>(inventory.getRoomNumbers());
+
+        benchmark.measure("isFree (3 nights)", i -> inventory.isFree(roomNumbers.get(i % AVAILABILITY_ROOMS), checkIns[i & 63], checkIns[i & 63].plusDays(3)) ? 1 : 0);
+        benchmark.measure("findFreeRooms Single (3 nights)", i -> inventory.findFreeRooms(RoomType.SINGLE, checkIns[i & 63], checkIns[i & 63].plusDays(3)).size());
+        benchmark.measure("findFirstFreeRoom Single (3 nights)", i -> {
+            String room = inventory.findFirstFreeRoom(RoomType.SINGLE, checkIns[i & 63], checkIns[i & 63].plusDays(3));
+            return room == null ? 0 : 1;
+        });
+        benchmark.measure("countFreeRooms Single (1 night)", i -> inventory.countFreeRooms(RoomType.SINGLE, firstDay + (i & 255)));
+        benchmark.measure("countFreeRoomsPerNight Single (90 nights)", i -> {
+            inventory.countFreeRoomsPerNight(RoomType.SINGLE, firstDay + (i & 255), counts);
+            return counts[89];
+        });
+    }
+
+    private static void pricing(Benchmark benchmark) {
+        RoomInventory inventory = new RoomInventory(FIRST_NIGHT, AVAILABILITY_NIGHTS + 30);
+        for (int room = 0; room < AVAILABILITY_ROOMS; room++) {
+            inventory.addRoom(String.valueOf(1000 + room), room % 3 == 0 ? RoomType.DOUBLE : RoomType.SINGLE);
+        }
+        Random random = new Random(42);
+        for (int booking = 0; booking < AVAILABILITY_ROOMS * 60; booking++) {
+            LocalDate checkIn = FIRST_NIGHT.plusDays(random.nextInt(AVAILABILITY_NIGHTS));
+            inventory.book(String.valueOf(1000 + random.nextInt(AVAILABILITY_ROOMS)), checkIn, checkIn.plusDays(1 + random.nextInt(4)));
+        }
+        PricingEngine pricing = PricingEngine.standard(inventory);
+        pricing.setDayOfWeekRate(DayOfWeek.FRIDAY, 12_000);
+        pricing.setDayOfWeekRate(DayOfWeek.SATURDAY, 12_000);
+        List<SeasonalRate> seasons = new ArrayList<>();
+        for (int month = 0; month < 12; month++) {
+            SeasonalRate season = new SeasonalRate(FIRST_NIGHT.plusMonths(month), FIRST_NIGHT.plusMonths(month + 1), null, 9_000 + 500 * (month % 5));
+            pricing.addSeason(season);
+            seasons.add(season);
+        }
+        List<OccupancyTier> tiers = List.of(new OccupancyTier(5_000, 11_000), new OccupancyTier(8_000, 12_500), new OccupancyTier(9_500, 15_000));
+        pricing.setOccupancyTiers(tiers);
+        LocalDate[] checkIns = new LocalDate[64];
+        for (int i = 0; i < checkIns.length; i++) {
+            checkIns[i] = FIRST_NIGHT.plusDays(random.nextInt(AVAILABILITY_NIGHTS - 7));
+        }
+
+        benchmark.measure("PricingEngine.quote Single (7 nights)", i -> pricing.quote(RoomType.SINGLE, checkIns[i & 63], checkIns[i & 63].plusDays(7)).roomCharges());
+        // The same quote with the rules evaluated night by night.
+        int rooms = inventory.getRoomCount(RoomType.SINGLE);
+        benchmark.measure("evaluate rules per night (7 nights)", i -> {
+            long total = 0;
+            for (LocalDate night = checkIns[i & 63]; night.isBefore(checkIns[i & 63].plusDays(7)); night = night.plusDays(1)) {
+                long rate = PricingEngine.standardRate(RoomType.SINGLE);
+                DayOfWeek day = night.getDayOfWeek();
+                if (day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY) {
+                    rate = BillingEngine.percentage(rate, 12_000);
+                }
+                for (int s = seasons.size() - 1; s >= 0; s--) {
+                    if (seasons.get(s).covers(RoomType.SINGLE, (int) night.toEpochDay())) {
+                        rate = BillingEngine.percentage(rate, seasons.get(s).basisPoints());
+                        break;
+                    }
+                }
+                long occupancy = (long) (rooms - inventory.countFreeRooms(RoomType.SINGLE, night)) * 10_000 / rooms;
+                for (int t = tiers.size() - 1; t >= 0; t--) {
+                    if (occupancy >= tiers.get(t).minOccupancyBasisPoints()) {
+                        rate = BillingEngine.percentage(rate, tiers.get(t).basisPoints());
+                        break;
+                    }
+                }
+                total += rate;
+            }
+            return total;
+        });
+
+        QuoteCache quotes = new QuoteCache(inventory, pricing, 4_096, 60_000);
+        inventory.addBookingListener(quotes);
+        benchmark.measure("uncached availability quote Single (7 nights)", i -> {
+            LocalDate checkIn = checkIns[i & 63];
+            int in = (int) checkIn.toEpochDay();
+            return inventory.countFreeRooms(RoomType.SINGLE, in, in + 7) + pricing.quote(RoomType.SINGLE, checkIn, checkIn.plusDays(7)).roomCharges();
+        });
+        benchmark.measure("QuoteCache.get Single (7 nights)", i -> quotes.get(RoomType.SINGLE, checkIns[i & 63], checkIns[i & 63].plusDays(7), 2).roomCharges());
+        // One room booked and released again every 64 lookups, which makes the quotes it overlaps stale.
+        String roomNumber = inventory.getRoomNumbers(RoomType.SINGLE).get(0);
+        benchmark.measure("QuoteCache.get with a booking per 64 lookups", i -> {
+            if ((i & 63) == 0) {
+                LocalDate checkIn = checkIns[(i >>> 6) & 63];
+                if (inventory.book(roomNumber, checkIn, checkIn.plusDays(2))) {
+                    inventory.release(roomNumber, checkIn, checkIn.plusDays(2));
+                }
+            }
+            return quotes.get(RoomType.SINGLE, checkIns[i & 63], checkIns[i & 63].plusDays(7), 2).roomCharges();
+        });
+        QuoteCacheStats stats = quotes.getStats();
+        System.out.printf("  quote cache: %,d hits, %,d misses (%,d stale), hit rate %.2f%%%n", stats.hits(), stats.misses(), stats.stale(), stats.hitRate() * 100);
+    }
+
+    private static void events(Benchmark benchmark) {
+        EventLog log = new EventLog();
+        ReportingView reports = new ReportingView(ZoneOffset.UTC);
+        ProjectionRunner runner = new ProjectionRunner("reporting", log, reports);
+        DomainEvent served = new DineInServed("Table guest", "7", -1, 1_200_00);
+        benchmark.measure("EventLog.append (projection following)", i -> log.append(served));
+        runner.close();
+        System.out.printf("  reporting projection %,d events behind at the end%n", runner.getLag());
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        benchmark.measure("ReportingView.getTotal (31 days)", i -> reports.getTotal(today.minusDays(30), today.plusDays(1)).dineInOrders());
+    }
+
+    /**
+     * What timing an operation adds to it: the timer on its own, and a guest lookup with and
+     * without it.
+     */
+    private static void metrics(Benchmark benchmark) {
+        HotelMetrics metrics = new HotelMetrics();
+        OperationTimer timer = metrics.timer(HotelOperation.FIND_GUEST);
+        benchmark.measure("OperationTimer.record (incl. nanoTime)", i -> {
+            long start = System.nanoTime();
+            timer.record(start, true);
+            return start;
+        });
+        benchmark.measure("System.nanoTime", i -> System.nanoTime());
+
+        HotelService service = new HotelService();
+        LocalDate today = LocalDate.now();
+        service.checkIn(new CheckInRequest("Metric guest", "03001234567", "metricguest@gmail.com", "Street 1", "ID-1",
+                RoomType.SINGLE, null, today, today.plusDays(2)));
+        GuestStore store = new GuestStore();
+        store.put(service.findGuest("Metric guest"));
+        benchmark.measure("GuestStore.get (untimed)", i -> store.get("Metric guest").getRoomNumber().length());
+        benchmark.measure("HotelService.findGuest (timed)", i -> service.findGuest("Metric guest").getRoomNumber().length());
+        benchmark.measure("HotelMetrics.snapshot", i -> metrics.snapshot().length());
+        service.close();
+    }
+
+    /**
+     * What a hotel Flight Recorder event costs while no recording enables it, as in production.
+     */
+    private static void flightRecorder(Benchmark benchmark) {
+        benchmark.measure("disabled JFR event (begin + shouldCommit)", i -> {
+            HotelEvents.MenuBillEvent event = new HotelEvents.MenuBillEvent();
+            event.begin();
+            if (event.shouldCommit()) {
+                event.lines = i;
+                event.commit();
+            }
+            return i;
+        });
+        Folio folio = new Folio("Event guest", "101", RoomType.SINGLE, 20_000, 20_003, 5_000_00);
+        BillingEngine engine = new BillingEngine(BillingRule.surcharge(100_00), BillingRule.discount(1_000));
+        benchmark.measure("BillingEngine.bill (invoice event disabled)", i -> engine.bill(folio).total());
+    }
+
+    /**
+     * What a hold costs on the timing wheel with tens of thousands pending: placing and cancelling
+     * one, as a confirmation does, and a tick that expires a thousand of them.
+     */
+    private static void timingWheel(Benchmark benchmark) {
+        long tickNanos = 100_000_000L;
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(tickNanos, 0);
+        Random random = new Random(11);
+        for (int hold = 0; hold < 50_000; hold++) {
+            wheel.schedule(hold, (1 + random.nextInt(6_000)) * tickNanos);
+        }
+        long deadline = 6_000 * tickNanos;
+        benchmark.measure("TimingWheel.schedule + cancel (50,000 pending)", i -> wheel.cancel(wheel.schedule(i, deadline + i)) ? 1 : 0);
+
+        List<Integer> expired = new ArrayList<>();
+        long[] now = {0};
+        benchmark.measure("TimingWheel.advance one tick (1,000 expiring)", i -> {
+            for (int hold = 0; hold < 1_000; hold++) {
+                wheel.schedule(hold, now[0] + tickNanos);
+            }
+            now[0] += tickNanos;
+            expired.clear();
+            wheel.advance(now[0], expired);
+            return expired.size();
+        });
+    }
+
+    private static String guestName(int index) {
+        StringBuilder name = new StringBuilder("Guest ");
+        for (int n = index; ; n /= 26) {
+            name.append((char) ('a' + n % 26));
+            if (n < 26) {
+                return name.toString();
+            }
+        }
+    }
+}
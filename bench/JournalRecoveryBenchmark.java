@@ -0,0 +1,137 @@
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+
+/**
+ * JournalRecoveryBenchmark: writes a journal of historical records, abandons it as a crash would,
+ * and times how long a fresh service takes to recover from it; then times recovery from the
+ * snapshot written on a clean close.
+ *
+ * Durable operations are run from several terminals at once to show how many share each fsync.
+ *
+ * Usage: java JournalRecoveryBenchmark [records] [terminals] [durableOperationsPerTerminal]
+ */
+class JournalRecoveryBenchmark {
+    private static final LocalDate FIRST_NIGHT = LocalDate.of(2026, 1, 1);
+    private static final int ROOMS = 2000;
+    private static final int NIGHTS = 365;
+
+    public static void main(String[] args) throws Exception {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int terminals = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int durableOperations = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        Path directory = Files.createTempDirectory("hotel-journal");
+        try {
+            HotelService service = newService();
+            HotelJournal.open(directory, service);
+            durableCheckIns(service, terminals, durableOperations);
+            int written = 2 * terminals * durableOperations * 2;
+            written += churn(service.getRoomInventory(), records - written);
+            System.out.printf("Journal written: %,d records%n", written);
+
+            // Leave the first journal open, as a killed process would, and recover beside it.
+            HotelService recovered = newService();
+            long start = System.nanoTime();
+            HotelJournal recoveredJournal = HotelJournal.open(directory, recovered);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("Recovery after crash: snapshot plus %,d journal records in %.1f ms%n", recoveredJournal.getRecoveredRecords(), elapsed / 1e6);
+            verify(service, recovered);
+
+            recoveredJournal.close();
+            HotelService fromSnapshot = newService();
+            start = System.nanoTime();
+            HotelJournal snapshotJournal = HotelJournal.open(directory, fromSnapshot);
+            elapsed = System.nanoTime() - start;
+            System.out.printf("Recovery after clean close: snapshot plus %,d journal records in %.1f ms%n", snapshotJournal.getRecoveredRecords(), elapsed / 1e6);
+            verify(service, fromSnapshot);
+            snapshotJournal.close();
+            service.close();
+            recovered.close();
+            fromSnapshot.close();
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private static HotelService newService() {
+        RoomInventory inventory = new RoomInventory(FIRST_NIGHT, NIGHTS + 30);
+        for (int room = 0; room < ROOMS; room++) {
+            inventory.addRoom(String.valueOf(1000 + room), room % 3 == 0 ? RoomType.DOUBLE : RoomType.SINGLE);
+        }
+        return new HotelService(inventory);
+    }
+
+    /**
+     * Each terminal checks guests in and out, waiting for every operation to be durable.
+     */
+    private static void durableCheckIns(HotelService service, int terminals, int operations) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < terminals; t++) {
+            int terminal = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < operations; i++) {
+                    String name = "Guest " + (char) ('a' + terminal) + " " + Integer.toString(i, 26).replaceAll("[0-9]", "x");
+                    LocalDate checkIn = FIRST_NIGHT.plusDays(i % NIGHTS);
+                    String roomNumber = String.valueOf(1001 + terminal * 3);
+                    service.checkIn(new CheckInRequest(name, "03001234567", "guest@gmail.com", "Street 1", "ID" + i,
+                            RoomType.SINGLE, roomNumber, checkIn, checkIn.plusDays(1)));
+                    service.checkOut(new CheckOutRequest(name, false));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Durable check-ins and check-outs: %,d operations from %d terminals at %,.0f ops/s%n",
+                2L * terminals * operations, terminals, 2L * terminals * operations * 1e9 / elapsed);
+    }
+
+    /**
+     * Books and releases one-night stays directly on the inventory until the journal holds the
+     * requested number of room records.
+     */
+    private static int churn(RoomInventory inventory, int records) {
+        Random random = new Random(42);
+        int written = 0;
+        while (written < records) {
+            String roomNumber = String.valueOf(1000 + random.nextInt(ROOMS));
+            LocalDate checkIn = FIRST_NIGHT.plusDays(random.nextInt(NIGHTS));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(3));
+            if (inventory.book(roomNumber, checkIn, checkOut)) {
+                written++;
+            } else if (inventory.vacate(roomNumber, checkIn)) {
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private static void verify(HotelService expected, HotelService actual) {
+        List<String> expectedBookings = bookings(expected.getRoomInventory());
+        List<String> actualBookings = bookings(actual.getRoomInventory());
+        if (!expectedBookings.equals(actualBookings) || expected.getGuestCount() != actual.getGuestCount()) {
+            throw new IllegalStateException("Recovered state differs: " + actualBookings.size() + " bookings, expected " + expectedBookings.size());
+        }
+        System.out.printf("Recovered state matches: %,d bookings, %,d guests%n", actualBookings.size(), actual.getGuestCount());
+    }
+
+    private static List<String> bookings(RoomInventory inventory) {
+        List<String> bookings = new ArrayList<>();
+        inventory.forEachBooking((roomNumber, checkInDay, checkOutDay) -> bookings.add(roomNumber + ":" + checkInDay + "-" + checkOutDay));
+        return bookings;
+    }
+}
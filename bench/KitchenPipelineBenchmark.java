@@ -0,0 +1,190 @@
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * KitchenPipelineBenchmark: tables submit orders from several threads while one thread per station
+ * drains its part and marks it ready. Reports orders per second, how far the stations fell behind
+ * and the average batch each station read, then runs the same load through one locked
+ * ArrayBlockingQueue per station for comparison, with the tickets split and tracked the same way.
+ *
+ * Usage: java KitchenPipelineBenchmark [tables] [ordersPerTable] [capacity]
+ */
+class KitchenPipelineBenchmark {
+    private static final int MAX_BATCH = 256;
+
+    public static void main(String[] args) throws Exception {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int ordersPerTable = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+        MenuCatalog menu = MenuCatalog.standard();
+        FoodOrder[] orders = {FoodOrder.of(1, 5), FoodOrder.of(3), FoodOrder.of(2, 3, 5, 5), FoodOrder.of(4, 1)};
+
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("Round %d%n", round + 1);
+            ring(menu, orders, tables, ordersPerTable, capacity);
+            blockingQueues(menu, orders, tables, ordersPerTable, capacity);
+        }
+    }
+
+    private static void ring(MenuCatalog menu, FoodOrder[] orders, int tables, int ordersPerTable, int capacity) throws InterruptedException {
+        KitchenPipeline kitchen = new KitchenPipeline(menu, capacity, 8);
+        long total = (long) tables * ordersPerTable;
+        List<Thread> stations = new ArrayList<>();
+        for (KitchenStation station : KitchenStation.values()) {
+            stations.add(kitchen.startStation(station, MAX_BATCH, ticket -> kitchen.markReady(ticket.ticketNumber(), station)));
+        }
+        long[] maxDepth = {0};
+        Thread monitor = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                for (KitchenStation station : KitchenStation.values()) {
+                    maxDepth[0] = Math.max(maxDepth[0], kitchen.getQueueDepth(station));
+                }
+                LockSupport.parkNanos(50_000);
+            }
+        });
+        monitor.setDaemon(true);
+        monitor.start();
+
+        String[] names = tableNames(tables);
+        KitchenMetrics before = kitchen.getMetrics();
+        runTables(tables, table -> {
+            for (int n = 0; n < ordersPerTable; n++) {
+                while (kitchen.submit(names[table], orders[n & 3]) < 0) {
+                    Thread.yield();
+                }
+            }
+        });
+        while (kitchen.getMetrics().ready() < total) {
+            Thread.yield();
+        }
+        KitchenMetrics after = kitchen.getMetrics();
+        monitor.interrupt();
+        stations.forEach(Thread::interrupt);
+
+        System.out.printf("  %-28s %,12.0f orders/s  max depth %,d of %,d  rejected submits %,d%n", "ring buffer",
+                after.ordersPerSecondSince(before), maxDepth[0], capacity, after.rejected());
+        for (StationMetrics station : after.stations()) {
+            System.out.printf("    %-8s %,12d tickets  %,10d batches  %6.1f tickets/batch%n",
+                    station.station(), station.tickets(), station.batches(), station.tickets() / (double) Math.max(1, station.batches()));
+        }
+    }
+
+    private static void blockingQueues(MenuCatalog menu, FoodOrder[] orders, int tables, int ordersPerTable, int capacity) throws InterruptedException {
+        List<BlockingQueue<KitchenTicket>> queues = new ArrayList<>();
+        Map<Long, AtomicInteger> pending = new ConcurrentHashMap<>();
+        AtomicLong ticketNumbers = new AtomicLong();
+        LongAdder done = new LongAdder();
+        List<Thread> stations = new ArrayList<>();
+        for (KitchenStation station : KitchenStation.values()) {
+            BlockingQueue<KitchenTicket> queue = new ArrayBlockingQueue<>(capacity);
+            queues.add(queue);
+            Thread worker = new Thread(() -> {
+                List<KitchenTicket> batch = new ArrayList<>(MAX_BATCH);
+                try {
+                    while (true) {
+                        batch.add(queue.take());
+                        queue.drainTo(batch, MAX_BATCH - 1);
+                        for (KitchenTicket ticket : batch) {
+                            if (pending.get(ticket.ticketNumber()).decrementAndGet() == 0) {
+                                pending.remove(ticket.ticketNumber());
+                                done.increment();
+                            }
+                        }
+                        batch.clear();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+            stations.add(worker);
+        }
+
+        long total = (long) tables * ordersPerTable;
+        String[] names = tableNames(tables);
+        long start = System.nanoTime();
+        runTables(tables, table -> {
+            try {
+                for (int n = 0; n < ordersPerTable; n++) {
+                    FoodOrder order = orders[n & 3];
+                    long ticketNumber = ticketNumbers.getAndIncrement();
+                    int mask = stationMask(menu, order);
+                    pending.put(ticketNumber, new AtomicInteger(Integer.bitCount(mask)));
+                    for (KitchenStation station : KitchenStation.values()) {
+                        if ((mask & 1 << station.ordinal()) != 0) {
+                            queues.get(station.ordinal()).put(ticketFor(menu, ticketNumber, names[table], station, order));
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        while (done.sum() < total) {
+            Thread.yield();
+        }
+        long elapsed = System.nanoTime() - start;
+        stations.forEach(Thread::interrupt);
+        System.out.printf("  %-28s %,12.0f orders/s%n", "ArrayBlockingQueue x3", total * 1e9 / elapsed);
+    }
+
+    private static int stationMask(MenuCatalog menu, FoodOrder order) {
+        int mask = 0;
+        for (int line = 0; line < order.getLineCount(); line++) {
+            mask |= 1 << KitchenStation.forCategory(menu.getCategory(order.getItemId(line))).ordinal();
+        }
+        return mask;
+    }
+
+    private static KitchenTicket ticketFor(MenuCatalog menu, long ticketNumber, String table, KitchenStation station, FoodOrder order) {
+        FoodOrder lines = new FoodOrder(order.getLineCount());
+        for (int line = 0; line < order.getLineCount(); line++) {
+            if (KitchenStation.forCategory(menu.getCategory(order.getItemId(line))) == station) {
+                lines.add(order.getItemId(line), order.getQuantity(line));
+            }
+        }
+        int[] itemIds = new int[lines.getLineCount()];
+        int[] quantities = new int[lines.getLineCount()];
+        for (int line = 0; line < itemIds.length; line++) {
+            itemIds[line] = lines.getItemId(line);
+            quantities[line] = lines.getQuantity(line);
+        }
+        return new KitchenTicket(ticketNumber, table, station, itemIds, quantities);
+    }
+
+    private static String[] tableNames(int tables) {
+        String[] names = new String[tables];
+        for (int t = 0; t < tables; t++) {
+            names[t] = "T" + (t + 1);
+        }
+        return names;
+    }
+
+    private static void runTables(int tables, TableLoop loop) throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(tables);
+        for (int t = 0; t < tables; t++) {
+            int table = t;
+            new Thread(() -> {
+                loop.run(table);
+                finished.countDown();
+            }).start();
+        }
+        finished.await();
+    }
+
+    private interface TableLoop {
+        void run(int table);
+    }
+}
@@ -0,0 +1,282 @@
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * LoadGenerator: drives one HotelService with synthetic hotel traffic at a fixed arrival rate and
+ * reports throughput and latency percentiles per operation.
+ *
+ * The load is open-loop. Arrivals are a Poisson process: the gaps between them are drawn from an
+ * exponential distribution regardless of how the service is keeping up, and each operation is
+ * handed to the workers at its intended start whether or not earlier ones have finished. Latency
+ * is measured from that intended start, so time an operation spends queued behind a slow one
+ * counts against it instead of silently thinning the load, which is the coordinated omission a
+ * closed loop suffers from. Service time,
+ * from when a worker actually started the operation, is reported beside it; the gap between the
+ * two is queueing.
+ *
+ * The first fifth of the run warms up and is not recorded.
+ *
+ * Usage: java LoadGenerator [arrivalsPerSecond] [seconds] [rooms] [mix] [workers]
+ *   mix is a weight per operation, e.g. availability=40,reserve=20,checkin=10,checkout=10,dinein=16,maintenance=1,signup=1,login=2
+ */
+class LoadGenerator {
+    private static final String DEFAULT_MIX = "availability=40,reserve=20,checkin=10,checkout=10,dinein=16,maintenance=1,signup=1,login=2";
+    // Searches crowd onto the next few weeks, the way guests look around the dates they want.
+    private static final int SEARCH_WINDOW_NIGHTS = 21;
+    private static final int BOOKING_WINDOW_NIGHTS = 90;
+    private static final int MAX_STAY_NIGHTS = 7;
+    private static final int ACCOUNTS = 16;
+    private static final String PASSWORD = "Load-test-1";
+
+    enum Operation {
+        AVAILABILITY, RESERVE, CHECKIN, CHECKOUT, DINEIN, MAINTENANCE, SIGNUP, LOGIN
+    }
+
+    public static void main(String[] args) throws Exception {
+        double rate = args.length > 0 ? Double.parseDouble(args[0]) : 500;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int rooms = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        Map<Operation, Integer> mix = parseMix(args.length > 3 ? args[3] : DEFAULT_MIX);
+        int workers = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+
+        LoadGenerator generator = new LoadGenerator(rooms, mix);
+        System.out.printf("%,d rooms, %.0f arrivals/s for %d s (%d s warm-up), %d workers, mix %s%n",
+                rooms, rate, seconds, seconds / 5, workers, mix);
+        generator.run(rate, seconds, workers);
+        generator.service.close();
+    }
+
+    private final HotelService service;
+    private final List<String> roomNumbers = new ArrayList<>();
+    private final Operation[] draws;
+    private final Queue<String> inHouse = new ConcurrentLinkedQueue<>();
+    private final AtomicLong nextGuest = new AtomicLong();
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final LatencyHistogram allResponses = new LatencyHistogram();
+
+    private LoadGenerator(int rooms, Map<Operation, Integer> mix) {
+        service = new HotelService(new RoomInventory());
+        for (int r = 0; r < rooms; r++) {
+            String roomNumber = String.valueOf(1000 + r);
+            service.getRoomInventory().addRoom(roomNumber, r % 3 == 0 ? RoomType.DOUBLE : RoomType.SINGLE);
+            roomNumbers.add(roomNumber);
+        }
+        for (int a = 0; a < ACCOUNTS; a++) {
+            service.signUp(new SignUpRequest(AccountType.USER, account(a), PASSWORD, "staff" + a + "@gmail.com", null));
+        }
+        KitchenPipeline kitchen = service.getKitchen();
+        for (KitchenStation station : KitchenStation.values()) {
+            kitchen.startStation(station, 32, ticket -> kitchen.markReady(ticket.ticketNumber(), station));
+        }
+        List<Operation> weighted = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int w = 0; w < weight; w++) {
+                weighted.add(operation);
+            }
+        });
+        draws = weighted.toArray(new Operation[0]);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    private void run(double rate, int seconds, int workers) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        LongAccumulator maxDispatchLag = new LongAccumulator(Math::max, 0);
+        long meanGapNanos = (long) (1e9 / rate);
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long recordFrom = start + TimeUnit.SECONDS.toNanos(seconds / 5);
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long dispatched = 0;
+        for (long intended = start; intended < end; intended += exponential(random, meanGapNanos)) {
+            long now = System.nanoTime();
+            if (intended > now) {
+                LockSupport.parkNanos(intended - now);
+            } else {
+                maxDispatchLag.accumulate(now - intended);
+            }
+            Operation operation = draws[random.nextInt(draws.length)];
+            boolean recorded = intended >= recordFrom;
+            long intendedStart = intended;
+            pool.execute(() -> execute(operation, intendedStart, recorded));
+            dispatched++;
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        double measuredSeconds = (end - recordFrom) / 1e9;
+
+        System.out.printf("dispatched %,d operations; the dispatcher was at most %.2f ms late%n", dispatched, maxDispatchLag.get() / 1e6);
+        System.out.printf("%-12s %9s %8s %8s | %-44s | %s%n", "operation", "ops/s", "ok", "refused",
+                "response time ms (p50 p90 p99 p99.9 max)", "service time ms (p50 p99)");
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            LatencySummary response = s.response.summarize();
+            if (response.count() == 0) {
+                continue;
+            }
+            LatencySummary service = s.service.summarize();
+            System.out.printf("%-12s %9.1f %8d %8d | %8.2f %8.2f %8.2f %8.2f %8.2f | %8.2f %8.2f%n", entry.getKey().name().toLowerCase(),
+                    response.count() / measuredSeconds, s.ok.sum(), s.refused.sum(),
+                    ms(response.p50()), ms(response.p90()), ms(response.p99()), ms(response.p999()), ms(response.max()), ms(service.p50()), ms(service.p99()));
+        }
+        LatencySummary all = allResponses.summarize();
+        System.out.printf("%-12s %9.1f %17s | %8.2f %8.2f %8.2f %8.2f %8.2f |%n", "all", all.count() / measuredSeconds, "",
+                ms(all.p50()), ms(all.p90()), ms(all.p99()), ms(all.p999()), ms(all.max()));
+        int occupied = 0;
+        for (RoomType type : RoomType.values()) {
+            occupied += service.getRoomCount(type) - service.countFreeRooms(type, LocalDate.now());
+        }
+        System.out.printf("tonight %,d of %,d rooms occupied, %,d walk-in guests in house, quote cache hit rate %.1f%%%n",
+                occupied, roomNumbers.size(), inHouse.size(), service.getQuoteCacheStats().hitRate() * 100);
+        System.out.println();
+        System.out.println("the service's own metrics, warm-up included:");
+        System.out.print(service.getMetrics().snapshot());
+    }
+
+    private void execute(Operation operation, long intendedStart, boolean recorded) {
+        long started = System.nanoTime();
+        boolean ok;
+        try {
+            ok = perform(operation);
+        } catch (RuntimeException e) {
+            ok = false;
+        }
+        long finished = System.nanoTime();
+        if (recorded) {
+            Stats s = stats.get(operation);
+            s.response.record(finished - intendedStart);
+            allResponses.record(finished - intendedStart);
+            s.service.record(finished - started);
+            (ok ? s.ok : s.refused).increment();
+        }
+    }
+
+    private boolean perform(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate today = LocalDate.now();
+        RoomType type = random.nextInt(3) == 0 ? RoomType.DOUBLE : RoomType.SINGLE;
+        switch (operation) {
+            case AVAILABILITY -> {
+                LocalDate checkIn = today.plusDays(1 + random.nextInt(SEARCH_WINDOW_NIGHTS));
+                RoomQuote quote = service.quoteAvailability(type, checkIn, checkIn.plusDays(1 + random.nextInt(3)), 1 + random.nextInt(2));
+                return quote != null && quote.available();
+            }
+            case RESERVE -> {
+                String guest = guestName(nextGuest.getAndIncrement());
+                LocalDate checkIn = today.plusDays(1 + random.nextInt(BOOKING_WINDOW_NIGHTS));
+                ReservationRequest request = new ReservationRequest(guest, "98" + (10_000_000 + random.nextInt(90_000_000)), "guest@gmail.com", "Main Road",
+                        checkIn, checkIn.plusDays(1 + random.nextInt(MAX_STAY_NIGHTS)), type, null, 1 + random.nextInt(2));
+                return service.reserve(request).status() == ServiceStatus.OK;
+            }
+            case CHECKIN -> {
+                String guest = guestName(nextGuest.getAndIncrement());
+                CheckInRequest request = new CheckInRequest(guest, "98" + (10_000_000 + random.nextInt(90_000_000)), "guest@gmail.com", "Main Road", "ID" + random.nextInt(1_000_000),
+                        type, null, today, today.plusDays(1 + random.nextInt(4)));
+                if (service.checkIn(request).status() != ServiceStatus.OK) {
+                    return false;
+                }
+                inHouse.add(guest);
+                return true;
+            }
+            case CHECKOUT -> {
+                String guest = inHouse.poll();
+                return guest != null && service.checkOut(new CheckOutRequest(guest, random.nextInt(4) == 0)).status() == ServiceStatus.OK;
+            }
+            case DINEIN -> {
+                FoodOrder order = new FoodOrder();
+                int size = service.getMenuCatalog().size();
+                for (int line = 1 + random.nextInt(4); line > 0; line--) {
+                    order.add(1 + random.nextInt(size), 1 + random.nextInt(2));
+                }
+                return service.dineIn(new DineInRequest(diner(random.nextInt(1000)), String.valueOf(1 + random.nextInt(40)), order)).status() == ServiceStatus.OK;
+            }
+            case MAINTENANCE -> {
+                return service.markMaintenance(roomNumbers.get(random.nextInt(roomNumbers.size()))) == ServiceStatus.OK;
+            }
+            case SIGNUP -> {
+                String name = guestName(nextGuest.getAndIncrement());
+                return service.signUp(new SignUpRequest(AccountType.CUSTOMER, name, PASSWORD, "customer@gmail.com", name.replace(" ", ""))).status() == ServiceStatus.OK;
+            }
+            case LOGIN -> {
+                LoginResponse response = service.login(new LoginRequest(account(random.nextInt(ACCOUNTS)), PASSWORD));
+                if (response.status() != ServiceStatus.OK) {
+                    return false;
+                }
+                service.logout(response.sessionToken());
+                return true;
+            }
+        }
+        throw new IllegalStateException("Unknown operation " + operation);
+    }
+
+    private static long exponential(ThreadLocalRandom random, long meanNanos) {
+        return Math.max(1, (long) (-Math.log(1 - random.nextDouble()) * meanNanos));
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no operation with a weight: " + mix);
+        }
+        return weights;
+    }
+
+    private static String account(int index) {
+        return "Front Desk " + guestName(index);
+    }
+
+    /**
+     * A unique, letters-only name for every index, as the name validation wants.
+     */
+    private static String guestName(long index) {
+        StringBuilder name = new StringBuilder("Guest ");
+        for (long n = index; ; n /= 26) {
+            name.append((char) ('a' + n % 26));
+            if (n < 26) {
+                return name.toString();
+            }
+        }
+    }
+
+    /**
+     * Restaurant customers give one word, as the name check there allows no spaces.
+     */
+    private static String diner(int index) {
+        return guestName(index).replace(" ", "");
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+
+    private static final class Stats {
+        private final LatencyHistogram response = new LatencyHistogram();
+        private final LatencyHistogram service = new LatencyHistogram();
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder refused = new LongAdder();
+    }
+}
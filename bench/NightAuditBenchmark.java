@@ -0,0 +1,60 @@
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * NightAuditBenchmark: audits a house of open folios night after night, once on a single worker
+ * and once on the common fork/join pool, and checks that both post the same revenue and that
+ * re-running a night posts nothing.
+ *
+ * Usage: java NightAuditBenchmark [folios] [nights] [taxBasisPoints]
+ */
+class NightAuditBenchmark {
+    private static final LocalDate FIRST_NIGHT = LocalDate.of(2026, 1, 1);
+
+    public static void main(String[] args) {
+        int folios = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int nights = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int taxBasisPoints = args.length > 2 ? Integer.parseInt(args[2]) : 1_600;
+        System.out.printf("%,d folios, %d nights, %d worker(s) in the common pool%n", folios, nights, ForkJoinPool.getCommonPoolParallelism());
+
+        for (int round = 0; round < 3; round++) {
+            ForkJoinPool single = new ForkJoinPool(1);
+            long serial = audit("1 worker", new NightAudit(single), folios(folios), nights, taxBasisPoints);
+            single.shutdown();
+            long parallel = audit("common pool", new NightAudit(), folios(folios), nights, taxBasisPoints);
+            if (serial != parallel) {
+                throw new IllegalStateException("Revenue differs: " + serial + " vs " + parallel);
+            }
+        }
+    }
+
+    private static long audit(String name, NightAudit audit, Folio[] folios, int nights, int taxBasisPoints) {
+        long revenue = 0;
+        long elapsed = 0;
+        for (int night = 0; night < nights; night++) {
+            NightAuditReport report = audit.run(folios, FIRST_NIGHT.plusDays(night), taxBasisPoints);
+            revenue += report.totalRevenue();
+            elapsed += report.elapsedNanos();
+            NightAuditReport rerun = audit.run(folios, FIRST_NIGHT.plusDays(night), taxBasisPoints);
+            if (rerun.nightsPosted() != 0 || rerun.totalRevenue() != 0) {
+                throw new IllegalStateException("Re-running " + report.businessDate() + " posted " + rerun.nightsPosted() + " nights");
+            }
+        }
+        System.out.printf("  %-12s %8.1f ms per audit  revenue Rs%,.2f%n", name, elapsed / 1e6 / nights, revenue / 100.0);
+        return revenue;
+    }
+
+    private static Folio[] folios(int count) {
+        Random random = new Random(42);
+        Folio[] folios = new Folio[count];
+        for (int f = 0; f < count; f++) {
+            int checkIn = (int) FIRST_NIGHT.toEpochDay() + random.nextInt(20);
+            folios[f] = new Folio("Guest " + f, String.valueOf(100 + f % 4000), RoomType.SINGLE, checkIn, checkIn + 1 + random.nextInt(10),
+                    (f % 3 == 0 ? 3_500_00 : 2_500_00));
+        }
+        return folios;
+    }
+}
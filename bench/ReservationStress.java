@@ -0,0 +1,132 @@
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * ReservationStress: hammers one RoomInventory from many threads and then proves that no two
+ * successful bookings of a room overlap and that the occupancy bitsets agree with the bookings.
+ * One more thread keeps adding rooms while the bookings run, so the bitsets are regrown under them.
+ *
+ * Usage: java ReservationStress [threads] [rooms] [seconds]
+ */
+class ReservationStress {
+    private static final int HORIZON_NIGHTS = 120;
+    private static final int MAX_STAY_NIGHTS = 5;
+
+    private record Stay(String roomNumber, int in, int out) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        int roomCount = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        LocalDate firstNight = LocalDate.of(2026, 1, 1);
+        RoomInventory inventory = new RoomInventory(firstNight, HORIZON_NIGHTS + MAX_STAY_NIGHTS);
+        List<String> roomNumbers = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < roomCount; i++) {
+            String roomNumber = String.valueOf(1000 + i);
+            inventory.addRoom(roomNumber, i % 2 == 0 ? RoomType.SINGLE : RoomType.DOUBLE);
+            roomNumbers.add(roomNumber);
+        }
+
+        LongAdder attempts = new LongAdder();
+        List<List<Stay>> booked = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<Stay> mine = new ArrayList<>();
+            booked.add(mine);
+            workers.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                start.await();
+                while (System.nanoTime() < deadline) {
+                    LocalDate checkIn = firstNight.plusDays(random.nextInt(HORIZON_NIGHTS));
+                    LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(MAX_STAY_NIGHTS));
+                    attempts.increment();
+                    String roomNumber;
+                    if (random.nextBoolean()) {
+                        roomNumber = roomNumbers.get(random.nextInt(roomNumbers.size()));
+                        if (!inventory.book(roomNumber, checkIn, checkOut)) {
+                            continue;
+                        }
+                    } else {
+                        roomNumber = inventory.bookFirstFree(random.nextBoolean() ? RoomType.SINGLE : RoomType.DOUBLE, checkIn, checkOut);
+                        if (roomNumber == null) {
+                            continue;
+                        }
+                    }
+                    // Give a fraction of the nights back so the calendar never saturates.
+                    if (random.nextInt(4) == 0) {
+                        inventory.release(roomNumber, checkIn, checkOut);
+                    } else {
+                        mine.add(new Stay(roomNumber, (int) checkIn.toEpochDay(), (int) checkOut.toEpochDay()));
+                    }
+                }
+                return null;
+            }));
+        }
+        // Each room past every 64th of a type regrows that type's words while bookings are landing.
+        workers.add(pool.submit(() -> {
+            start.await();
+            for (int i = roomCount; i < 2 * roomCount && System.nanoTime() < deadline; i++) {
+                String roomNumber = String.valueOf(1000 + i);
+                inventory.addRoom(roomNumber, i % 2 == 0 ? RoomType.SINGLE : RoomType.DOUBLE);
+                roomNumbers.add(roomNumber);
+                Thread.sleep(Math.max(1, seconds * 1000L / roomCount / 2));
+            }
+            return null;
+        }));
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+
+        Map<String, List<Stay>> byRoom = new HashMap<>();
+        long bookings = 0;
+        for (List<Stay> stays : booked) {
+            bookings += stays.size();
+            for (Stay stay : stays) {
+                byRoom.computeIfAbsent(stay.roomNumber(), r -> new ArrayList<>()).add(stay);
+            }
+        }
+        long doubleBookings = 0;
+        int[] occupiedPerNight = new int[HORIZON_NIGHTS + MAX_STAY_NIGHTS];
+        for (List<Stay> stays : byRoom.values()) {
+            stays.sort(Comparator.comparingInt(Stay::in));
+            for (int i = 1; i < stays.size(); i++) {
+                if (stays.get(i).in() < stays.get(i - 1).out()) {
+                    doubleBookings++;
+                }
+            }
+            for (Stay stay : stays) {
+                for (int day = stay.in(); day < stay.out(); day++) {
+                    occupiedPerNight[day - (int) firstNight.toEpochDay()]++;
+                }
+            }
+        }
+        long calendarMismatches = 0;
+        int[] free = new int[occupiedPerNight.length];
+        int[] freeDoubles = new int[occupiedPerNight.length];
+        inventory.countFreeRoomsPerNight(RoomType.SINGLE, (int) firstNight.toEpochDay(), free);
+        inventory.countFreeRoomsPerNight(RoomType.DOUBLE, (int) firstNight.toEpochDay(), freeDoubles);
+        for (int night = 0; night < occupiedPerNight.length; night++) {
+            if (roomNumbers.size() - free[night] - freeDoubles[night] != occupiedPerNight[night]) {
+                calendarMismatches++;
+            }
+        }
+
+        System.out.printf("threads=%d rooms=%d (%d added while booking) seconds=%d%n", threads, roomCount, roomNumbers.size() - roomCount, seconds);
+        System.out.printf("attempts=%d (%.0f/s) bookings kept=%d%n", attempts.sum(), attempts.sum() / (double) seconds, bookings);
+        System.out.printf("double bookings=%d calendar mismatches=%d%n", doubleBookings, calendarMismatches);
+        if (doubleBookings != 0 || calendarMismatches != 0) {
+            System.exit(1);
+        }
+    }
+}
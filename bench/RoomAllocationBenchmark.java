@@ -0,0 +1,145 @@
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+
+/**
+ * RoomAllocationBenchmark: sells the same stream of stay requests into identical hotels, one
+ * assigning rooms first-fit and one best-fit, and compares the stays sold, the nights sold and
+ * the orphan nights left behind. A third hotel with the stays scattered over the free rooms is
+ * then re-optimized. Last, two reservations of the same check-in day are made to swap rooms, and
+ * the service and a recovery from its journal are checked to agree on where each one is.
+ *
+ * Usage: java RoomAllocationBenchmark [rooms] [requests] [bookingWindowNights]
+ */
+class RoomAllocationBenchmark {
+    private static final LocalDate TODAY = LocalDate.of(2026, 1, 1);
+
+    public static void main(String[] args) throws IOException {
+        int rooms = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 4_500;
+        int window = args.length > 2 ? Integer.parseInt(args[2]) : 90;
+        System.out.printf("%d rooms, %,d requests over %d nights%n", rooms, requests, window);
+
+        for (int round = 0; round < 3; round++) {
+            RoomInventory firstFit = hotel(rooms);
+            sell("first fit", firstFit, requests, window, (type, in, out) -> firstFit.bookFirstFree(type, in, out));
+            RoomInventory bestFit = hotel(rooms);
+            RoomAllocator allocator = new RoomAllocator(bestFit, () -> (int) TODAY.toEpochDay());
+            sell("best fit", bestFit, requests, window, allocator::bookBestFit);
+
+            // Stays scattered over whichever rooms are free, then re-planned.
+            RoomInventory shuffled = hotel(rooms);
+            RoomAllocator shuffledAllocator = new RoomAllocator(shuffled, () -> (int) TODAY.toEpochDay());
+            List<Reservation> placed = sell("scattered", shuffled, requests, window, (type, in, out) -> {
+                List<String> free = shuffled.findFreeRooms(type, in, out);
+                String roomNumber = free.isEmpty() ? null : free.get(Math.floorMod(in.hashCode() * 31 + out.hashCode(), free.size()));
+                return roomNumber != null && shuffled.book(roomNumber, in, out) ? roomNumber : null;
+            });
+            long start = System.nanoTime();
+            ReoptimizationReport report = shuffledAllocator.reoptimize(RoomType.SINGLE, placed, moves -> { });
+            System.out.printf("  re-optimized scattered: %,d of %,d moved, orphan nights %,d -> %,d in %.1f ms%n",
+                    report.moved(), report.movableBookings(), report.orphanNightsBefore(), report.orphanNightsAfter(), (System.nanoTime() - start) / 1e6);
+            if (shuffledAllocator.countOrphanNights(RoomType.SINGLE) != report.orphanNightsAfter()) {
+                throw new IllegalStateException("Calendar does not match the plan");
+            }
+        }
+        swap();
+    }
+
+    /**
+     * Guest A stays two nights and Guest B three from the same day; a fixed booking in A's room
+     * from the day B leaves makes B fit there best, so the two trade rooms.
+     */
+    private static void swap() throws IOException {
+        Path directory = Files.createTempDirectory("hotel-swap");
+        try {
+            HotelService service = swapHotel();
+            HotelJournal.open(directory, service);
+            LocalDate checkIn = LocalDate.now().plusDays(5);
+            String roomA = service.reserve(swapRequest("Guest A", null, checkIn, checkIn.plusDays(2))).roomNumber();
+            String roomB = service.reserve(swapRequest("Guest B", null, checkIn, checkIn.plusDays(3))).roomNumber();
+            service.reserve(swapRequest("Guest C", roomA, checkIn.plusDays(3), checkIn.plusDays(5)));
+            ReoptimizationReport report = service.reoptimizeRooms(RoomType.SINGLE);
+            if (report.moved() != 2) {
+                throw new IllegalStateException("Expected the two stays to swap, moved " + report.moved());
+            }
+            checkSwapped("live", service, checkIn, roomA, roomB);
+
+            // Leave the journal open, as a killed process would, and recover beside it.
+            HotelService recovered = swapHotel();
+            HotelJournal.open(directory, recovered).close();
+            checkSwapped("recovered", recovered, checkIn, roomA, roomB);
+            System.out.printf("  swap: Guest A %s -> %s, Guest B %s -> %s, live and recovered%n", roomA, roomB, roomB, roomA);
+            service.close();
+            recovered.close();
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private static void checkSwapped(String state, HotelService service, LocalDate checkIn, String roomA, String roomB) {
+        Reservation a = service.findReservation(roomB, checkIn);
+        Reservation b = service.findReservation(roomA, checkIn);
+        if (a == null || !a.guestName().equals("Guest A") || !a.roomNumber().equals(roomB)
+                || b == null || !b.guestName().equals("Guest B") || !b.roomNumber().equals(roomA)) {
+            throw new IllegalStateException("Swapped reservations lost (" + state + "): " + a + ", " + b);
+        }
+    }
+
+    private static HotelService swapHotel() {
+        RoomInventory inventory = new RoomInventory();
+        inventory.addRoom("101", RoomType.SINGLE);
+        inventory.addRoom("102", RoomType.SINGLE);
+        return new HotelService(inventory);
+    }
+
+    private static ReservationRequest swapRequest(String guestName, String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        return new ReservationRequest(guestName, "9800000000", "swapguest@gmail.com", "Street 1", checkIn, checkOut, RoomType.SINGLE, roomNumber, 1);
+    }
+
+    private static List<Reservation> sell(String name, RoomInventory inventory, int requests, int window, Assigner assigner) {
+        Random random = new Random(42);
+        RoomAllocator counter = new RoomAllocator(inventory, () -> (int) TODAY.toEpochDay());
+        List<Reservation> sold = new ArrayList<>();
+        long nights = 0;
+        long start = System.nanoTime();
+        for (int r = 0; r < requests; r++) {
+            LocalDate checkIn = TODAY.plusDays(1 + random.nextInt(window));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(random.nextInt(4) == 0 ? 10 : 4));
+            String roomNumber = assigner.assign(RoomType.SINGLE, checkIn, checkOut);
+            if (roomNumber != null) {
+                sold.add(new Reservation("Guest " + r, "9800000000", "guest" + r + "@gmail.com", roomNumber, RoomType.SINGLE,
+                        checkIn, checkOut, 1, 2_500_00, true));
+                nights += checkOut.toEpochDay() - checkIn.toEpochDay();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("  %-10s %,7d stays %,8d nights sold  %,6d orphan nights  %6.2f us per request%n",
+                name, sold.size(), nights, counter.countOrphanNights(RoomType.SINGLE), elapsed / 1e3 / requests);
+        return sold;
+    }
+
+    private static RoomInventory hotel(int rooms) {
+        RoomInventory inventory = new RoomInventory(TODAY.minusDays(1), 2 * 366);
+        for (int r = 0; r < rooms; r++) {
+            inventory.addRoom(String.valueOf(1000 + r), RoomType.SINGLE);
+        }
+        return inventory;
+    }
+
+    private interface Assigner {
+        String assign(RoomType type, LocalDate checkIn, LocalDate checkOut);
+    }
+}
@@ -0,0 +1,38 @@
+
+/**
+ * ValidationBenchmark: compares the String.matches checks the console used to run with the
+ * ValidationUtil scanners that replaced them, on a mix of valid and invalid inputs.
+ *
+ * Usage: java ValidationBenchmark [warmupMillis] [measureMillis]
+ */
+class ValidationBenchmark {
+    private static final String[] NAMES = {"John Smith", "Ayesha", "R2D2", "Maria del Carmen", ""};
+    private static final String[] PHONES = {"03001234567", "+92 300 1234567", "5550100", "12a45"};
+    private static final String[] GMAILS = {"guest_01@gmail.com", "guest@yahoo.com", "first+tag@gmail.com", "bad address@gmail.com"};
+    private static final String[] EMAILS = {"john.doe@mail.example.org", "admin@hotel.pk", "no-at-sign.example.com", "x@y.toolongtld"};
+    private static final String[] PASSWORDS = {"secret1", "short", "longpassword", "p4ssw0rd!"};
+
+    public static void main(String[] args) {
+        Benchmark benchmark = Benchmark.fromArgs(args);
+        Benchmark.printHeader();
+
+        benchmark.measure("guestName  String.matches", i -> pick(NAMES, i).matches("[a-zA-Z\\s]+") ? 1 : 0);
+        benchmark.measure("guestName  ValidationUtil", i -> ValidationUtil.checkGuestName(pick(NAMES, i)).ordinal());
+
+        benchmark.measure("phone      String.matches", i -> pick(PHONES, i).matches("[0-9]+") ? 1 : 0);
+        benchmark.measure("phone      ValidationUtil", i -> ValidationUtil.checkPhoneNumber(pick(PHONES, i)).ordinal());
+
+        benchmark.measure("gmail      String.matches", i -> pick(GMAILS, i).matches("^[a-zA-Z0-9_+&-]+@(gmail\\.com)$") ? 1 : 0);
+        benchmark.measure("gmail      ValidationUtil", i -> ValidationUtil.checkGmail(pick(GMAILS, i)).ordinal());
+
+        benchmark.measure("email      String.matches", i -> pick(EMAILS, i).matches("^[a-zA-Z0-9_+&-]+(?:\\.[a-zA-Z0-9_+&-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$") ? 1 : 0);
+        benchmark.measure("email      ValidationUtil", i -> ValidationUtil.checkEmail(pick(EMAILS, i)).ordinal());
+
+        benchmark.measure("password   String.matches", i -> pick(PASSWORDS, i).matches("^(?=.*\\d).{6,}$") ? 1 : 0);
+        benchmark.measure("password   ValidationUtil", i -> ValidationUtil.checkPassword(pick(PASSWORDS, i)).ordinal());
+    }
+
+    private static String pick(String[] values, int iteration) {
+        return values[(iteration & Integer.MAX_VALUE) % values.length];
+    }
+}